@@ -1,5 +1,6 @@
 package com.agenda.ai;
 
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
@@ -7,6 +8,7 @@ import java.util.Map;
 
 @RestController
 @RequestMapping("/api/ai")
+@Slf4j
 public class AiController {
 
     private final OpenRouterService openRouterService;
@@ -35,9 +37,8 @@ public class AiController {
             return empty;
         }
 
-        System.out.println("[AI] Processing: " + userText);
         EventDto result = openRouterService.extractEvent(userText);
-        System.out.println("[AI] Result: " + result);
+        log.debug("extracted action={} title={} date={}", result.getAction(), result.getTitle(), result.getStartDate());
 
         return result;
     }
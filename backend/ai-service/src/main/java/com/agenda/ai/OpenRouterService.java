@@ -1,7 +1,12 @@
 package com.agenda.ai;
 
+import com.agenda.contracts.AiEventCommand;
+import com.agenda.contracts.Topics;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
@@ -12,6 +17,7 @@ import java.time.LocalDate;
 import java.util.*;
 
 @Service
+@Slf4j
 public class OpenRouterService {
 
     @Value("${openrouter.api-key:}")
@@ -20,15 +26,19 @@ public class OpenRouterService {
     @Value("${openrouter.model:mistralai/mistral-7b-instruct:free}")
     private String model;
 
+    @Value("${openrouter.url:https://openrouter.ai/api/v1/chat/completions}")
+    private String openRouterUrl;
+
     private final RestTemplate restTemplate = new RestTemplate();
     private final ObjectMapper objectMapper = new ObjectMapper();
-    private final KafkaTemplate<String, EventDto> kafkaTemplate;
+    private final KafkaTemplate<String, AiEventCommand> kafkaTemplate;
+    private final MeterRegistry meterRegistry;
 
-    private static final String OPENROUTER_URL = "https://openrouter.ai/api/v1/chat/completions";
-    private static final String TOPIC = "ai-events-topic";
+    private static final String TOPIC = Topics.AI_EVENTS;
 
-    public OpenRouterService(KafkaTemplate<String, EventDto> kafkaTemplate) {
+    public OpenRouterService(KafkaTemplate<String, AiEventCommand> kafkaTemplate, MeterRegistry meterRegistry) {
         this.kafkaTemplate = kafkaTemplate;
+        this.meterRegistry = meterRegistry;
     }
 
     public EventDto extractEvent(String userText) {
@@ -37,10 +47,13 @@ public class OpenRouterService {
 
         // If no API key, use fallback parsing
         if (apiKey == null || apiKey.isEmpty()) {
-            System.out.println("[AI] No API key, using fallback parsing");
+            meterRegistry.counter("ai.fallback", "reason", "no_api_key").increment();
             return fallbackParse(userText, today);
         }
 
+        // ai.openrouter.request: the model round trip, tagged success / http_error / error
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
             String systemPrompt = String.format("""
                     Analyze user text and determine the action and event details. Return ONLY valid JSON:
@@ -81,34 +94,44 @@ public class OpenRouterService {
 
             HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
 
-            System.out.println("[AI] Calling OpenRouter API...");
-            ResponseEntity<String> response = restTemplate.postForEntity(OPENROUTER_URL, entity, String.class);
+            ResponseEntity<String> response = restTemplate.postForEntity(openRouterUrl, entity, String.class);
+            outcome = response.getStatusCode().is2xxSuccessful() ? "success" : "http_error";
 
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
                 JsonNode root = objectMapper.readTree(response.getBody());
                 String content = root.path("choices").path(0).path("message").path("content").asText();
-                System.out.println("[AI] Response: " + content);
+                log.debug("openrouter response content={}", content);
 
                 // Parse JSON from response
                 EventDto event = parseJsonResponse(content, today);
 
                 // Send to Kafka
                 try {
-                    kafkaTemplate.send(TOPIC, event);
+                    AiEventCommand command = toCommand(event, UUID.randomUUID().toString());
+                    kafkaTemplate.send(TOPIC, command.idempotencyKey(), command);
                 } catch (Exception e) {
-                    System.err.println("[AI] Kafka failed: " + e.getMessage());
+                    log.warn("ai command not sent error={}", e.getMessage());
                 }
 
                 return event;
             }
         } catch (Exception e) {
-            System.err.println("[AI] OpenRouter error: " + e.getMessage());
-            e.printStackTrace();
+            log.warn("openrouter call failed error={}", e.getMessage(), e);
+        } finally {
+            sample.stop(Timer.builder("ai.openrouter.request").tag("outcome", outcome)
+                    .publishPercentileHistogram().register(meterRegistry));
         }
 
+        meterRegistry.counter("ai.fallback", "reason", "success".equals(outcome) ? "empty_response" : outcome).increment();
         return fallbackParse(userText, today);
     }
 
+    // The key lets the consumer drop redeliveries of the same record
+    private AiEventCommand toCommand(EventDto event, String idempotencyKey) {
+        return new AiEventCommand(event.getAction(), null, event.getTitle(), event.getSearchTitle(),
+                event.getStartDate(), event.getStartTime(), event.getCategory(), event.getPriority(), idempotencyKey);
+    }
+
     private EventDto parseJsonResponse(String content, String today) {
         try {
             // Extract JSON from response (might be wrapped in text)
@@ -119,12 +142,13 @@ public class OpenRouterService {
                 return objectMapper.readValue(json, EventDto.class);
             }
         } catch (Exception e) {
-            System.err.println("[AI] JSON parse error: " + e.getMessage());
+            log.debug("model answer is not JSON error={}", e.getMessage());
         }
+        meterRegistry.counter("ai.fallback", "reason", "unparsable").increment();
         return fallbackParse(content, today);
     }
 
-    private EventDto fallbackParse(String text, String today) {
+    EventDto fallbackParse(String text, String today) {
         EventDto event = new EventDto();
         String lower = text.toLowerCase();
 
@@ -135,8 +159,6 @@ public class OpenRouterService {
                 || lower.contains("update") || lower.contains("edit") || lower.contains("move")
                 || lower.contains("déplac") || lower.contains("report");
         
-        System.out.println("[AI] Detecting action from: '" + lower + "' -> isDelete=" + isDelete + ", isUpdate=" + isUpdate);
-        
         if (isDelete) {
             event.setAction("DELETE");
         } else if (isUpdate) {
@@ -174,7 +196,6 @@ public class OpenRouterService {
             int month = Integer.parseInt(dateMatcher.group(2));
             int year = Integer.parseInt(dateMatcher.group(3));
             event.setStartDate(String.format("%04d-%02d-%02d", year, month, day));
-            System.out.println("[AI] Explicit date detected: " + event.getStartDate());
         } else if (lower.contains("demain") || lower.contains("tomorrow")) {
             event.setStartDate(LocalDate.now().plusDays(1).toString());
         } else {
@@ -204,7 +225,7 @@ public class OpenRouterService {
         }
 
         event.setPriority("MEDIUM");
-        System.out.println("[AI] Fallback parsed: action=" + event.getAction() + ", title=" + event.getTitle() + ", searchTitle=" + event.getSearchTitle());
+        log.debug("fallback parsed action={} title={} searchTitle={}", event.getAction(), event.getTitle(), event.getSearchTitle());
         return event;
     }
 
@@ -0,0 +1,50 @@
+package com.agenda.ai;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+// OpenRouterService.fallbackParse, the keyword/regex parser that answers whenever the model
+// is unreachable or returns no JSON. Lives in com.agenda.ai to reach the package-private method.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FallbackParseBenchmark {
+
+    @Param({
+            "Réunion avec l'équipe demain à 14h30",
+            "Annuler mon rendez-vous chez le dentiste",
+            "Déplacer le match de foot au 12/11/2026 à 18:00",
+            "Dîner avec des amis samedi soir pour fêter l'anniversaire de Paul, prévoir un cadeau et réserver une table"
+    })
+    private String text;
+
+    private OpenRouterService service;
+    private String today;
+
+    @Setup
+    public void setup() {
+        service = new OpenRouterService(null, new SimpleMeterRegistry()); // Kafka is not used by the fallback parser
+        today = LocalDate.now().toString();
+    }
+
+    @Benchmark
+    public EventDto fallbackParse() {
+        return service.fallbackParse(text, today);
+    }
+}
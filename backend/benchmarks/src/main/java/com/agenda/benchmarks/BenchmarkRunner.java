@@ -0,0 +1,101 @@
+package com.agenda.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Entry point of benchmarks.jar. Takes the usual JMH arguments, always writes the results as
+// JSON (jmh-result.json unless -rff says otherwise), and with --baseline compares them to an
+// earlier result file: exits with status 2 when a benchmark got slower than --max-regression
+// (percent, default 10), so a CI job can run
+//   java -jar benchmarks.jar --baseline main.json -rff branch.json
+// and fail before the regression is merged.
+public class BenchmarkRunner {
+
+    private static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        String baseline = null;
+        double maxRegression = 10;
+        List<String> jmhArgs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if ("--baseline".equals(args[i]) && i + 1 < args.length) {
+                baseline = args[++i];
+            } else if ("--max-regression".equals(args[i]) && i + 1 < args.length) {
+                maxRegression = Double.parseDouble(args[++i]);
+            } else {
+                jmhArgs.add(args[i]);
+            }
+        }
+
+        CommandLineOptions commandLine = new CommandLineOptions(jmhArgs.toArray(new String[0]));
+        String resultFile = commandLine.getResult().orElse(DEFAULT_RESULT_FILE);
+        Options options = new OptionsBuilder()
+                .parent(commandLine)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile)
+                .build();
+        new Runner(options).run();
+        System.out.println("Results written to " + new File(resultFile).getAbsolutePath());
+
+        if (baseline != null && !compare(new File(baseline), new File(resultFile), maxRegression)) {
+            System.exit(2);
+        }
+    }
+
+    // Prints every benchmark's change against the baseline; false if one regressed too much
+    static boolean compare(File baselineFile, File currentFile, double maxRegression) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, JsonNode> baseline = index(objectMapper.readTree(baselineFile));
+        Map<String, JsonNode> current = index(objectMapper.readTree(currentFile));
+        boolean ok = true;
+        System.out.printf("%nChange against %s (max regression %.1f%%):%n", baselineFile, maxRegression);
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("  %-90s new%n", entry.getKey());
+                continue;
+            }
+            double oldScore = before.path("primaryMetric").path("score").asDouble();
+            double newScore = entry.getValue().path("primaryMetric").path("score").asDouble();
+            // Throughput: higher is better; time modes: lower is better
+            boolean higherIsBetter = "thrpt".equals(entry.getValue().path("mode").asText());
+            double change = oldScore == 0 ? 0 : (newScore - oldScore) / oldScore * 100;
+            double regression = higherIsBetter ? -change : change;
+            boolean failed = regression > maxRegression;
+            ok &= !failed;
+            System.out.printf("  %-90s %+7.1f%%  (%.3f -> %.3f %s)%s%n", entry.getKey(), change, oldScore, newScore,
+                    entry.getValue().path("primaryMetric").path("scoreUnit").asText(), failed ? "  REGRESSION" : "");
+        }
+        return ok;
+    }
+
+    // benchmark name + parameters -> result
+    private static Map<String, JsonNode> index(JsonNode results) {
+        Map<String, JsonNode> byKey = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText());
+            Iterator<Map.Entry<String, JsonNode>> params = result.path("params").fields();
+            while (params.hasNext()) {
+                Map.Entry<String, JsonNode> param = params.next();
+                key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            byKey.put(key.toString(), result);
+        }
+        return byKey;
+    }
+}
@@ -0,0 +1,128 @@
+package com.agenda.benchmarks;
+
+import com.agenda.contracts.AiEventCommand;
+import com.agenda.contracts.ContractDeserializer;
+import com.agenda.contracts.ContractSerializer;
+import com.agenda.contracts.EventNotification;
+import com.agenda.contracts.Topics;
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Kafka value (de)serialization per record: the event contracts' binary codec against the
+// JsonSerializer / JsonDeserializer path the services used before (notifications as a
+// HashMap, AI events as a JSON object with the same fields). Message sizes are printed at
+// setup; run with -prof gc to compare allocation per record as well.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventCodecBenchmark {
+
+    private final ContractSerializer binarySerializer = new ContractSerializer();
+    private final ContractDeserializer binaryDeserializer = new ContractDeserializer();
+    private final JsonSerializer<Object> jsonSerializer = new JsonSerializer<>();
+    private final JsonDeserializer<Map<String, Object>> mapDeserializer =
+            new JsonDeserializer<>(new TypeReference<Map<String, Object>>() {
+            }, false);
+    private final JsonDeserializer<AiEventCommand> commandDeserializer = new JsonDeserializer<>(AiEventCommand.class, false);
+
+    private EventNotification notification;
+    private Map<String, Object> notificationMap;
+    private AiEventCommand command;
+
+    private byte[] notificationBinary;
+    private byte[] notificationJson;
+    private byte[] commandBinary;
+    private byte[] commandJson;
+
+    @Setup
+    public void setup() {
+        binarySerializer.configure(Map.of(), false);
+        String origin = UUID.randomUUID().toString();
+        notification = new EventNotification(48213L, "1042", "Réunion d'équipe projet Agenda",
+                LocalDate.of(2026, 10, 18), LocalTime.of(9, 30), "WORK", "UPDATED", false,
+                LocalDate.of(2026, 10, 17), origin);
+        command = new AiEventCommand("CREATE", null, "Dentiste", null, "2026-10-21", "14:00",
+                "HEALTH", "MEDIUM", UUID.randomUUID().toString());
+
+        // Same content, in the shape KafkaNotificationProducer used to build
+        notificationMap = new HashMap<>();
+        notificationMap.put("id", notification.id());
+        notificationMap.put("title", notification.title());
+        notificationMap.put("startDate", notification.startDate().toString());
+        notificationMap.put("startTime", "09:30");
+        notificationMap.put("category", notification.category());
+        notificationMap.put("userId", notification.userId());
+        notificationMap.put("type", notification.type());
+        notificationMap.put("recurring", notification.recurring());
+        notificationMap.put("origin", origin);
+        notificationMap.put("previousStartDate", notification.previousStartDate().toString());
+
+        notificationBinary = binarySerializer.serialize(Topics.EVENT_NOTIFICATIONS, notification);
+        notificationJson = jsonSerializer.serialize(Topics.EVENT_NOTIFICATIONS, notificationMap);
+        commandBinary = binarySerializer.serialize(Topics.AI_EVENTS, command);
+        commandJson = jsonSerializer.serialize(Topics.AI_EVENTS, command);
+        System.out.printf("%nBytes per message: notification binary=%d json=%d, AI event binary=%d json=%d%n",
+                notificationBinary.length, notificationJson.length, commandBinary.length, commandJson.length);
+    }
+
+    @Benchmark
+    public byte[] notificationSerializeBinary() {
+        return binarySerializer.serialize(Topics.EVENT_NOTIFICATIONS, notification);
+    }
+
+    @Benchmark
+    public byte[] notificationSerializeJsonMap() {
+        return jsonSerializer.serialize(Topics.EVENT_NOTIFICATIONS, notificationMap);
+    }
+
+    @Benchmark
+    public Object notificationDeserializeBinary() {
+        return binaryDeserializer.deserialize(Topics.EVENT_NOTIFICATIONS, notificationBinary);
+    }
+
+    @Benchmark
+    public Map<String, Object> notificationDeserializeJsonMap() {
+        return mapDeserializer.deserialize(Topics.EVENT_NOTIFICATIONS, notificationJson);
+    }
+
+    @Benchmark
+    public byte[] aiEventSerializeBinary() {
+        return binarySerializer.serialize(Topics.AI_EVENTS, command);
+    }
+
+    @Benchmark
+    public byte[] aiEventSerializeJson() {
+        return jsonSerializer.serialize(Topics.AI_EVENTS, command);
+    }
+
+    @Benchmark
+    public Object aiEventDeserializeBinary() {
+        return binaryDeserializer.deserialize(Topics.AI_EVENTS, commandBinary);
+    }
+
+    @Benchmark
+    public AiEventCommand aiEventDeserializeJson() {
+        return commandDeserializer.deserialize(Topics.AI_EVENTS, commandJson);
+    }
+}
@@ -0,0 +1,92 @@
+package com.agenda.calendar;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Response bodies of the calendar API: a list of EventEntity as the controllers return it,
+// and the same events as the month view's EventSummary, with the mapper Spring Boot builds.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventJsonBenchmark {
+
+    private static final String[] CATEGORIES = {"WORK", "HEALTH", "SPORT", "SOCIAL"};
+    private static final String[] PRIORITIES = {"HIGH", "MEDIUM", "LOW"};
+
+    @Param({"1", "50", "1000"})
+    private int events;
+
+    private ObjectMapper objectMapper;
+    private List<EventEntity> entities;
+    private List<EventSummary> summaries;
+
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        Random random = new Random(42);
+        LocalDate first = LocalDate.of(2026, 10, 1);
+        entities = new ArrayList<>(events);
+        for (int i = 0; i < events; i++) {
+            EventEntity event = new EventEntity();
+            event.setId((long) i + 1);
+            event.setUserId("1042");
+            event.setTitle("Réunion projet " + i);
+            event.setDescription(i % 3 == 0 ? "Préparer la démo et relire les notes de la dernière réunion" : null);
+            event.setStartDate(first.plusDays(random.nextInt(60)));
+            event.setStartTime(LocalTime.of(8 + random.nextInt(10), random.nextBoolean() ? 0 : 30));
+            event.setDurationMinutes(random.nextBoolean() ? 30 : null);
+            event.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            event.setPriority(PRIORITIES[random.nextInt(PRIORITIES.length)]);
+            event.setChangeVersion((long) i + 1);
+            event.setUpdatedAt(Instant.parse("2026-10-18T08:00:00Z"));
+            if (i % 10 == 0) {
+                RecurrenceRule rule = new RecurrenceRule();
+                rule.setFrequency("WEEKLY");
+                rule.setInterval(1);
+                rule.setCount(12);
+                rule.setExceptions(Set.of(event.getStartDate().plusWeeks(2)));
+                event.setRecurrence(rule);
+            }
+            event.computeDerivedColumns();
+            entities.add(event);
+        }
+        summaries = entities.stream().map(EventSummary::of).toList();
+    }
+
+    @Benchmark
+    public byte[] entities() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(entities);
+    }
+
+    @Benchmark
+    public byte[] summaries() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(summaries);
+    }
+}
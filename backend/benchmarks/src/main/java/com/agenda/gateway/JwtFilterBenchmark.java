@@ -0,0 +1,72 @@
+package com.agenda.gateway;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+// JwtAuthenticationFilter on one request: header checks, HS256 signature verification and
+// the X-User-Id rewrite, with a pass-through chain. "tampered" is the rejection path.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    private static final GatewayFilterChain PASS_THROUGH = exchange -> Mono.empty();
+
+    private GatewayFilter filter;
+    private String validToken;
+    private String tamperedToken;
+
+    @Setup
+    public void setup() {
+        filter = new JwtAuthenticationFilter().apply(new JwtAuthenticationFilter.Config());
+        validToken = Jwts.builder()
+                .setSubject("1042")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1)))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(JwtAuthenticationFilter.SECRET)), SignatureAlgorithm.HS256)
+                .compact();
+        char last = validToken.charAt(validToken.length() - 1);
+        tamperedToken = validToken.substring(0, validToken.length() - 1) + (last == 'A' ? 'B' : 'A');
+    }
+
+    @Benchmark
+    public Object valid() {
+        return filter(validToken);
+    }
+
+    @Benchmark
+    public Object tampered() {
+        return filter(tamperedToken);
+    }
+
+    private Object filter(String token) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/calendar")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+        filter.filter(exchange, PASS_THROUGH).block();
+        return exchange.getResponse().getStatusCode();
+    }
+}
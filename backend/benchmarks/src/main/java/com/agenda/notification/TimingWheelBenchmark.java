@@ -0,0 +1,61 @@
+package com.agenda.notification;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// The reminder wheel of ReminderScheduler with `pending` reminders spread over two days:
+// scheduling + cancelling one reminder (an event update), and one one-second tick, where each
+// fired reminder is scheduled again two days later so the wheel keeps its size.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimingWheelBenchmark {
+
+    private static final long TICK = 1000;
+    private static final long HORIZON = TimeUnit.DAYS.toMillis(2);
+
+    @Param({"1000", "100000", "1000000"})
+    private int pending;
+
+    private TimingWheel<Long> wheel;
+    private SplittableRandom random;
+    private long now;
+
+    @Setup
+    public void setup() {
+        random = new SplittableRandom(42);
+        now = System.currentTimeMillis();
+        wheel = new TimingWheel<>(TICK, 64, now);
+        for (long i = 0; i < pending; i++) {
+            wheel.schedule(now + TICK + random.nextLong(HORIZON), i);
+        }
+    }
+
+    @Benchmark
+    public boolean scheduleAndCancel() {
+        return wheel.schedule(now + TICK + random.nextLong(HORIZON), -1L).cancel();
+    }
+
+    @Benchmark
+    public int tick() {
+        now += TICK;
+        long reschedule = now + HORIZON;
+        wheel.advance(now, id -> wheel.schedule(reschedule, id));
+        return wheel.size();
+    }
+}
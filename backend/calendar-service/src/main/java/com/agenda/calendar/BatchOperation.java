@@ -0,0 +1,10 @@
+package com.agenda.calendar;
+
+import lombok.Data;
+
+@Data
+public class BatchOperation {
+    private String op; // CREATE, UPDATE, DELETE
+    private Long id; // target of UPDATE / DELETE
+    private EventEntity event; // payload of CREATE / UPDATE
+}
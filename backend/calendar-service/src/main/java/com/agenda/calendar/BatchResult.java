@@ -0,0 +1,13 @@
+package com.agenda.calendar;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BatchResult {
+    private int index; // position of the operation in the request
+    private String op;
+    private Long id;
+    private String status; // OK, NOT_FOUND, INVALID
+}
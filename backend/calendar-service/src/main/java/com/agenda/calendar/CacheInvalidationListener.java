@@ -0,0 +1,45 @@
+package com.agenda.calendar;
+
+import com.agenda.contracts.EventNotification;
+import com.agenda.contracts.Topics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+@Service
+public class CacheInvalidationListener {
+
+    @Autowired
+    private EventCache eventCache;
+
+    @Autowired
+    private FreeBusyIndex freeBusyIndex;
+
+    @Autowired
+    private SearchIndex searchIndex;
+
+    // Every instance consumes the whole topic (a group of its own) so that writes handled by
+    // another calendar-service instance also invalidate our local indexes. The group id is
+    // stable across restarts, so no orphan group is left behind on the broker.
+    @KafkaListener(topics = Topics.EVENT_NOTIFICATIONS,
+            groupId = "calendar-cache-${calendar.cache.instance-id}",
+            properties = "auto.offset.reset=latest")
+    public void onEventNotification(EventNotification event) {
+        if (KafkaNotificationProducer.ORIGIN.equals(event.origin())) {
+            return; // already applied locally after commit
+        }
+        String userId = event.userId();
+        // The message lacks duration, rule and description, so rebuild these on next use
+        freeBusyIndex.evictUser(userId);
+        searchIndex.evictUser(userId);
+        if (event.recurring()) {
+            eventCache.evictUser(userId);
+            return;
+        }
+        eventCache.evict(userId, event.startDate());
+        // An update may have moved the event away from another day
+        if (event.previousStartDate() != null) {
+            eventCache.evict(userId, event.previousStartDate());
+        }
+    }
+}
@@ -1,58 +1,305 @@
 package com.agenda.calendar;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/calendar")
+@Slf4j
 public class CalendarController {
 
     @Autowired
     private EventRepository eventRepository;
 
     @Autowired
-    private KafkaNotificationProducer kafkaProducer;
+    private EventStreamer eventStreamer;
 
-    // Get upcoming events (within next 24 hours) - for notification service
+    @Autowired
+    private EventCache eventCache;
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private FreeBusyIndex freeBusyIndex;
+
+    @Autowired
+    private MonthViewStore monthViewStore;
+
+    @Autowired
+    private SearchIndex searchIndex;
+
+    @Autowired
+    private IcsImporter icsImporter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_FREE_SLOTS = 50;
+    private static final int MAX_UPCOMING_DAYS = 7;
+    // Widest /range request: a year view; series are expanded to one row per occurrence
+    private static final int MAX_RANGE_DAYS = 366;
+    private static final String CONFLICTS_HEADER = "X-Calendar-Conflicts";
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType ICALENDAR = MediaType.parseMediaType("text/calendar;charset=UTF-8");
+
+    // All users' events (recurring series expanded) between two dates, today and tomorrow by
+    // default - notification-service loads its reminder horizon from here. With `partitions` and
+    // `partitionCount`, only the users whose event-notifications partition is listed (one
+    // notification-service instance's shard).
     @GetMapping("/upcoming")
-    public List<EventEntity> getUpcomingEvents() {
-        LocalDate today = LocalDate.now();
-        LocalDate tomorrow = today.plusDays(1);
-        System.out.println("[Calendar] Getting upcoming events from " + today + " to " + tomorrow);
-        return eventRepository.findUpcomingEvents(today.toString(), tomorrow.toString());
+    public ResponseEntity<List<EventEntity>> getUpcomingEvents(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Set<Integer> partitions,
+            @RequestParam(required = false) Integer partitionCount) {
+        LocalDate start = from != null ? from : LocalDate.now();
+        LocalDate end = to != null ? to : start.plusDays(1);
+        if (end.isBefore(start) || end.isAfter(start.plusDays(MAX_UPCOMING_DAYS))
+                || (partitions != null && (partitionCount == null || partitionCount <= 0))) {
+            return ResponseEntity.badRequest().build();
+        }
+        log.debug("upcoming events from={} to={} partitions={}", start, end, partitions);
+        return ResponseEntity.ok(partitions != null
+                ? eventService.findUpcoming(start, end, partitions, partitionCount)
+                : eventService.findUpcoming(start, end));
+    }
+
+    // Get events between two dates (inclusive) for current user - month/week views
+    @GetMapping("/range")
+    public ResponseEntity<List<EventEntity>> getEventsInRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestHeader(value = "X-User-Id", required = false) String userId,
+            WebRequest request) {
+        if (to.isBefore(from) || to.isAfter(from.plusDays(MAX_RANGE_DAYS))) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (userId == null || userId.isEmpty()) {
+            return ResponseEntity.ok(List.of());
+        }
+        if (request.checkNotModified(etag(eventService.currentVersion(userId)))) {
+            return null;
+        }
+        return ResponseEntity.ok(eventService.findInRange(userId, from, to));
+    }
+
+    // Dashboard month: per-day buckets of event summaries (perDay > 0 caps each bucket, counts stay exact)
+    @GetMapping("/month/{month}")
+    public MonthView getMonth(
+            @PathVariable YearMonth month,
+            @RequestParam(defaultValue = "0") int perDay,
+            @RequestHeader(value = "X-User-Id", required = false) String userId,
+            WebRequest request) {
+        if (userId == null || userId.isEmpty()) {
+            return new MonthView(month, 0, 0, List.of());
+        }
+        long version = eventService.currentVersion(userId);
+        if (request.checkNotModified(etag(version))) {
+            return null;
+        }
+        return monthViewStore.get(userId, month, version, perDay);
+    }
+
+    // Ranked fuzzy search over titles and descriptions (typos and accents tolerated)
+    @GetMapping("/search")
+    public List<SearchHit> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        if (userId == null || userId.isEmpty()) {
+            return List.of();
+        }
+        return searchIndex.search(userId, q, Math.max(1, Math.min(limit, SearchIndex.MAX_RESULTS)));
     }
 
     // Get all events for current user (filtered by userId from JWT)
     @GetMapping
-    public List<EventEntity> getAllEvents(@RequestHeader(value = "X-User-Id", required = false) String userId) {
-        System.out.println("[Calendar] Getting events for user: " + userId);
+    public List<EventEntity> getAllEvents(
+            @RequestHeader(value = "X-User-Id", required = false) String userId,
+            WebRequest request) {
+        log.debug("list events user={}", userId);
         if (userId != null && !userId.isEmpty()) {
-            return eventRepository.findByUserId(userId);
+            long version = eventService.currentVersion(userId);
+            if (request.checkNotModified(etag(version))) {
+                return null;
+            }
+            return eventCache.getAll(userId, version, () -> eventRepository.findByUserIdAndDeletedFalse(userId));
         }
         // If no userId (shouldn't happen with JWT), return empty
         return List.of();
     }
 
-    // Create new event for current user
+    // Keyset-paginated listing: pass back nextCursor as "after" to get the following page
+    @GetMapping("/page")
+    public EventPage getEventPage(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        if (userId == null || userId.isEmpty()) {
+            return new EventPage(List.of(), null);
+        }
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<EventEntity> items = eventRepository.findPageAfter(
+                userId, after != null ? after : 0L, PageRequest.ofSize(size));
+        Long next = items.size() == size ? items.get(items.size() - 1).getId() : null;
+        return new EventPage(items, next);
+    }
+
+    // Stream every event of the user as NDJSON (one JSON object per line), in constant memory
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamEvents(
+            @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        if (userId == null || userId.isEmpty()) {
+            return ResponseEntity.ok().contentType(NDJSON).body(out -> { });
+        }
+        ObjectWriter writer = objectMapper.writerFor(EventEntity.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        StreamingResponseBody body = out -> eventStreamer.forEachEvent(userId, event -> {
+            try {
+                writer.writeValue(out, event);
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    // iCalendar export of every event of the user, written row by row from a DB cursor
+    @GetMapping("/export.ics")
+    public ResponseEntity<StreamingResponseBody> exportCalendar(
+            @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        StreamingResponseBody body = out -> {
+            IcsWriter ics = new IcsWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+            ics.begin();
+            if (userId != null && !userId.isEmpty()) {
+                eventStreamer.forEachEvent(userId, event -> {
+                    try {
+                        ics.write(event);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+            ics.end();
+        };
+        return ResponseEntity.ok()
+                .contentType(ICALENDAR)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"agenda.ics\"")
+                .body(body);
+    }
+
+    // iCalendar import (raw request body), parsed as it streams in and saved in batches
+    @PostMapping(value = "/import", consumes = {"text/calendar", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<ImportResult> importCalendar(
+            InputStream body,
+            @RequestHeader(value = "X-User-Id", required = false) String userId) throws IOException {
+        if (userId == null || userId.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(icsImporter.importCalendar(body, userId));
+    }
+
+    // Delta sync: everything that changed after `since`, deletions included as tombstones
+    @GetMapping("/changes")
+    public ChangeSet getChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "1000") int limit,
+            @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        if (userId == null || userId.isEmpty()) {
+            return new ChangeSet(List.of(), since, false);
+        }
+        return eventService.changesSince(userId, since, limit);
+    }
+
+    // Create new event for current user. Overlapping events are listed in X-Calendar-Conflicts;
+    // with rejectConflicts=true the event is not created and 409 is returned instead
     @PostMapping
-    public EventEntity createEvent(
+    public ResponseEntity<EventEntity> createEvent(
             @RequestBody EventEntity event,
+            @RequestParam(defaultValue = "false") boolean rejectConflicts,
             @RequestHeader(value = "X-User-Id", required = false) String userId) {
-        System.out.println("[Calendar] Creating event for user: " + userId);
-        if (userId != null) {
-            event.setUserId(userId);
+        List<Long> conflicts = List.of();
+        if (userId != null && !userId.isEmpty() && event.getStartDate() != null && event.getStartTime() != null) {
+            conflicts = freeBusyIndex.conflicts(userId, event.getStartDate(), event.getStartTime(), duration(event), null);
         }
-        EventEntity saved = eventRepository.save(event);
-        System.out.println("[Calendar] Event saved: " + saved.getId());
+        String conflictIds = conflicts.stream().map(String::valueOf).collect(Collectors.joining(","));
+        if (rejectConflicts && !conflicts.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).header(CONFLICTS_HEADER, conflictIds).build();
+        }
+        EventEntity saved = eventService.create(event, userId);
+        log.debug("event created user={} id={}", userId, saved.getId());
+        return ResponseEntity.ok().header(CONFLICTS_HEADER, conflictIds).body(saved);
+    }
 
-        // Send Kafka notification for new event
-        kafkaProducer.sendEventNotification(saved, "CREATED");
+    // Ids of the user's events overlapping a proposed time (excludeId: the event being edited)
+    @GetMapping("/conflicts")
+    public List<Long> getConflicts(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam @DateTimeFormat(pattern = "HH:mm") LocalTime time,
+            @RequestParam(defaultValue = "60") int duration,
+            @RequestParam(required = false) Long excludeId,
+            @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        if (userId == null || userId.isEmpty()) {
+            return List.of();
+        }
+        return freeBusyIndex.conflicts(userId, date, time, Math.max(duration, 1), excludeId);
+    }
+
+    // Next `count` free slots of `duration` minutes from `from` (default now), within working hours
+    @GetMapping("/free-slots")
+    public List<FreeSlot> getFreeSlots(
+            @RequestParam(defaultValue = "60") int duration,
+            @RequestParam(defaultValue = "5") int count,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(defaultValue = "08:00") @DateTimeFormat(pattern = "HH:mm") LocalTime dayStart,
+            @RequestParam(defaultValue = "20:00") @DateTimeFormat(pattern = "HH:mm") LocalTime dayEnd,
+            @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        if (userId == null || userId.isEmpty()) {
+            return List.of();
+        }
+        return freeBusyIndex.freeSlots(userId, from != null ? from : LocalDateTime.now(), duration,
+                Math.max(1, Math.min(count, MAX_FREE_SLOTS)), dayStart, dayEnd);
+    }
 
-        return saved;
+    // Apply up to MAX_BATCH_SIZE create/update/delete operations in one transaction
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchResult>> applyBatch(
+            @RequestBody List<BatchOperation> operations,
+            @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        if (operations.size() > EventService.MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        log.debug("batch user={} operations={}", userId, operations.size());
+        return ResponseEntity.ok(eventService.applyBatch(operations, userId));
     }
 
     // Get event by ID (only if belongs to user)
@@ -60,8 +307,7 @@ public class CalendarController {
     public ResponseEntity<EventEntity> getEventById(
             @PathVariable Long id,
             @RequestHeader(value = "X-User-Id", required = false) String userId) {
-        return eventRepository.findById(id)
-                .filter(e -> userId == null || userId.equals(e.getUserId()))
+        return eventService.findOwned(id, userId)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -72,22 +318,8 @@ public class CalendarController {
             @PathVariable Long id,
             @RequestBody EventEntity eventDetails,
             @RequestHeader(value = "X-User-Id", required = false) String userId) {
-        return eventRepository.findById(id)
-                .filter(e -> userId == null || userId.equals(e.getUserId()))
-                .map(event -> {
-                    event.setTitle(eventDetails.getTitle());
-                    event.setStartDate(eventDetails.getStartDate());
-                    event.setStartTime(eventDetails.getStartTime());
-                    event.setCategory(eventDetails.getCategory());
-                    event.setPriority(eventDetails.getPriority());
-                    event.setDescription(eventDetails.getDescription());
-                    EventEntity updated = eventRepository.save(event);
-
-                    // Send Kafka notification for updated event
-                    kafkaProducer.sendEventNotification(updated, "UPDATED");
-
-                    return ResponseEntity.ok(updated);
-                })
+        return eventService.update(id, eventDetails, userId)
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -96,25 +328,40 @@ public class CalendarController {
     public ResponseEntity<Void> deleteEvent(
             @PathVariable Long id,
             @RequestHeader(value = "X-User-Id", required = false) String userId) {
-        return eventRepository.findById(id)
-                .filter(e -> userId == null || userId.equals(e.getUserId()))
-                .map(event -> {
-                    // Send Kafka notification before deleting
-                    kafkaProducer.sendEventNotification(event, "DELETED");
-                    eventRepository.delete(event);
-                    return ResponseEntity.ok().<Void>build();
-                })
-                .orElse(ResponseEntity.notFound().build());
+        return eventService.delete(id, userId)
+                ? ResponseEntity.ok().build()
+                : ResponseEntity.notFound().build();
     }
 
     // Get events by date for current user
     @GetMapping("/date/{date}")
     public List<EventEntity> getEventsByDate(
-            @PathVariable String date,
-            @RequestHeader(value = "X-User-Id", required = false) String userId) {
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestHeader(value = "X-User-Id", required = false) String userId,
+            WebRequest request) {
         if (userId != null && !userId.isEmpty()) {
-            return eventRepository.findByUserIdAndStartDate(userId, date);
+            long version = eventService.currentVersion(userId);
+            if (request.checkNotModified(etag(version))) {
+                return null;
+            }
+            return eventCache.getDay(userId, date, version, () -> eventService.findInRange(userId, date, date));
         }
         return List.of();
     }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleInvalidRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    private int duration(EventEntity event) {
+        return event.getDurationMinutes() != null
+                ? Math.max(event.getDurationMinutes(), 1)
+                : FreeBusyIndex.DEFAULT_DURATION_MINUTES;
+    }
+
+    // Any write bumps the user's change version, so it is a valid ETag for all their listings
+    private String etag(long version) {
+        return "v" + version;
+    }
 }
@@ -2,8 +2,10 @@ package com.agenda.calendar;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class CalendarServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(CalendarServiceApplication.class, args);
@@ -0,0 +1,21 @@
+package com.agenda.calendar;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Per-user change counter. Writers bump it with a row lock held until commit,
+// so a user's change versions always become visible in increasing order.
+@Entity
+@Table(name = "event_change_counters")
+@Data
+@NoArgsConstructor
+public class ChangeCounterEntity {
+
+    @Id
+    private String userId;
+
+    private long version;
+}
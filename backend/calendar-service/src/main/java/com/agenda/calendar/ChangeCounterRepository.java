@@ -0,0 +1,16 @@
+package com.agenda.calendar;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ChangeCounterRepository extends JpaRepository<ChangeCounterEntity, String> {
+
+    // Reserve `count` versions for the user and return the highest one
+    @Query(value = "INSERT INTO event_change_counters (user_id, version) VALUES (:userId, :count) "
+            + "ON CONFLICT (user_id) DO UPDATE SET version = event_change_counters.version + :count "
+            + "RETURNING version", nativeQuery = true)
+    long reserve(@Param("userId") String userId, @Param("count") long count);
+}
@@ -0,0 +1,15 @@
+package com.agenda.calendar;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+// Delta sync response: pass `version` back as `since` on the next call
+@Data
+@AllArgsConstructor
+public class ChangeSet {
+    private List<EventEntity> events; // changed rows, deleted ones as tombstones
+    private long version;
+    private boolean hasMore; // true when the page was full, call again right away
+}
@@ -0,0 +1,15 @@
+package com.agenda.calendar;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class DayBucket {
+    private LocalDate date;
+    private int count; // all events of the day, even when `events` is truncated
+    private List<EventSummary> events;
+}
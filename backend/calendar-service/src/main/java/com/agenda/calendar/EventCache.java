@@ -0,0 +1,75 @@
+package com.agenda.calendar;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Read-through cache of calendar queries, keyed by (user, day).
+// A null day holds the user's full event list. Entries remember the user's change
+// version they were loaded at, and are reloaded when a newer version is requested.
+@Component
+public class EventCache {
+
+    private final Cache<Key, Entry> cache;
+
+    public EventCache(MeterRegistry meterRegistry,
+                      @Value("${calendar.cache.max-entries:10000}") long maxEntries,
+                      @Value("${calendar.cache.ttl:5m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // Exposes cache.gets{result=hit|miss}, cache.evictions, cache.size under cache=calendar.events
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "calendar.events");
+    }
+
+    public List<EventEntity> getAll(String userId, long version, Supplier<List<EventEntity>> loader) {
+        return get(new Key(userId, null), version, loader);
+    }
+
+    public List<EventEntity> getDay(String userId, LocalDate day, long version, Supplier<List<EventEntity>> loader) {
+        return get(new Key(userId, day), version, loader);
+    }
+
+    // version must be read before the loader runs, so a stored entry is never newer than it claims
+    private List<EventEntity> get(Key key, long version, Supplier<List<EventEntity>> loader) {
+        Entry entry = cache.getIfPresent(key);
+        if (entry == null || entry.version() < version) {
+            entry = new Entry(version, List.copyOf(loader.get()));
+            cache.put(key, entry);
+        }
+        return entry.events();
+    }
+
+    // A change on one day invalidates that day and the user's full list
+    public void evict(String userId, LocalDate day) {
+        if (userId == null) {
+            return;
+        }
+        cache.invalidate(new Key(userId, null));
+        if (day != null) {
+            cache.invalidate(new Key(userId, day));
+        }
+    }
+
+    public void evictUser(String userId) {
+        if (userId != null) {
+            cache.asMap().keySet().removeIf(key -> userId.equals(key.userId()));
+        }
+    }
+
+    private record Key(String userId, LocalDate day) {
+    }
+
+    private record Entry(long version, List<EventEntity> events) {
+    }
+}
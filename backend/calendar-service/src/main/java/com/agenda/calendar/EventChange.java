@@ -0,0 +1,15 @@
+package com.agenda.calendar;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+// A committed write to notify about
+@Data
+@AllArgsConstructor
+public class EventChange {
+    private EventEntity event;
+    private String type; // CREATED, UPDATED, DELETED
+    private LocalDate previousStartDate; // only set for UPDATED
+}
@@ -1,26 +1,91 @@
 package com.agenda.calendar;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
 @Entity
-@Table(name = "events")
+@Table(name = "events", indexes = {
+        // Month/week views: index range scan on (user_id, start_at)
+        @Index(name = "idx_events_user_start", columnList = "user_id, start_at"),
+        // Keyset pagination / streaming in id order
+        @Index(name = "idx_events_user_id", columnList = "user_id, id"),
+        // Delta sync: changes of a user since a version
+        @Index(name = "idx_events_user_version", columnList = "user_id, change_version"),
+        // Cross-user upcoming scan used by the notification service
+        @Index(name = "idx_events_start", columnList = "start_at"),
+        // Recurring series overlapping a range, per user and across users
+        @Index(name = "idx_events_user_recurring", columnList = "user_id, recurring"),
+        @Index(name = "idx_events_recurring", columnList = "recurring, series_end"),
+        // Idempotent ingest: one row per producer-supplied key
+        @Index(name = "idx_events_source_key", columnList = "source_key", unique = true)
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class EventEntity {
 
+    // Pooled sequence: ids are reserved 50 at a time so Hibernate can batch INSERTs
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "events_seq")
+    @SequenceGenerator(name = "events_seq", sequenceName = "events_seq", allocationSize = 50)
     private Long id;
 
     private String userId; // For multi-user support
     private String title;
-    private String startDate; // YYYY-MM-DD
-    private String startTime; // HH:mm
+    private LocalDate startDate; // YYYY-MM-DD
+
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime startTime; // HH:mm
+    private Integer durationMinutes; // null = FreeBusyIndex.DEFAULT_DURATION_MINUTES
+
     private String category; // WORK, HEALTH, SPORT, SOCIAL
     private String priority; // HIGH, MEDIUM, LOW
     private String description;
+
+    // Delta sync: per-user version of the last write to this row, and when it happened
+    private Long changeVersion;
+    private Instant updatedAt;
+
+    // Tombstone: deleted rows are kept so that /changes can report the deletion
+    @Column(columnDefinition = "boolean not null default false")
+    private boolean deleted;
+
+    // Null for one-off events; for a series this row is the first occurrence
+    @Embedded
+    private RecurrenceRule recurrence;
+
+    // Denormalized startDate + startTime, the indexed sort/range key
+    @JsonIgnore
+    private LocalDateTime startAt;
+
+    // Series only: start of the last occurrence, null when the series never ends
+    @JsonIgnore
+    private LocalDateTime seriesEnd;
+
+    @JsonIgnore
+    @Column(columnDefinition = "boolean not null default false")
+    private boolean recurring;
+
+    // Idempotency key of the message this event was ingested from (null for API writes)
+    @JsonIgnore
+    private String sourceKey;
+
+    @PrePersist
+    @PreUpdate
+    void computeDerivedColumns() {
+        LocalTime time = startTime != null ? startTime : LocalTime.MIDNIGHT;
+        startAt = startDate == null ? null : startDate.atTime(time);
+        recurring = startDate != null && recurrence != null && recurrence.getFrequency() != null;
+        LocalDate last = recurring ? RecurrenceExpander.lastOccurrence(startDate, recurrence) : null;
+        seriesEnd = last != null ? last.atTime(time) : null;
+    }
 }
@@ -0,0 +1,13 @@
+package com.agenda.calendar;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class EventPage {
+    private List<EventEntity> items;
+    private Long nextCursor; // null on the last page
+}
@@ -1,17 +1,106 @@
 package com.agenda.calendar;
 
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface EventRepository extends JpaRepository<EventEntity, Long> {
-    List<EventEntity> findByUserId(String userId);
+    List<EventEntity> findByUserIdAndDeletedFalse(String userId);
+
+    // Keyset pagination on the (user_id, id) index: pass the last id of the previous page
+    @Query("SELECT e FROM EventEntity e WHERE e.userId = :userId AND e.id > :afterId AND e.deleted = false ORDER BY e.id")
+    List<EventEntity> findPageAfter(@Param("userId") String userId, @Param("afterId") long afterId, Pageable page);
+
+    // Server-side cursor, must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT e FROM EventEntity e WHERE e.userId = :userId AND e.deleted = false ORDER BY e.id")
+    Stream<EventEntity> streamByUserId(@Param("userId") String userId);
+
+    // One-off events in the half-open range [from, to), on the (user_id, start_at) index
+    @Query("SELECT e FROM EventEntity e WHERE e.userId = :userId AND e.startAt >= :from AND e.startAt < :to "
+            + "AND e.recurring = false AND e.deleted = false ORDER BY e.startAt")
+    List<EventEntity> findByUserIdInRange(@Param("userId") String userId,
+                                          @Param("from") LocalDateTime from,
+                                          @Param("to") LocalDateTime to);
+
+    @Query("SELECT e FROM EventEntity e WHERE e.startAt >= :from AND e.startAt < :to "
+            + "AND e.recurring = false AND e.deleted = false ORDER BY e.startAt")
+    List<EventEntity> findUpcomingEvents(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Series that may have occurrences in [from, to); expanded by RecurrenceExpander
+    @Query("SELECT e FROM EventEntity e WHERE e.userId = :userId AND e.recurring = true AND e.deleted = false "
+            + "AND e.startAt < :to AND (e.seriesEnd IS NULL OR e.seriesEnd >= :from)")
+    List<EventEntity> findSeriesInRange(@Param("userId") String userId,
+                                        @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to);
+
+    @Query("SELECT e FROM EventEntity e WHERE e.recurring = true AND e.deleted = false "
+            + "AND e.startAt < :to AND (e.seriesEnd IS NULL OR e.seriesEnd >= :from)")
+    List<EventEntity> findAllSeriesInRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Owners of one-off events or series in [from, to), one row each: /upcoming for a set of
+    // notification partitions picks its users among them, then reads only their events
+    @Query("SELECT DISTINCT e.userId FROM EventEntity e WHERE e.startAt >= :from AND e.startAt < :to "
+            + "AND e.recurring = false AND e.deleted = false AND e.userId IS NOT NULL")
+    List<String> findUpcomingOwners(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT DISTINCT e.userId FROM EventEntity e WHERE e.recurring = true AND e.deleted = false "
+            + "AND e.startAt < :to AND (e.seriesEnd IS NULL OR e.seriesEnd >= :from) AND e.userId IS NOT NULL")
+    List<String> findSeriesOwnersInRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT e FROM EventEntity e WHERE e.userId IN :userIds AND e.startAt >= :from AND e.startAt < :to "
+            + "AND e.recurring = false AND e.deleted = false ORDER BY e.startAt")
+    List<EventEntity> findUpcomingEventsOf(@Param("userIds") Collection<String> userIds,
+                                           @Param("from") LocalDateTime from,
+                                           @Param("to") LocalDateTime to);
+
+    @Query("SELECT e FROM EventEntity e WHERE e.userId IN :userIds AND e.recurring = true AND e.deleted = false "
+            + "AND e.startAt < :to AND (e.seriesEnd IS NULL OR e.seriesEnd >= :from)")
+    List<EventEntity> findSeriesInRangeOf(@Param("userIds") Collection<String> userIds,
+                                          @Param("from") LocalDateTime from,
+                                          @Param("to") LocalDateTime to);
+
+    // Rows (tombstones included) written after `since` and up to the committed watermark
+    @Query("SELECT e FROM EventEntity e WHERE e.userId = :userId AND e.changeVersion > :since AND e.changeVersion <= :upTo ORDER BY e.changeVersion")
+    List<EventEntity> findChanges(@Param("userId") String userId,
+                                  @Param("since") long since,
+                                  @Param("upTo") long upTo,
+                                  Pageable page);
+
+    // Month view cells: same range scan as findByUserIdInRange, without the wide columns
+    @Query("SELECT new com.agenda.calendar.EventSummary(e.id, e.title, e.startDate, e.startTime, e.durationMinutes, "
+            + "e.category, e.priority, false) FROM EventEntity e "
+            + "WHERE e.userId = :userId AND e.startAt >= :from AND e.startAt < :to "
+            + "AND e.recurring = false AND e.deleted = false ORDER BY e.startAt")
+    List<EventSummary> findSummariesInRange(@Param("userId") String userId,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to);
+
+    // Which of these ingest keys were already stored
+    @Query("SELECT e.sourceKey FROM EventEntity e WHERE e.sourceKey IN :keys")
+    List<String> findExistingSourceKeys(@Param("keys") Collection<String> keys);
 
-    List<EventEntity> findByUserIdAndStartDate(String userId, String startDate);
+    // Live series ingested under these keys (ICS import: series whose occurrences were moved)
+    @Query("SELECT e FROM EventEntity e WHERE e.sourceKey IN :keys AND e.recurring = true AND e.deleted = false")
+    List<EventEntity> findSeriesBySourceKeys(@Param("keys") Collection<String> keys);
 
-    @Query("SELECT e FROM EventEntity e WHERE e.startDate >= :today AND e.startDate <= :tomorrow")
-    List<EventEntity> findUpcomingEvents(@Param("today") String today, @Param("tomorrow") String tomorrow);
+    // Exact-title lookup for AI commands targeting an event the search index does not hold yet
+    Optional<EventEntity> findFirstByUserIdAndTitleIgnoreCaseAndDeletedFalseOrderByIdDesc(String userId, String title);
 }
@@ -0,0 +1,348 @@
+package com.agenda.calendar;
+
+import com.agenda.contracts.Topics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class EventService {
+
+    public static final int MAX_BATCH_SIZE = 500;
+    public static final int MAX_CHANGES_PAGE = 1000;
+    private static final int MAX_USERS_PER_QUERY = 1000;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private ChangeCounterRepository changeCounterRepository;
+
+    @Autowired
+    private KafkaNotificationProducer kafkaProducer;
+
+    @Autowired
+    private EventCache eventCache;
+
+    @Autowired
+    private FreeBusyIndex freeBusyIndex;
+
+    @Autowired
+    private MonthViewStore monthViewStore;
+
+    @Autowired
+    private SearchIndex searchIndex;
+
+    // One-off events plus the expanded occurrences of series, for the days [from, to]
+    @Transactional(readOnly = true)
+    public List<EventEntity> findInRange(String userId, LocalDate from, LocalDate to) {
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        return merge(eventRepository.findByUserIdInRange(userId, start, end),
+                RecurrenceExpander.expand(eventRepository.findSeriesInRange(userId, start, end), from, to));
+    }
+
+    // Same as findInRange, across all users (notification service reminders)
+    @Transactional(readOnly = true)
+    public List<EventEntity> findUpcoming(LocalDate from, LocalDate to) {
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        return merge(eventRepository.findUpcomingEvents(start, end),
+                RecurrenceExpander.expand(eventRepository.findAllSeriesInRange(start, end), from, to));
+    }
+
+    // Same as findUpcoming, for the users of the given event-notifications partitions only: their
+    // ids are picked from the range's owners, then their events are read MAX_USERS_PER_QUERY at a time
+    @Transactional(readOnly = true)
+    public List<EventEntity> findUpcoming(LocalDate from, LocalDate to, Set<Integer> partitions, int partitionCount) {
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        Set<String> owners = new LinkedHashSet<>(eventRepository.findUpcomingOwners(start, end));
+        owners.addAll(eventRepository.findSeriesOwnersInRange(start, end));
+        List<String> users = owners.stream()
+                .filter(userId -> partitions.contains(Topics.partitionOf(userId, partitionCount)))
+                .toList();
+        List<EventEntity> events = new ArrayList<>();
+        List<EventEntity> series = new ArrayList<>();
+        for (int i = 0; i < users.size(); i += MAX_USERS_PER_QUERY) {
+            List<String> chunk = users.subList(i, Math.min(i + MAX_USERS_PER_QUERY, users.size()));
+            events.addAll(eventRepository.findUpcomingEventsOf(chunk, start, end));
+            series.addAll(eventRepository.findSeriesInRangeOf(chunk, start, end));
+        }
+        List<EventEntity> merged = new ArrayList<>(events);
+        merged.addAll(RecurrenceExpander.expand(series, from, to));
+        merged.sort(Comparator.comparing(EventEntity::getStartAt));
+        return merged;
+    }
+
+    private List<EventEntity> merge(List<EventEntity> events, List<EventEntity> occurrences) {
+        if (occurrences.isEmpty()) {
+            return events;
+        }
+        List<EventEntity> merged = new ArrayList<>(events.size() + occurrences.size());
+        merged.addAll(events);
+        merged.addAll(occurrences);
+        merged.sort(Comparator.comparing(EventEntity::getStartAt));
+        return merged;
+    }
+
+    @Transactional
+    public EventEntity create(EventEntity event, String userId) {
+        RecurrenceExpander.validate(event.getRecurrence());
+        event.setId(null);
+        if (userId != null) {
+            event.setUserId(userId);
+        }
+        stamp(event, reserveVersions(event.getUserId(), 1));
+        EventEntity saved = eventRepository.save(event);
+        notifyChanges(List.of(new EventChange(saved, "CREATED", null)));
+        return saved;
+    }
+
+    @Transactional
+    public Optional<EventEntity> update(Long id, EventEntity details, String userId) {
+        RecurrenceExpander.validate(details.getRecurrence());
+        return findOwned(id, userId).map(event -> {
+            LocalDate previousStartDate = event.getStartDate();
+            copyDetails(details, event);
+            stamp(event, reserveVersions(event.getUserId(), 1));
+            notifyChanges(List.of(new EventChange(event, "UPDATED", previousStartDate)));
+            return event;
+        });
+    }
+
+    // Deletion keeps a tombstone row so delta sync clients learn about it
+    @Transactional
+    public boolean delete(Long id, String userId) {
+        return findOwned(id, userId).map(event -> {
+            event.setDeleted(true);
+            stamp(event, reserveVersions(event.getUserId(), 1));
+            notifyChanges(List.of(new EventChange(event, "DELETED", null)));
+            return true;
+        }).orElse(false);
+    }
+
+    public Optional<EventEntity> findOwned(Long id, String userId) {
+        return eventRepository.findById(id)
+                .filter(e -> !e.isDeleted())
+                .filter(e -> userId == null || userId.equals(e.getUserId()));
+    }
+
+    // Latest committed change version of the user; doubles as the ETag of their listings
+    @Transactional(readOnly = true)
+    public long currentVersion(String userId) {
+        return changeCounterRepository.findById(counterKey(userId))
+                .map(ChangeCounterEntity::getVersion)
+                .orElse(0L);
+    }
+
+    // The watermark is read before the rows, so every version up to it is already committed
+    @Transactional(readOnly = true)
+    public ChangeSet changesSince(String userId, long since, int limit) {
+        long watermark = currentVersion(userId);
+        int size = Math.max(1, Math.min(limit, MAX_CHANGES_PAGE));
+        List<EventEntity> events = eventRepository.findChanges(userId, since, watermark, PageRequest.ofSize(size));
+        boolean hasMore = events.size() == size;
+        long version = hasMore ? events.get(events.size() - 1).getChangeVersion() : Math.max(since, watermark);
+        return new ChangeSet(events, version, hasMore);
+    }
+
+    // Apply a mixed list of CREATE/UPDATE/DELETE operations in one transaction.
+    // Targets are loaded with a single IN query; inserts, updates and deletes are
+    // flushed as JDBC batches (pooled sequence ids + hibernate.jdbc.batch_size).
+    @Transactional
+    public List<BatchResult> applyBatch(List<BatchOperation> operations, String userId) {
+        if (operations.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch too large: " + operations.size() + " > " + MAX_BATCH_SIZE);
+        }
+
+        List<Long> targetIds = operations.stream()
+                .map(BatchOperation::getId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        Map<Long, EventEntity> targets = eventRepository.findAllById(targetIds).stream()
+                .filter(e -> !e.isDeleted())
+                .filter(e -> userId == null || userId.equals(e.getUserId()))
+                .collect(Collectors.toMap(EventEntity::getId, Function.identity()));
+
+        List<BatchResult> results = new ArrayList<>(operations.size());
+        List<EventEntity> toCreate = new ArrayList<>();
+        List<EventChange> changes = new ArrayList<>();
+
+        for (int i = 0; i < operations.size(); i++) {
+            BatchOperation operation = operations.get(i);
+            String op = operation.getOp() != null ? operation.getOp().toUpperCase() : null;
+            EventEntity target = operation.getId() != null ? targets.get(operation.getId()) : null;
+
+            if (operation.getEvent() != null && !RecurrenceExpander.isValid(operation.getEvent().getRecurrence())) {
+                results.add(new BatchResult(i, op, operation.getId(), "INVALID"));
+            } else if ("CREATE".equals(op) && operation.getEvent() != null) {
+                EventEntity event = operation.getEvent();
+                event.setId(null);
+                if (userId != null) {
+                    event.setUserId(userId);
+                }
+                toCreate.add(event);
+                changes.add(new EventChange(event, "CREATED", null));
+                results.add(new BatchResult(i, op, null, "OK"));
+            } else if ("UPDATE".equals(op) && operation.getEvent() != null) {
+                if (target == null) {
+                    results.add(new BatchResult(i, op, operation.getId(), "NOT_FOUND"));
+                    continue;
+                }
+                LocalDate previousStartDate = target.getStartDate();
+                copyDetails(operation.getEvent(), target);
+                changes.add(new EventChange(target, "UPDATED", previousStartDate));
+                results.add(new BatchResult(i, op, target.getId(), "OK"));
+            } else if ("DELETE".equals(op)) {
+                if (target == null) {
+                    results.add(new BatchResult(i, op, operation.getId(), "NOT_FOUND"));
+                    continue;
+                }
+                targets.remove(target.getId());
+                target.setDeleted(true);
+                changes.add(new EventChange(target, "DELETED", null));
+                results.add(new BatchResult(i, op, target.getId(), "OK"));
+            } else {
+                results.add(new BatchResult(i, op, operation.getId(), "INVALID"));
+            }
+        }
+
+        // One counter round trip for the whole batch (userId == null only for internal callers)
+        if (userId != null && !changes.isEmpty()) {
+            long version = reserveVersions(userId, changes.size()) - changes.size();
+            for (EventChange change : changes) {
+                stamp(change.getEvent(), ++version);
+            }
+        } else {
+            for (EventChange change : changes) {
+                stamp(change.getEvent(), reserveVersions(change.getEvent().getUserId(), 1));
+            }
+        }
+
+        eventRepository.saveAll(toCreate);
+        eventRepository.flush();
+
+        // Ids of created events are only known once saved
+        for (int i = 0, created = 0; i < results.size(); i++) {
+            BatchResult result = results.get(i);
+            if ("CREATE".equals(result.getOp()) && "OK".equals(result.getStatus())) {
+                result.setId(toCreate.get(created++).getId());
+            }
+        }
+
+        notifyChanges(changes);
+        return results;
+    }
+
+    // Duration and recurrence are kept when the update omits them (the edit form and AI updates
+    // never send them); an empty recurrence ({}) turns a series back into a one-off event
+    void copyDetails(EventEntity source, EventEntity target) {
+        target.setTitle(source.getTitle());
+        target.setStartDate(source.getStartDate());
+        target.setStartTime(source.getStartTime());
+        if (source.getDurationMinutes() != null) {
+            target.setDurationMinutes(source.getDurationMinutes());
+        }
+        target.setCategory(source.getCategory());
+        target.setPriority(source.getPriority());
+        target.setDescription(source.getDescription());
+        if (source.getRecurrence() != null) {
+            target.setRecurrence(source.getRecurrence().getFrequency() != null ? source.getRecurrence() : null);
+        }
+    }
+
+    // Bulk insert of events produced by another system (e.g. AI extraction): one version
+    // reservation per owner, JDBC-batched inserts, one notification each
+    @Transactional
+    public List<EventEntity> importEvents(List<EventEntity> events, String type) {
+        Map<String, List<EventEntity>> byOwner = events.stream()
+                .collect(Collectors.groupingBy(e -> counterKey(e.getUserId()), LinkedHashMap::new, Collectors.toList()));
+        byOwner.forEach((owner, owned) -> {
+            long version = changeCounterRepository.reserve(owner, owned.size()) - owned.size();
+            for (EventEntity event : owned) {
+                event.setId(null);
+                stamp(event, ++version);
+            }
+        });
+        List<EventEntity> saved = eventRepository.saveAll(events);
+        notifyChanges(saved.stream().map(e -> new EventChange(e, type, null)).toList());
+        return saved;
+    }
+
+    // Skip these dates of already stored series (ICS import: occurrences moved or cancelled by
+    // their own VEVENT); one UPDATED notification per series that changed
+    @Transactional
+    public void addExceptions(Map<EventEntity, Set<LocalDate>> datesBySeries) {
+        List<EventChange> changes = new ArrayList<>();
+        datesBySeries.forEach((series, dates) -> {
+            RecurrenceRule rule = series.getRecurrence();
+            Set<LocalDate> exceptions = new TreeSet<>(rule.getExceptions() != null ? rule.getExceptions() : Set.of());
+            if (exceptions.addAll(dates)) {
+                rule.setExceptions(exceptions); // a new set, so dirty checking sees the change
+                stamp(series, reserveVersions(series.getUserId(), 1));
+                changes.add(new EventChange(series, "UPDATED", null));
+            }
+        });
+        if (!changes.isEmpty()) {
+            notifyChanges(changes);
+        }
+    }
+
+    private void stamp(EventEntity event, long version) {
+        event.setChangeVersion(version);
+        event.setUpdatedAt(Instant.now());
+    }
+
+    private long reserveVersions(String userId, int count) {
+        return changeCounterRepository.reserve(counterKey(userId), count);
+    }
+
+    private String counterKey(String userId) {
+        return userId != null ? userId : "";
+    }
+
+    // Notifications go to the outbox in this transaction; local caches are updated
+    // only once the rows are visible to other readers
+    private void notifyChanges(List<EventChange> changes) {
+        kafkaProducer.enqueue(changes);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                for (EventChange change : changes) {
+                    String owner = change.getEvent().getUserId();
+                    if (change.getEvent().isRecurring()) {
+                        // A series touches every day it expands to
+                        eventCache.evictUser(owner);
+                    } else {
+                        eventCache.evict(owner, change.getEvent().getStartDate());
+                        eventCache.evict(owner, change.getPreviousStartDate());
+                    }
+                    freeBusyIndex.apply(change);
+                    monthViewStore.apply(change);
+                    searchIndex.apply(change);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,31 @@
+package com.agenda.calendar;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Service
+public class EventStreamer {
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    // Walk all events of a user through a DB cursor; each row is detached once handled
+    // so the persistence context stays empty whatever the history size
+    @Transactional(readOnly = true)
+    public void forEachEvent(String userId, Consumer<EventEntity> action) {
+        try (Stream<EventEntity> events = eventRepository.streamByUserId(userId)) {
+            events.forEach(event -> {
+                action.accept(event);
+                entityManager.detach(event);
+            });
+        }
+    }
+}
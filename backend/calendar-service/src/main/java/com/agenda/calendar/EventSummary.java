@@ -0,0 +1,33 @@
+package com.agenda.calendar;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// What a calendar cell shows. Selected with a JPQL constructor expression, so the
+// description and the sync/recurrence columns are never read; GET /{id} has the full event.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventSummary {
+    private Long id;
+    private String title;
+    private LocalDate startDate;
+
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime startTime;
+
+    private Integer durationMinutes;
+    private String category;
+    private String priority;
+    private boolean recurring; // occurrence of a series (id is the series id)
+
+    public static EventSummary of(EventEntity event) {
+        return new EventSummary(event.getId(), event.getTitle(), event.getStartDate(), event.getStartTime(),
+                event.getDurationMinutes(), event.getCategory(), event.getPriority(), event.isRecurring());
+    }
+}
@@ -0,0 +1,320 @@
+package com.agenda.calendar;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+// In-memory free/busy view of each user's upcoming days: one 96-bit bitmap per day
+// (15-minute slots, kept in two longs). A user's window is loaded from the database
+// once, then patched on every write, so conflict checks and free-slot searches are
+// pure bit arithmetic. Events without a start time do not occupy slots.
+@Component
+public class FreeBusyIndex {
+
+    public static final int SLOT_MINUTES = 15;
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES; // 96
+    public static final int DEFAULT_DURATION_MINUTES = 60;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    private final AsyncCache<String, UserSchedule> schedules;
+    private final int horizonDays;
+
+    public FreeBusyIndex(@Value("${calendar.freebusy.horizon-days:90}") int horizonDays,
+                         @Value("${calendar.freebusy.max-users:10000}") long maxUsers,
+                         @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.horizonDays = horizonDays;
+        // Reloaded daily so the window keeps sliding forward. Loads run outside the map's compute
+        // lock, on the common pool, or on their own virtual thread in virtual-thread mode, where
+        // loading inside the lock would pin a carrier thread.
+        this.schedules = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(Duration.ofHours(12))
+                .executor(loadExecutor(virtualThreads))
+                .buildAsync();
+    }
+
+    // Caffeine's default executor, unless virtual threads are enabled (profile virtual-threads)
+    static Executor loadExecutor(boolean virtualThreads) {
+        return virtualThreads ? Executors.newVirtualThreadPerTaskExecutor() : ForkJoinPool.commonPool();
+    }
+
+    // Ids of the events overlapping [date time, +duration), excluding `excludeId`
+    public List<Long> conflicts(String userId, LocalDate date, LocalTime time, int durationMinutes, Long excludeId) {
+        UserSchedule schedule = scheduleCovering(userId, date);
+        int start = time.toSecondOfDay() / 60 / SLOT_MINUTES;
+        int end = slotsEnd(time, durationMinutes);
+        Set<Long> ids = new LinkedHashSet<>();
+        synchronized (schedule) {
+            for (LocalDate day = date; end > 0; day = day.plusDays(1), start = 0, end -= SLOTS_PER_DAY) {
+                DaySchedule daySchedule = schedule.days.get(day);
+                if (daySchedule != null) {
+                    daySchedule.overlapping(start, Math.min(end, SLOTS_PER_DAY), excludeId, ids);
+                }
+            }
+        }
+        return new ArrayList<>(ids);
+    }
+
+    // First `count` non-overlapping free slots of `durationMinutes`, starting at `from`,
+    // inside [dayStart, dayEnd) of each day of the loaded window
+    public List<FreeSlot> freeSlots(String userId, LocalDateTime from, int durationMinutes, int count,
+                                    LocalTime dayStart, LocalTime dayEnd) {
+        UserSchedule schedule = schedule(userId);
+        int length = (durationMinutes + SLOT_MINUTES - 1) / SLOT_MINUTES;
+        int windowStart = dayStart.toSecondOfDay() / 60 / SLOT_MINUTES;
+        int windowEnd = dayEnd.equals(LocalTime.MIDNIGHT) ? SLOTS_PER_DAY : dayEnd.toSecondOfDay() / 60 / SLOT_MINUTES;
+        List<FreeSlot> slots = new ArrayList<>();
+        if (length < 1 || length > SLOTS_PER_DAY) {
+            return slots;
+        }
+
+        synchronized (schedule) {
+            LocalDate first = from.toLocalDate().isBefore(schedule.from) ? schedule.from : from.toLocalDate();
+            for (LocalDate day = first; !day.isAfter(schedule.to) && slots.size() < count; day = day.plusDays(1)) {
+                int earliest = windowStart;
+                if (day.equals(from.toLocalDate())) {
+                    earliest = Math.max(earliest, slotsEnd(from.toLocalTime(), 0));
+                }
+                DaySchedule daySchedule = schedule.days.get(day);
+                long freeLo = bits(earliest, windowEnd, 0) & ~(daySchedule != null ? daySchedule.lo : 0L);
+                long freeHi = bits(earliest, windowEnd, 64) & ~(daySchedule != null ? daySchedule.hi : 0L);
+
+                // Keep bit i only if slots i..i+length-1 are all free (log2(length) shift-and steps)
+                long runLo = freeLo;
+                long runHi = freeHi;
+                for (int span = 1; span < length; ) {
+                    int shift = Math.min(span, length - span);
+                    long shiftedLo = shiftRightLo(runLo, runHi, shift);
+                    long shiftedHi = shiftRightHi(runHi, shift);
+                    runLo &= shiftedLo;
+                    runHi &= shiftedHi;
+                    span += shift;
+                }
+
+                for (int slot = nextSetBit(runLo, runHi, 0); slot >= 0 && slots.size() < count;
+                     slot = nextSetBit(runLo, runHi, slot + length)) {
+                    LocalTime startTime = LocalTime.ofSecondOfDay((long) slot * SLOT_MINUTES * 60);
+                    slots.add(new FreeSlot(day, startTime, startTime.plusMinutes((long) length * SLOT_MINUTES)));
+                }
+            }
+        }
+        return slots;
+    }
+
+    // Patch the loaded schedule of the event's owner after a committed write
+    public void apply(EventChange change) {
+        EventEntity event = change.getEvent();
+        if (event.getUserId() == null) {
+            return;
+        }
+        CompletableFuture<UserSchedule> loaded = schedules.getIfPresent(event.getUserId());
+        if (loaded == null) {
+            return;
+        }
+        if (!loaded.isDone() || loaded.isCompletedExceptionally()) {
+            // Being loaded right now, from a snapshot that may predate this write
+            schedules.synchronous().invalidate(event.getUserId());
+            return;
+        }
+        UserSchedule schedule = loaded.join();
+        synchronized (schedule) {
+            schedule.remove(event.getId());
+            if (!event.isDeleted()) {
+                schedule.addEvent(event);
+            }
+        }
+    }
+
+    // Writes made by another instance: rebuild on next use
+    public void evictUser(String userId) {
+        if (userId != null) {
+            schedules.synchronous().invalidate(userId);
+        }
+    }
+
+    private UserSchedule scheduleCovering(String userId, LocalDate date) {
+        UserSchedule schedule = schedule(userId);
+        if (date.isBefore(schedule.from) || date.isAfter(schedule.to)) {
+            // Outside the kept window (past or far future): build a throwaway one
+            return load(userId, date.minusDays(1), date.plusDays(1));
+        }
+        return schedule;
+    }
+
+    private UserSchedule schedule(String userId) {
+        return schedules.get(userId, this::load).join();
+    }
+
+    private UserSchedule load(String userId) {
+        LocalDate today = LocalDate.now();
+        return load(userId, today, today.plusDays(horizonDays));
+    }
+
+    // Events of the day before `from` too: one running past midnight occupies the first day
+    private UserSchedule load(String userId, LocalDate from, LocalDate to) {
+        UserSchedule schedule = new UserSchedule(from, to);
+        LocalDateTime start = from.minusDays(1).atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        eventRepository.findByUserIdInRange(userId, start, end).forEach(schedule::addOccurrence);
+        eventRepository.findSeriesInRange(userId, start, end).forEach(schedule::addEvent);
+        return schedule;
+    }
+
+    // Exclusive end slot of [time, time + minutes), may exceed one day
+    private static int slotsEnd(LocalTime time, int minutes) {
+        int endMinute = time.toSecondOfDay() / 60 + minutes;
+        return (endMinute + SLOT_MINUTES - 1) / SLOT_MINUTES;
+    }
+
+    // Bits [start, end) of the 64-slot word beginning at slot `offset`
+    static long bits(int start, int end, int offset) {
+        int from = Math.max(start - offset, 0);
+        int to = Math.min(end - offset, 64);
+        if (from >= to) {
+            return 0L;
+        }
+        long upTo = to == 64 ? -1L : (1L << to) - 1;
+        return upTo & (-1L << from);
+    }
+
+    private static long shiftRightLo(long lo, long hi, int n) {
+        return n < 64 ? (lo >>> n) | (hi << (64 - n)) : hi >>> (n - 64);
+    }
+
+    private static long shiftRightHi(long hi, int n) {
+        return n < 64 ? hi >>> n : 0L;
+    }
+
+    private static int nextSetBit(long lo, long hi, int from) {
+        if (from < 64) {
+            long word = lo & (-1L << from);
+            if (word != 0) {
+                return Long.numberOfTrailingZeros(word);
+            }
+            from = 64;
+        }
+        if (from < 128) {
+            long word = hi & (-1L << (from - 64));
+            if (word != 0) {
+                return 64 + Long.numberOfTrailingZeros(word);
+            }
+        }
+        return -1;
+    }
+
+    private static final class UserSchedule {
+        final LocalDate from;
+        final LocalDate to;
+        final Map<LocalDate, DaySchedule> days = new HashMap<>();
+        final Map<Long, Set<LocalDate>> daysByEvent = new HashMap<>();
+
+        UserSchedule(LocalDate from, LocalDate to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        // A one-off event, or every occurrence of a series reaching into the window
+        void addEvent(EventEntity event) {
+            if (event.isRecurring()) {
+                RecurrenceExpander.expand(List.of(event), from.minusDays(1), to).forEach(this::addOccurrence);
+            } else {
+                addOccurrence(event);
+            }
+        }
+
+        void addOccurrence(EventEntity event) {
+            if (event.getStartDate() == null || event.getStartTime() == null) {
+                return;
+            }
+            int duration = event.getDurationMinutes() != null ? event.getDurationMinutes() : DEFAULT_DURATION_MINUTES;
+            int start = event.getStartTime().toSecondOfDay() / 60 / SLOT_MINUTES;
+            int end = slotsEnd(event.getStartTime(), Math.max(duration, 1));
+            // Spill past midnight onto the following day(s)
+            for (LocalDate day = event.getStartDate(); end > 0 && !day.isAfter(to); day = day.plusDays(1)) {
+                if (!day.isBefore(from)) {
+                    days.computeIfAbsent(day, d -> new DaySchedule()).put(event.getId(), start, Math.min(end, SLOTS_PER_DAY));
+                    daysByEvent.computeIfAbsent(event.getId(), id -> new LinkedHashSet<>()).add(day);
+                }
+                start = 0;
+                end -= SLOTS_PER_DAY;
+            }
+        }
+
+        void remove(Long eventId) {
+            Set<LocalDate> eventDays = daysByEvent.remove(eventId);
+            if (eventDays == null) {
+                return;
+            }
+            for (LocalDate day : eventDays) {
+                DaySchedule daySchedule = days.get(day);
+                if (daySchedule != null && daySchedule.remove(eventId)) {
+                    days.remove(day);
+                }
+            }
+        }
+    }
+
+    private static final class DaySchedule {
+        long lo; // slots 0-63
+        long hi; // slots 64-95
+        // event id -> its [start, end) slot intervals: a daily series running past midnight has
+        // two on the same day (the previous occurrence's spill, and its own)
+        final Map<Long, List<int[]>> intervals = new HashMap<>();
+
+        void put(Long eventId, int start, int end) {
+            intervals.computeIfAbsent(eventId, id -> new ArrayList<>(1)).add(new int[]{start, end});
+            lo |= bits(start, end, 0);
+            hi |= bits(start, end, 64);
+        }
+
+        // Rebuild the bitmap from the remaining events; true when the day became empty
+        boolean remove(Long eventId) {
+            intervals.remove(eventId);
+            lo = 0L;
+            hi = 0L;
+            for (List<int[]> eventIntervals : intervals.values()) {
+                for (int[] interval : eventIntervals) {
+                    lo |= bits(interval[0], interval[1], 0);
+                    hi |= bits(interval[0], interval[1], 64);
+                }
+            }
+            return intervals.isEmpty();
+        }
+
+        void overlapping(int start, int end, Long excludeId, Set<Long> ids) {
+            if ((lo & bits(start, end, 0)) == 0 && (hi & bits(start, end, 64)) == 0) {
+                return; // fast path: nothing busy in the requested slots
+            }
+            intervals.forEach((id, eventIntervals) -> {
+                if (id.equals(excludeId)) {
+                    return;
+                }
+                for (int[] interval : eventIntervals) {
+                    if (interval[0] < end && start < interval[1]) {
+                        ids.add(id);
+                        return;
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package com.agenda.calendar;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+// Imports an iCalendar stream in chunks: every `batch-size` events are written in their own
+// transaction (JDBC-batched inserts, persistence context cleared after each commit), so memory
+// stays flat whatever the file size. Each VEVENT is keyed by its UID (and RECURRENCE-ID), which
+// makes importing the same file twice a no-op. A VEVENT with a RECURRENCE-ID replaces one
+// occurrence of its series: that date becomes an exception of the series, wherever in the
+// file (or in an earlier import) the series itself comes.
+@Service
+@Slf4j
+public class IcsImporter {
+
+    private static final String TYPE = "IMPORTED";
+    private static final Set<String> CATEGORIES = Set.of("WORK", "HEALTH", "SPORT", "SOCIAL");
+    // Series with moved occurrences kept in memory while waiting for the series' own VEVENT
+    private static final int MAX_PENDING_SERIES = 10_000;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // The request's EntityManager when open-in-view is on: cleared after each chunk, otherwise
+    // every imported row would stay managed until the response is written
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${calendar.ics.batch-size:500}")
+    private int batchSize;
+
+    // Stored times are wall times without a zone: UTC values (...Z) are converted to this one
+    @Value("${calendar.ics.zone:Europe/Paris}")
+    private ZoneId zone;
+
+    public ImportResult importCalendar(InputStream in, String userId) throws IOException {
+        ImportResult result = new ImportResult();
+        Map<String, EventEntity> chunk = new LinkedHashMap<>();
+        // Original dates of moved or cancelled occurrences, by source key of their series, until
+        // that series is stored; `unchecked` holds the keys not looked up in the database yet
+        Map<String, Set<LocalDate>> moved = new HashMap<>();
+        Set<String> unchecked = new HashSet<>();
+        IcsReader reader = new IcsReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        reader.forEachEvent(properties -> {
+            recordMovedOccurrence(properties, userId, moved, unchecked);
+            EventEntity event = toEvent(properties, userId, result);
+            if (event == null) {
+                return;
+            }
+            if (chunk.putIfAbsent(event.getSourceKey(), event) != null) {
+                result.setDuplicates(result.getDuplicates() + 1);
+            }
+            if (chunk.size() >= batchSize) {
+                save(chunk, moved, unchecked, result);
+            }
+        });
+        save(chunk, moved, unchecked, result);
+        log.info("ics import user={} imported={} duplicates={} skipped={} simplified={} orphans={}", userId,
+                result.getImported(), result.getDuplicates(), result.getSkipped(), result.getSimplified(), moved.size());
+        return result;
+    }
+
+    private void save(Map<String, EventEntity> chunk, Map<String, Set<LocalDate>> moved, Set<String> unchecked,
+                      ImportResult result) {
+        if (chunk.isEmpty() && unchecked.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            int received = chunk.size();
+            eventRepository.findExistingSourceKeys(chunk.keySet()).forEach(chunk::remove);
+            result.setDuplicates(result.getDuplicates() + received - chunk.size());
+            for (EventEntity event : chunk.values()) {
+                Set<LocalDate> dates = moved.remove(event.getSourceKey());
+                unchecked.remove(event.getSourceKey());
+                if (dates != null && event.getRecurrence() != null) {
+                    event.getRecurrence().getExceptions().addAll(dates);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                eventService.importEvents(new ArrayList<>(chunk.values()), TYPE);
+                result.setImported(result.getImported() + chunk.size());
+            }
+            // Series stored by an earlier chunk or import, looked up once per key (at most a chunk's
+            // worth); the others may still come later in the file
+            if (!unchecked.isEmpty()) {
+                Map<EventEntity, Set<LocalDate>> stored = new IdentityHashMap<>();
+                for (EventEntity series : eventRepository.findSeriesBySourceKeys(unchecked)) {
+                    stored.put(series, moved.remove(series.getSourceKey()));
+                }
+                eventService.addExceptions(stored);
+            }
+        });
+        if (moved.size() > MAX_PENDING_SERIES) {
+            // Occurrences of series that are neither stored nor coming: drop the ones just looked up
+            unchecked.forEach(moved::remove);
+            log.warn("ics import dropped moved occurrences of unknown series count={}", unchecked.size());
+        }
+        unchecked.clear();
+        entityManager.clear();
+        chunk.clear();
+    }
+
+    // A VEVENT with a RECURRENCE-ID (moved, or cancelled) takes that date out of its series
+    private void recordMovedOccurrence(Map<String, List<IcsReader.Property>> properties, String userId,
+                                       Map<String, Set<LocalDate>> moved, Set<String> unchecked) {
+        IcsReader.Property recurrenceId = first(properties, "RECURRENCE-ID");
+        IcsReader.Property uid = first(properties, "UID");
+        if (recurrenceId == null || uid == null) {
+            return;
+        }
+        try {
+            LocalDate date = parseDateTime(recurrenceId).toLocalDate();
+            String key = sourceKey(userId, uid.value());
+            if (!moved.containsKey(key)) {
+                unchecked.add(key);
+            }
+            moved.computeIfAbsent(key, k -> new TreeSet<>()).add(date);
+        } catch (DateTimeException e) {
+            // unreadable RECURRENCE-ID: the original occurrence stays
+        }
+    }
+
+    private EventEntity toEvent(Map<String, List<IcsReader.Property>> properties, String userId, ImportResult result) {
+        IcsReader.Property start = first(properties, "DTSTART");
+        IcsReader.Property status = first(properties, "STATUS");
+        if (start == null || (status != null && "CANCELLED".equalsIgnoreCase(status.value()))) {
+            result.setSkipped(result.getSkipped() + 1);
+            return null;
+        }
+        LocalDateTime startAt;
+        try {
+            startAt = parseDateTime(start);
+        } catch (DateTimeException e) {
+            result.setSkipped(result.getSkipped() + 1);
+            return null;
+        }
+        boolean allDay = isDate(start);
+
+        EventEntity event = new EventEntity();
+        event.setUserId(userId);
+        event.setTitle(text(properties, "SUMMARY", "Sans titre"));
+        event.setDescription(text(properties, "DESCRIPTION", null));
+        event.setStartDate(startAt.toLocalDate());
+        event.setStartTime(allDay ? null : startAt.toLocalTime());
+        if (!allDay) {
+            event.setDurationMinutes(durationMinutes(properties, startAt));
+        }
+        event.setCategory(category(text(properties, "CATEGORIES", null)));
+        event.setPriority(priority(first(properties, "PRIORITY")));
+
+        IcsReader.Property rrule = first(properties, "RRULE");
+        IcsReader.Property recurrenceId = first(properties, "RECURRENCE-ID");
+        if (rrule != null && recurrenceId == null) {
+            RecurrenceRule rule = rule(rrule.value(), startAt.toLocalDate(), properties);
+            if (rule != null) {
+                event.setRecurrence(rule);
+            } else {
+                result.setSimplified(result.getSimplified() + 1); // only the first occurrence is kept
+            }
+        }
+
+        // A moved occurrence of a series comes as its own VEVENT with the series' UID
+        IcsReader.Property uid = first(properties, "UID");
+        String identity = (uid != null ? uid.value() : startAt + "|" + event.getTitle())
+                + (recurrenceId != null ? "|" + recurrenceId.value() : "");
+        event.setSourceKey(sourceKey(userId, identity));
+        return event;
+    }
+
+    private String sourceKey(String userId, String identity) {
+        return "ics:" + UUID.nameUUIDFromBytes((userId + "\n" + identity).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // FREQ=DAILY|WEEKLY|MONTHLY with INTERVAL/COUNT/UNTIL. BY* parts are accepted only when they
+    // just restate DTSTART (e.g. WEEKLY;BYDAY=MO for a Monday); anything else returns null.
+    private RecurrenceRule rule(String value, LocalDate start, Map<String, List<IcsReader.Property>> properties) {
+        Map<String, String> parts = new HashMap<>();
+        for (String part : value.split(";")) {
+            int eq = part.indexOf('=');
+            if (eq > 0) {
+                parts.put(part.substring(0, eq).toUpperCase(Locale.ROOT), part.substring(eq + 1).toUpperCase(Locale.ROOT));
+            }
+        }
+        String frequency = parts.remove("FREQ");
+        if (!"DAILY".equals(frequency) && !"WEEKLY".equals(frequency) && !"MONTHLY".equals(frequency)) {
+            return null;
+        }
+        String byDay = parts.remove("BYDAY");
+        if (byDay != null && !byDay.equals(start.getDayOfWeek().name().substring(0, 2))) {
+            return null;
+        }
+        String byMonthDay = parts.remove("BYMONTHDAY");
+        if (byMonthDay != null && !byMonthDay.equals(String.valueOf(start.getDayOfMonth()))) {
+            return null;
+        }
+        parts.remove("WKST");
+
+        RecurrenceRule rule = new RecurrenceRule();
+        rule.setFrequency(frequency);
+        try {
+            if (parts.containsKey("INTERVAL")) {
+                rule.setInterval(Integer.parseInt(parts.remove("INTERVAL")));
+            }
+            if (parts.containsKey("COUNT")) {
+                rule.setCount(Integer.parseInt(parts.remove("COUNT")));
+            }
+            if (parts.containsKey("UNTIL")) {
+                rule.setUntil(parseValue(parts.remove("UNTIL")).toLocalDate());
+            }
+        } catch (NumberFormatException | DateTimeException e) {
+            return null;
+        }
+        if (!parts.isEmpty() || !RecurrenceExpander.isValid(rule)) {
+            return null;
+        }
+
+        Set<LocalDate> exceptions = new TreeSet<>();
+        for (IcsReader.Property exdate : properties.getOrDefault("EXDATE", List.of())) {
+            for (String date : exdate.value().split(",")) {
+                try {
+                    exceptions.add(parseValue(date).toLocalDate());
+                } catch (DateTimeException e) {
+                    // ignore a malformed exception date, the occurrence simply stays
+                }
+            }
+        }
+        rule.setExceptions(exceptions);
+        return rule;
+    }
+
+    private Integer durationMinutes(Map<String, List<IcsReader.Property>> properties, LocalDateTime startAt) {
+        try {
+            IcsReader.Property end = first(properties, "DTEND");
+            if (end != null && !isDate(end)) {
+                long minutes = Duration.between(startAt, parseDateTime(end)).toMinutes();
+                return minutes > 0 ? (int) minutes : null;
+            }
+            IcsReader.Property duration = first(properties, "DURATION");
+            if (duration != null) {
+                long minutes = Duration.parse(duration.value()).toMinutes();
+                return minutes > 0 ? (int) minutes : null;
+            }
+        } catch (DateTimeException | ArithmeticException e) {
+            // keep the default duration
+        }
+        return null;
+    }
+
+    private LocalDateTime parseDateTime(IcsReader.Property property) {
+        return parseValue(property.value());
+    }
+
+    // 20250101 | 20250101T090000 (floating or TZID: the wall time is kept as written) |
+    // 20250101T080000Z (converted to calendar.ics.zone)
+    private LocalDateTime parseValue(String value) {
+        String v = value.trim();
+        if (v.length() == 8) {
+            return LocalDate.parse(v, IcsWriter.DATE).atStartOfDay();
+        }
+        if (v.endsWith("Z")) {
+            Instant instant = LocalDateTime.parse(v.substring(0, v.length() - 1), IcsWriter.DATE_TIME).toInstant(ZoneOffset.UTC);
+            return LocalDateTime.ofInstant(instant, zone);
+        }
+        return LocalDateTime.parse(v, IcsWriter.DATE_TIME);
+    }
+
+    private boolean isDate(IcsReader.Property property) {
+        return "DATE".equalsIgnoreCase(property.params().get("VALUE")) || property.value().trim().length() == 8;
+    }
+
+    private String category(String categories) {
+        if (categories != null) {
+            for (String category : categories.split(",")) {
+                String upper = category.trim().toUpperCase(Locale.ROOT);
+                if (CATEGORIES.contains(upper)) {
+                    return upper;
+                }
+            }
+        }
+        return "WORK";
+    }
+
+    // RFC 5545: 1-4 high, 5 medium, 6-9 low, 0 undefined
+    private String priority(IcsReader.Property property) {
+        try {
+            int value = property != null ? Integer.parseInt(property.value().trim()) : 0;
+            return value >= 1 && value <= 4 ? "HIGH" : value >= 6 ? "LOW" : "MEDIUM";
+        } catch (NumberFormatException e) {
+            return "MEDIUM";
+        }
+    }
+
+    private String text(Map<String, List<IcsReader.Property>> properties, String name, String fallback) {
+        IcsReader.Property property = first(properties, name);
+        return property != null && !property.value().isEmpty() ? IcsReader.unescape(property.value()) : fallback;
+    }
+
+    private IcsReader.Property first(Map<String, List<IcsReader.Property>> properties, String name) {
+        List<IcsReader.Property> values = properties.get(name);
+        return values != null ? values.get(0) : null;
+    }
+}
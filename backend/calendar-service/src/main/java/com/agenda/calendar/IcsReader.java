@@ -0,0 +1,139 @@
+package com.agenda.calendar;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Streaming RFC 5545 reader: unfolds content lines as they arrive and hands each VEVENT
+// to the callback, so only one event's properties are held at a time. Nested components
+// (VALARM) and everything outside VEVENT are skipped.
+public class IcsReader {
+
+    private static final int MAX_LINE_LENGTH = 1 << 20; // one unfolded property
+
+    private final Reader reader;
+    private int lookahead = -2; // -2: nothing read yet
+
+    public IcsReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? reader : new BufferedReader(reader);
+    }
+
+    public void forEachEvent(Consumer<Map<String, List<Property>>> action) throws IOException {
+        Map<String, List<Property>> event = null;
+        int nested = 0;
+        for (String line = nextLine(); line != null; line = nextLine()) {
+            Property property = parse(line);
+            if (property == null) {
+                continue;
+            }
+            String value = property.value().toUpperCase(Locale.ROOT);
+            if ("BEGIN".equals(property.name())) {
+                if (event == null && "VEVENT".equals(value)) {
+                    event = new HashMap<>();
+                } else if (event != null) {
+                    nested++;
+                }
+            } else if ("END".equals(property.name()) && event != null) {
+                if (nested > 0) {
+                    nested--;
+                } else {
+                    action.accept(event);
+                    event = null;
+                }
+            } else if (event != null && nested == 0) {
+                event.computeIfAbsent(property.name(), n -> new ArrayList<>(1)).add(property);
+            }
+        }
+    }
+
+    // Next logical line: CRLF or LF terminated, continuation lines (leading space/tab) joined
+    private String nextLine() throws IOException {
+        if (lookahead == -2) {
+            lookahead = reader.read();
+        }
+        if (lookahead == -1) {
+            return null;
+        }
+        StringBuilder line = new StringBuilder();
+        int c = lookahead;
+        while (true) {
+            if (c == -1) {
+                lookahead = -1;
+                return line.toString();
+            }
+            if (c == '\r') {
+                c = reader.read();
+                continue;
+            }
+            if (c == '\n') {
+                c = reader.read();
+                if (c == ' ' || c == '\t') {
+                    c = reader.read(); // folded: drop the break and the single whitespace
+                    continue;
+                }
+                lookahead = c;
+                return line.toString();
+            }
+            if (line.length() >= MAX_LINE_LENGTH) {
+                throw new IllegalArgumentException("ICS content line longer than " + MAX_LINE_LENGTH + " characters");
+            }
+            line.append((char) c);
+            c = reader.read();
+        }
+    }
+
+    // NAME;PARAM=VALUE;PARAM="QUOTED":VALUE
+    static Property parse(String line) {
+        int colon = -1;
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ':' && !quoted) {
+                colon = i;
+                break;
+            }
+        }
+        if (colon <= 0) {
+            return null;
+        }
+        String[] head = line.substring(0, colon).split(";(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)");
+        Map<String, String> params = new HashMap<>();
+        for (int i = 1; i < head.length; i++) {
+            int eq = head[i].indexOf('=');
+            if (eq > 0) {
+                params.put(head[i].substring(0, eq).toUpperCase(Locale.ROOT),
+                        head[i].substring(eq + 1).replace("\"", ""));
+            }
+        }
+        return new Property(head[0].toUpperCase(Locale.ROOT), params, line.substring(colon + 1));
+    }
+
+    // TEXT values: \n, \, \; \\ escapes
+    static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder text = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                text.append(next == 'n' || next == 'N' ? '\n' : next);
+            } else {
+                text.append(c);
+            }
+        }
+        return text.toString();
+    }
+
+    public record Property(String name, Map<String, String> params, String value) {
+    }
+}
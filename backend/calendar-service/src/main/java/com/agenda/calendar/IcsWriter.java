@@ -0,0 +1,114 @@
+package com.agenda.calendar;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Writes events as an RFC 5545 calendar, one VEVENT at a time. Times are floating
+// (no TZID), like the stored LocalDate/LocalTime; long lines are folded at 75 octets.
+public class IcsWriter {
+
+    static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+    static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final DateTimeFormatter UTC = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+    private static final Map<String, Integer> PRIORITIES = Map.of("HIGH", 1, "MEDIUM", 5, "LOW", 9);
+    private static final int MAX_LINE_OCTETS = 75;
+
+    private final Writer writer;
+
+    public IcsWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    public void begin() throws IOException {
+        line("BEGIN:VCALENDAR");
+        line("VERSION:2.0");
+        line("PRODID:-//Agenda Smart//Calendar Export//FR");
+        line("CALSCALE:GREGORIAN");
+    }
+
+    public void write(EventEntity event) throws IOException {
+        line("BEGIN:VEVENT");
+        line("UID:" + event.getId() + "@agenda-smart");
+        line("DTSTAMP:" + UTC.format(event.getUpdatedAt() != null ? event.getUpdatedAt() : Instant.now()));
+        if (event.getStartTime() != null) {
+            line("DTSTART:" + DATE_TIME.format(event.getStartDate().atTime(event.getStartTime())));
+            int duration = event.getDurationMinutes() != null ? event.getDurationMinutes() : FreeBusyIndex.DEFAULT_DURATION_MINUTES;
+            line("DURATION:PT" + duration + "M");
+        } else if (event.getStartDate() != null) {
+            line("DTSTART;VALUE=DATE:" + DATE.format(event.getStartDate()));
+        }
+        text("SUMMARY", event.getTitle());
+        text("DESCRIPTION", event.getDescription());
+        text("CATEGORIES", event.getCategory());
+        if (event.getPriority() != null && PRIORITIES.containsKey(event.getPriority())) {
+            line("PRIORITY:" + PRIORITIES.get(event.getPriority()));
+        }
+        if (event.isRecurring()) {
+            writeRule(event);
+        }
+        line("END:VEVENT");
+    }
+
+    public void end() throws IOException {
+        line("END:VCALENDAR");
+        writer.flush();
+    }
+
+    private void writeRule(EventEntity event) throws IOException {
+        RecurrenceRule rule = event.getRecurrence();
+        StringBuilder rrule = new StringBuilder("RRULE:FREQ=").append(rule.getFrequency());
+        if (rule.getInterval() != null && rule.getInterval() > 1) {
+            rrule.append(";INTERVAL=").append(rule.getInterval());
+        }
+        if (rule.getCount() != null) {
+            rrule.append(";COUNT=").append(rule.getCount());
+        }
+        if (rule.getUntil() != null) {
+            // Same value type as DTSTART: a timed series ends with the last second of its UNTIL day
+            rrule.append(";UNTIL=").append(event.getStartTime() != null
+                    ? DATE_TIME.format(rule.getUntil().atTime(LocalTime.MAX))
+                    : DATE.format(rule.getUntil()));
+        }
+        line(rrule.toString());
+        if (rule.getExceptions() != null && !rule.getExceptions().isEmpty()) {
+            if (event.getStartTime() != null) {
+                line("EXDATE:" + rule.getExceptions().stream()
+                        .map(date -> DATE_TIME.format(date.atTime(event.getStartTime())))
+                        .collect(Collectors.joining(",")));
+            } else {
+                line("EXDATE;VALUE=DATE:" + rule.getExceptions().stream()
+                        .map(DATE::format)
+                        .collect(Collectors.joining(",")));
+            }
+        }
+    }
+
+    private void text(String name, String value) throws IOException {
+        if (value != null && !value.isEmpty()) {
+            line(name + ":" + value.replace("\\", "\\\\").replace(";", "\\;").replace(",", "\\,")
+                    .replace("\r\n", "\\n").replace("\n", "\\n"));
+        }
+    }
+
+    // Fold at 75 octets without splitting a UTF-8 sequence; continuation lines start with a space
+    private void line(String content) throws IOException {
+        int octets = 0;
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            int size = c < 0x80 ? 1 : c < 0x800 ? 2 : Character.isHighSurrogate(c) ? 4 : Character.isLowSurrogate(c) ? 0 : 3;
+            if (octets + size > MAX_LINE_OCTETS) {
+                writer.write("\r\n ");
+                octets = 1;
+            }
+            writer.write(c);
+            octets += size;
+        }
+        writer.write("\r\n");
+    }
+}
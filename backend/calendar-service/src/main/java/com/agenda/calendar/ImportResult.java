@@ -0,0 +1,11 @@
+package com.agenda.calendar;
+
+import lombok.Data;
+
+@Data
+public class ImportResult {
+    private int imported;
+    private int duplicates; // already imported (same UID), or repeated in the file
+    private int skipped; // cancelled or without a usable DTSTART
+    private int simplified; // recurrence not representable: only the first occurrence imported
+}
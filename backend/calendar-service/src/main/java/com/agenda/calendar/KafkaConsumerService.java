@@ -1,35 +1,224 @@
 package com.agenda.calendar;
 
+import com.agenda.contracts.AiEventCommand;
+import com.agenda.contracts.Topics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import lombok.Data;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @Service
+@Slf4j
 public class KafkaConsumerService {
 
+    private static final String TOPIC = Topics.AI_EVENTS;
+    // UPDATE/DELETE targets need the title to be close (about 0.8 trigram similarity, or a title
+    // containing the query): a weak fuzzy match would change or delete an unrelated event
+    private static final double TARGET_MIN_SCORE = 0.8;
+
     @Autowired
     private EventRepository eventRepository;
 
-    @KafkaListener(topics = "ai-events-topic", groupId = "calendar-group")
-    public void consume(EventDto eventDto) {
-        System.out.println("Received event: " + eventDto);
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private SearchIndex searchIndex;
+
+    @Autowired
+    private ProcessedCommandRepository processedCommandRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${calendar.ai.processed-retention:7d}")
+    private Duration processedRetention;
+
+    private Timer ingestTimer;
+    private Counter createdCommands;
+    private Counter duplicateCommands;
+    private Counter appliedCommands;
+    private Counter unresolvedCommands;
+
+    @PostConstruct
+    void registerMeters() {
+        ingestTimer = Timer.builder("calendar.ai.ingest").publishPercentileHistogram().register(meterRegistry);
+        createdCommands = meterRegistry.counter("calendar.ai.commands", "outcome", "created");
+        duplicateCommands = meterRegistry.counter("calendar.ai.commands", "outcome", "duplicate");
+        appliedCommands = meterRegistry.counter("calendar.ai.commands", "outcome", "applied");
+        unresolvedCommands = meterRegistry.counter("calendar.ai.commands", "outcome", "not_found");
+    }
+
+    // A whole poll is stored in one transaction. The container commits the offsets (ack-mode:
+    // batch) only after this returns, so a failure replays the poll and the idempotency keys turn
+    // the replayed records into no-ops. Consecutive CREATEs are saved together; they are flushed
+    // before any UPDATE/DELETE so a command can target an event created earlier in the poll.
+    @KafkaListener(topics = TOPIC, groupId = "calendar-group", batch = "true")
+    @Transactional
+    public void consume(List<ConsumerRecord<String, AiEventCommand>> records) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Map<String, EventEntity> pending = new LinkedHashMap<>();
+        int received = 0;
+        int created = 0;
+        int applied = 0;
+        int duplicates = 0;
+        int unresolved = 0;
+        for (ConsumerRecord<String, AiEventCommand> record : records) {
+            AiEventCommand command = record.value();
+            if (command == null) {
+                continue;
+            }
+            String action = command.action() != null ? command.action().toUpperCase() : "CREATE";
+            // Producers that send no key: the record's position identifies it just as well on replay
+            String key = command.idempotencyKey() != null
+                    ? command.idempotencyKey()
+                    : record.topic() + "-" + record.partition() + "-" + record.offset();
+            if ("CREATE".equals(action)) {
+                received++;
+                pending.putIfAbsent(key, toEntity(command, key));
+                continue;
+            }
+            created += flushCreates(pending);
+            // Never turn an UPDATE/DELETE command into a new event, nor apply one twice. The key is
+            // claimed once the target is resolved, a miss included, so a replay cannot pick a
+            // target that only a later record created.
+            Optional<Long> target = resolveTarget(action, command);
+            if (processedCommandRepository.claim(key, Instant.now()) == 0) {
+                duplicates++;
+            } else if (target.isEmpty()) {
+                unresolved++;
+            } else if (applyToTarget(action, command, target.get())) {
+                applied++;
+            }
+        }
+        created += flushCreates(pending);
+        duplicates += received - created;
+        createdCommands.increment(created);
+        duplicateCommands.increment(duplicates);
+        appliedCommands.increment(applied);
+        unresolvedCommands.increment(unresolved);
+        sample.stop(ingestTimer);
+        log.debug("ai ingest records={} created={} duplicates={} applied={} not_found={}",
+                records.size(), created, duplicates, applied, unresolved);
+    }
+
+    // Saves the pending CREATEs whose keys were not stored yet; returns how many were
+    private int flushCreates(Map<String, EventEntity> pending) {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        eventRepository.findExistingSourceKeys(pending.keySet()).forEach(pending::remove);
+        int saved = pending.size();
+        if (saved > 0) {
+            eventService.importEvents(new ArrayList<>(pending.values()), "AI_EXTRACTED");
+        }
+        pending.clear();
+        return saved;
+    }
+
+    // Applied UPDATE/DELETE keys only need to outlive Kafka redeliveries
+    @Scheduled(cron = "0 30 * * * *")
+    @Transactional
+    public void expireProcessedCommands() {
+        int removed = processedCommandRepository.deleteProcessedBefore(Instant.now().minus(processedRetention));
+        log.debug("ai processed commands expired={}", removed);
+    }
+
+    // UPDATE/DELETE name their target by title: the owner's search index picks the best match.
+    // The index is only patched after commit, so an event created earlier in this poll is found
+    // by its exact title instead. Records without an owner cannot be resolved.
+    private Optional<Long> resolveTarget(String action, AiEventCommand command) {
+        String userId = command.userId();
+        String query = command.searchTitle() != null ? command.searchTitle() : command.title();
+        if (userId == null || query == null) {
+            return Optional.empty();
+        }
+        Optional<Long> target = searchIndex.bestMatch(userId, query, TARGET_MIN_SCORE)
+                .map(EventSummary::getId)
+                .or(() -> eventRepository.findFirstByUserIdAndTitleIgnoreCaseAndDeletedFalseOrderByIdDesc(userId, query)
+                        .map(EventEntity::getId));
+        if (target.isEmpty()) {
+            log.info("ai command without target action={} user={} query='{}'", action, userId, query);
+        }
+        return target;
+    }
+
+    private boolean applyToTarget(String action, AiEventCommand command, Long id) {
+        String userId = command.userId();
+        if ("DELETE".equals(action)) {
+            return eventService.delete(id, userId);
+        }
+        if (!"UPDATE".equals(action)) {
+            return false;
+        }
+        return eventService.findOwned(id, userId).flatMap(current -> {
+            // Only the fields the AI filled in change
+            EventEntity details = new EventEntity();
+            eventService.copyDetails(current, details);
+            if (command.title() != null) {
+                details.setTitle(command.title());
+            }
+            if (command.startDate() != null) {
+                details.setStartDate(parseDate(command.startDate()));
+            }
+            if (command.startTime() != null) {
+                details.setStartTime(parseTime(command.startTime()));
+            }
+            if (command.category() != null) {
+                details.setCategory(command.category());
+            }
+            if (command.priority() != null) {
+                details.setPriority(command.priority());
+            }
+            return eventService.update(id, details, userId);
+        }).isPresent();
+    }
+
+    private EventEntity toEntity(AiEventCommand command, String key) {
         EventEntity entity = new EventEntity();
-        entity.setTitle(eventDto.getTitle());
-        entity.setStartDate(eventDto.getStartDate());
-        entity.setStartTime(eventDto.getStartTime());
-        entity.setCategory(eventDto.getCategory());
-        entity.setPriority(eventDto.getPriority());
-        eventRepository.save(entity);
-    }
-
-    // Temporary DTO for deserialization matching the producer
-    @Data
-    public static class EventDto {
-        private String title;
-        private String startDate;
-        private String startTime;
-        private String category;
-        private String priority;
+        entity.setTitle(command.title());
+        entity.setStartDate(parseDate(command.startDate()));
+        entity.setStartTime(parseTime(command.startTime()));
+        entity.setCategory(command.category());
+        entity.setPriority(command.priority());
+        entity.setUserId(command.userId());
+        entity.setSourceKey(key);
+        return entity;
+    }
+
+    // The AI output is free-form text: fall back to today / no time rather than failing the record
+    private LocalDate parseDate(String value) {
+        try {
+            return value != null ? LocalDate.parse(value) : LocalDate.now();
+        } catch (DateTimeParseException e) {
+            return LocalDate.now();
+        }
+    }
+
+    private LocalTime parseTime(String value) {
+        try {
+            return value != null ? LocalTime.parse(value) : null;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
     }
 }
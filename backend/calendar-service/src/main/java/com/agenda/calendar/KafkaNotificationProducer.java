@@ -1,41 +1,65 @@
 package com.agenda.calendar;
 
+import com.agenda.contracts.ContractCodec;
+import com.agenda.contracts.EventNotification;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
 
 @Service
 public class KafkaNotificationProducer {
 
-    private static final String TOPIC = "event-notifications";
+    // Tags our own messages so this instance can skip them in CacheInvalidationListener
+    static final String ORIGIN = UUID.randomUUID().toString();
 
     @Autowired
-    private KafkaTemplate<String, Map<String, Object>> kafkaTemplate;
-
-    public void sendEventNotification(EventEntity event, String type) {
-        try {
-            Map<String, Object> message = new HashMap<>();
-            message.put("id", event.getId());
-            message.put("title", event.getTitle());
-            message.put("startDate", event.getStartDate());
-            message.put("startTime", event.getStartTime());
-            message.put("category", event.getCategory());
-            message.put("userId", event.getUserId());
-            message.put("type", type); // CREATED, UPDATED, DELETED, AI_EXTRACTED
-
-            kafkaTemplate.send(TOPIC, message);
-
-            System.out.println("===========================================");
-            System.out.println("[KAFKA PRODUCER] Message sent to topic: " + TOPIC);
-            System.out.println("  Type: " + type);
-            System.out.println("  Title: " + event.getTitle());
-            System.out.println("  User: " + event.getUserId());
-            System.out.println("===========================================");
-        } catch (Exception e) {
-            System.err.println("[KAFKA PRODUCER] Failed to send message: " + e.getMessage());
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Queue the notifications in the caller's transaction; OutboxRelay publishes them after commit
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(List<EventChange> changes) {
+        if (changes.isEmpty()) {
+            return;
         }
+        Instant now = Instant.now();
+        List<OutboxEntity> rows = new ArrayList<>(changes.size());
+        for (EventChange change : changes) {
+            OutboxEntity row = new OutboxEntity();
+            row.setMessageKey(change.getEvent().getUserId());
+            // Stored as JSON so the rows stay readable in the database; OutboxRelay sends them in binary
+            EventNotification message = buildMessage(change.getEvent(), change.getType(), change.getPreviousStartDate());
+            row.setPayload(new String(ContractCodec.toJson(message), StandardCharsets.UTF_8));
+            row.setCreatedAt(now);
+            rows.add(row);
+            meterRegistry.counter("calendar.outbox.enqueued", "type", change.getType()).increment();
+        }
+        outboxRepository.saveAll(rows);
+    }
+
+    private EventNotification buildMessage(EventEntity event, String type, LocalDate previousStartDate) {
+        return new EventNotification(
+                event.getId(),
+                event.getUserId(),
+                event.getTitle(),
+                event.getStartDate(),
+                event.getStartTime() != null ? event.getStartTime().truncatedTo(ChronoUnit.MINUTES) : null,
+                event.getCategory(),
+                type, // CREATED, UPDATED, DELETED, AI_EXTRACTED, IMPORTED
+                event.isRecurring(),
+                previousStartDate != null && !previousStartDate.equals(event.getStartDate()) ? previousStartDate : null,
+                ORIGIN);
     }
 }
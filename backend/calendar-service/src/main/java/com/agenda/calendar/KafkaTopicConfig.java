@@ -0,0 +1,28 @@
+package com.agenda.calendar;
+
+import com.agenda.contracts.Topics;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+@Configuration
+public class KafkaTopicConfig {
+
+    // Notifications are keyed by userId (OutboxRelay), so a user's events always land in the
+    // same partition and stay in order; partitions bound how many consumer threads, across all
+    // notification-service instances, can share the topic. KafkaAdmin creates the topic at
+    // startup and raises the partition count if this is higher than the existing one (it
+    // never lowers it). Raising it moves some users to another partition: records of theirs
+    // already queued in the old one may be delivered after newer ones, once.
+    @Bean
+    public NewTopic eventNotificationsTopic(
+            @Value("${calendar.kafka.notification-partitions:12}") int partitions,
+            @Value("${calendar.kafka.replication-factor:1}") short replicas) {
+        return TopicBuilder.name(Topics.EVENT_NOTIFICATIONS)
+                .partitions(partitions)
+                .replicas(replicas)
+                .build();
+    }
+}
@@ -0,0 +1,32 @@
+package com.agenda.calendar;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+// Stores a set of dates as a sorted comma-separated text column
+@Converter
+public class LocalDateSetConverter implements AttributeConverter<Set<LocalDate>, String> {
+
+    @Override
+    public String convertToDatabaseColumn(Set<LocalDate> dates) {
+        if (dates == null || dates.isEmpty()) {
+            return null;
+        }
+        return new TreeSet<>(dates).stream().map(LocalDate::toString).collect(Collectors.joining(","));
+    }
+
+    @Override
+    public Set<LocalDate> convertToEntityAttribute(String column) {
+        Set<LocalDate> dates = new TreeSet<>();
+        if (column != null && !column.isBlank()) {
+            Arrays.stream(column.split(",")).map(String::trim).map(LocalDate::parse).forEach(dates::add);
+        }
+        return dates;
+    }
+}
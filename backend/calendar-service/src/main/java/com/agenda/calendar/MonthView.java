@@ -0,0 +1,16 @@
+package com.agenda.calendar;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.YearMonth;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class MonthView {
+    private YearMonth month;
+    private long version; // user's change version the view reflects
+    private int total;
+    private List<DayBucket> days; // days with at least one event, in date order
+}
@@ -0,0 +1,119 @@
+package com.agenda.calendar;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Read model behind GET /month/{yyyy-MM}: per user and month, the event summaries bucketed
+// by day. Built with one summary query, then patched in place by every local write instead
+// of being reloaded. Like EventCache, each month remembers the change version it reflects;
+// a patch only advances it when no version was skipped, so writes seen only through other
+// instances still force a reload on the next read.
+@Component
+public class MonthViewStore {
+
+    private static final Comparator<EventSummary> DAY_ORDER = Comparator
+            .comparing(EventSummary::getStartTime, Comparator.nullsFirst(Comparator.<LocalTime>naturalOrder()))
+            .thenComparing(EventSummary::getId, Comparator.nullsLast(Comparator.<Long>naturalOrder()));
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    private final Cache<String, Map<YearMonth, Month>> users;
+
+    public MonthViewStore(@Value("${calendar.month-view.max-users:10000}") long maxUsers) {
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(Duration.ofHours(1))
+                .build();
+    }
+
+    // version must be read before calling, as for EventCache
+    public MonthView get(String userId, YearMonth yearMonth, long version, int perDay) {
+        Map<YearMonth, Month> months = users.get(userId, id -> new ConcurrentHashMap<>());
+        Month month = months.get(yearMonth);
+        if (month == null || month.version() < version) {
+            Month loaded = load(userId, yearMonth, version);
+            month = months.merge(yearMonth, loaded, (current, fresh) -> current.version() >= fresh.version() ? current : fresh);
+        }
+        return render(yearMonth, month, perDay);
+    }
+
+    // Patch the user's loaded months after a committed write
+    public void apply(EventChange change) {
+        EventEntity event = change.getEvent();
+        if (event.getUserId() == null) {
+            return;
+        }
+        if (event.isRecurring()) {
+            users.invalidate(event.getUserId()); // occurrences may land in any month
+            return;
+        }
+        Map<YearMonth, Month> months = users.getIfPresent(event.getUserId());
+        if (months != null) {
+            months.replaceAll((yearMonth, month) -> patch(yearMonth, month, event));
+        }
+    }
+
+    private Month load(String userId, YearMonth yearMonth, long version) {
+        LocalDate first = yearMonth.atDay(1);
+        LocalDate last = yearMonth.atEndOfMonth();
+        TreeMap<LocalDate, List<EventSummary>> days = new TreeMap<>();
+        eventRepository.findSummariesInRange(userId, first.atStartOfDay(), last.plusDays(1).atStartOfDay())
+                .forEach(summary -> days.computeIfAbsent(summary.getStartDate(), d -> new ArrayList<>()).add(summary));
+        List<EventEntity> series = eventRepository.findSeriesInRange(userId, first.atStartOfDay(), last.plusDays(1).atStartOfDay());
+        for (EventEntity occurrence : RecurrenceExpander.expand(series, first, last)) {
+            days.computeIfAbsent(occurrence.getStartDate(), d -> new ArrayList<>()).add(EventSummary.of(occurrence));
+        }
+        days.values().forEach(list -> list.sort(DAY_ORDER));
+        return new Month(version, days);
+    }
+
+    // Copy-on-write: readers render a month without locking
+    private Month patch(YearMonth yearMonth, Month month, EventEntity event) {
+        TreeMap<LocalDate, List<EventSummary>> days = new TreeMap<>();
+        month.days().forEach((day, summaries) -> {
+            List<EventSummary> kept = summaries.stream().filter(s -> !s.getId().equals(event.getId())).toList();
+            if (!kept.isEmpty()) {
+                days.put(day, kept);
+            }
+        });
+        if (!event.isDeleted() && event.getStartDate() != null && YearMonth.from(event.getStartDate()).equals(yearMonth)) {
+            List<EventSummary> day = new ArrayList<>(days.getOrDefault(event.getStartDate(), List.of()));
+            day.add(EventSummary.of(event));
+            day.sort(DAY_ORDER);
+            days.put(event.getStartDate(), day);
+        }
+        long changeVersion = event.getChangeVersion() != null ? event.getChangeVersion() : 0L;
+        long version = changeVersion == month.version() + 1 ? changeVersion : month.version();
+        return new Month(version, days);
+    }
+
+    private MonthView render(YearMonth yearMonth, Month month, int perDay) {
+        List<DayBucket> buckets = new ArrayList<>(month.days().size());
+        int total = 0;
+        for (Map.Entry<LocalDate, List<EventSummary>> day : month.days().entrySet()) {
+            List<EventSummary> events = day.getValue();
+            total += events.size();
+            buckets.add(new DayBucket(day.getKey(), events.size(),
+                    perDay > 0 && events.size() > perDay ? events.subList(0, perDay) : events));
+        }
+        return new MonthView(yearMonth, month.version(), total, buckets);
+    }
+
+    private record Month(long version, TreeMap<LocalDate, List<EventSummary>> days) {
+    }
+}
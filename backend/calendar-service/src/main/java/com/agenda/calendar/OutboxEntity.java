@@ -0,0 +1,32 @@
+package com.agenda.calendar;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// A notification waiting to be published to Kafka. Rows are inserted in the same
+// transaction as the event change and deleted by OutboxRelay once the broker acked them.
+@Entity
+@Table(name = "event_outbox")
+@Data
+@NoArgsConstructor
+public class OutboxEntity {
+
+    // Relay order. Not pooled: each instance would hand out ids from its own block, so a user's
+    // later write could get a lower id than an earlier one made on another instance. A write
+    // takes its ids while it holds the user's change counter row, so one nextval per row keeps
+    // each user's rows in commit order (the INSERTs are still JDBC-batched).
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "event_outbox_seq")
+    @SequenceGenerator(name = "event_outbox_seq", sequenceName = "event_outbox_seq", allocationSize = 1)
+    private Long id;
+
+    private String messageKey; // owner's userId: keeps a user's notifications on one partition
+
+    @Column(columnDefinition = "text", nullable = false)
+    private String payload; // JSON message body
+
+    private Instant createdAt;
+}
@@ -0,0 +1,136 @@
+package com.agenda.calendar;
+
+import com.agenda.contracts.ContractCodec;
+import com.agenda.contracts.EventNotification;
+import com.agenda.contracts.Topics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Drains event_outbox to Kafka in id order. A row is deleted only after the broker
+// acknowledged it (at-least-once), and rows after the first failed send stay for the
+// next run, so a user's notifications are never overtaken by later ones.
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private static final String TOPIC = Topics.EVENT_NOTIFICATIONS;
+    private static final long RELAY_LOCK_KEY = 0x6f7574626f78L; // "outbox"
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private KafkaTemplate<String, EventNotification> kafkaTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${calendar.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${calendar.outbox.send-timeout:10s}")
+    private Duration sendTimeout;
+
+    private Timer batchTimer;
+    private Timer deliveryTimer;
+    private Counter published;
+    private Counter failures;
+
+    // batch: one round of sends until the acks; delivery: from the enqueueing transaction to the ack
+    @PostConstruct
+    void registerMeters() {
+        batchTimer = Timer.builder("calendar.outbox.batch").publishPercentileHistogram().register(meterRegistry);
+        deliveryTimer = Timer.builder("calendar.outbox.delivery").publishPercentileHistogram().register(meterRegistry);
+        published = meterRegistry.counter("calendar.outbox.published");
+        failures = meterRegistry.counter("calendar.outbox.failures");
+    }
+
+    @Scheduled(fixedDelayString = "${calendar.outbox.poll-interval-ms:200}")
+    public void relay() {
+        Integer published;
+        do {
+            published = transactionTemplate.execute(status -> relayBatch());
+        } while (published != null && published == batchSize);
+    }
+
+    // Publish the oldest rows and delete the acknowledged prefix; returns how many were deleted
+    private int relayBatch() {
+        if (!outboxRepository.tryRelayLock(RELAY_LOCK_KEY)) {
+            return 0; // another instance is draining
+        }
+        List<OutboxEntity> batch = outboxRepository.findOldest(PageRequest.ofSize(batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        // Send everything first so the records share produce requests, then wait for the acks
+        List<CompletableFuture<SendResult<String, EventNotification>>> sends = new ArrayList<>(batch.size());
+        for (OutboxEntity row : batch) {
+            EventNotification message = readPayload(row);
+            sends.add(message != null
+                    ? kafkaTemplate.send(TOPIC, row.getMessageKey(), message)
+                    : CompletableFuture.completedFuture(null));
+        }
+
+        int acked = 0;
+        try {
+            for (CompletableFuture<SendResult<String, EventNotification>> send : sends) {
+                send.get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+                acked++;
+            }
+        } catch (ExecutionException | TimeoutException e) {
+            failures.increment();
+            log.warn("outbox send failed acked={} batch={} error={}", acked, batch.size(), e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        sample.stop(batchTimer);
+
+        if (acked > 0) {
+            Instant now = Instant.now();
+            for (OutboxEntity row : batch.subList(0, acked)) {
+                deliveryTimer.record(Duration.between(row.getCreatedAt(), now));
+            }
+            published.increment(acked);
+            outboxRepository.deleteAllByIdInBatch(batch.subList(0, acked).stream().map(OutboxEntity::getId).toList());
+            log.debug("outbox relayed messages={} topic={}", acked, TOPIC);
+        }
+        return acked;
+    }
+
+    // A row that cannot be parsed would block the outbox forever: drop it
+    private EventNotification readPayload(OutboxEntity row) {
+        try {
+            return ContractCodec.fromJson(row.getPayload().getBytes(StandardCharsets.UTF_8), EventNotification.class);
+        } catch (IllegalArgumentException e) {
+            log.error("outbox dropping unreadable message id={} error={}", row.getId(), e.getMessage());
+            return null;
+        }
+    }
+}
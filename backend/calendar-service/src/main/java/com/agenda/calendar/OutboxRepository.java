@@ -0,0 +1,20 @@
+package com.agenda.calendar;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxRepository extends JpaRepository<OutboxEntity, Long> {
+
+    // Only one relay drains at a time across instances; released at commit/rollback
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryRelayLock(@Param("key") long key);
+
+    @Query("SELECT o FROM OutboxEntity o ORDER BY o.id")
+    List<OutboxEntity> findOldest(Pageable page);
+}
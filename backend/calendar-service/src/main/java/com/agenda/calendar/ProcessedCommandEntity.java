@@ -0,0 +1,27 @@
+package com.agenda.calendar;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// Idempotency key of an AI UPDATE/DELETE command that was already applied. CREATE commands
+// keep theirs on the event row (sourceKey); these have no row of their own to carry it, and
+// replaying one would hit whatever event matches the title best by then.
+@Entity
+@Table(name = "processed_ai_commands", indexes = {
+        @Index(name = "idx_processed_ai_commands_at", columnList = "processed_at")
+})
+@Data
+@NoArgsConstructor
+public class ProcessedCommandEntity {
+
+    @Id
+    private String idempotencyKey;
+
+    private Instant processedAt;
+}
@@ -0,0 +1,24 @@
+package com.agenda.calendar;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface ProcessedCommandRepository extends JpaRepository<ProcessedCommandEntity, String> {
+
+    // 1 if the key is new, 0 if it was already processed; the row lock is held until commit, so a
+    // concurrent redelivery waits and then sees it
+    @Modifying
+    @Query(value = "INSERT INTO processed_ai_commands (idempotency_key, processed_at) VALUES (:key, :now) "
+            + "ON CONFLICT (idempotency_key) DO NOTHING", nativeQuery = true)
+    int claim(@Param("key") String key, @Param("now") Instant now);
+
+    @Modifying
+    @Query("DELETE FROM ProcessedCommandEntity p WHERE p.processedAt < :before")
+    int deleteProcessedBefore(@Param("before") Instant before);
+}
@@ -0,0 +1,142 @@
+package com.agenda.calendar;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+// Expands a RecurrenceRule into concrete dates. The n-th occurrence is computed
+// directly from the series start, so expanding a window costs O(occurrences in
+// the window) no matter how old the series is.
+// Monthly series falling on the 29th-31st are clamped to the last day of shorter months.
+public final class RecurrenceExpander {
+
+    private RecurrenceExpander() {
+    }
+
+    public static boolean isValid(RecurrenceRule rule) {
+        if (rule == null || rule.getFrequency() == null) {
+            return true; // not recurring
+        }
+        return switch (rule.getFrequency()) {
+            case "DAILY", "WEEKLY", "MONTHLY" -> (rule.getInterval() == null || rule.getInterval() >= 1)
+                    && (rule.getCount() == null || rule.getCount() >= 1);
+            default -> false;
+        };
+    }
+
+    public static void validate(RecurrenceRule rule) {
+        if (!isValid(rule)) {
+            throw new IllegalArgumentException("Invalid recurrence rule: " + rule);
+        }
+    }
+
+    // Occurrence dates of the series within [from, to] (inclusive)
+    public static List<LocalDate> occurrences(LocalDate start, RecurrenceRule rule, LocalDate from, LocalDate to) {
+        List<LocalDate> dates = new ArrayList<>();
+        if (start == null || to.isBefore(start)) {
+            return dates;
+        }
+        ChronoUnit unit = unit(rule);
+        int interval = interval(rule);
+        for (long k = firstIndexOnOrAfter(start, unit, interval, from); ; k++) {
+            if (rule.getCount() != null && k >= rule.getCount()) {
+                break;
+            }
+            LocalDate date = nth(start, unit, interval, k);
+            if (date.isAfter(to) || (rule.getUntil() != null && date.isAfter(rule.getUntil()))) {
+                break;
+            }
+            if (rule.getExceptions() == null || !rule.getExceptions().contains(date)) {
+                dates.add(date);
+            }
+        }
+        return dates;
+    }
+
+    // Date of the last occurrence, or null when the series never ends
+    public static LocalDate lastOccurrence(LocalDate start, RecurrenceRule rule) {
+        ChronoUnit unit = unit(rule);
+        int interval = interval(rule);
+        LocalDate last = null;
+        if (rule.getCount() != null) {
+            last = nth(start, unit, interval, rule.getCount() - 1L);
+        }
+        if (rule.getUntil() != null) {
+            if (rule.getUntil().isBefore(start)) {
+                return start;
+            }
+            long k = unit.between(start, rule.getUntil()) / interval;
+            // between() undercounts clamped months (Jan 31 -> Feb 28 is 0 months): step both ways
+            while (!nth(start, unit, interval, k + 1).isAfter(rule.getUntil())) {
+                k++;
+            }
+            while (k > 0 && nth(start, unit, interval, k).isAfter(rule.getUntil())) {
+                k--;
+            }
+            LocalDate byUntil = nth(start, unit, interval, k);
+            if (last == null || byUntil.isBefore(last)) {
+                last = byUntil;
+            }
+        }
+        return last;
+    }
+
+    // A detached copy of the series event placed on one of its dates; it keeps the series id
+    public static EventEntity occurrence(EventEntity series, LocalDate date) {
+        EventEntity copy = new EventEntity();
+        copy.setId(series.getId());
+        copy.setUserId(series.getUserId());
+        copy.setTitle(series.getTitle());
+        copy.setStartDate(date);
+        copy.setStartTime(series.getStartTime());
+        copy.setDurationMinutes(series.getDurationMinutes());
+        copy.setCategory(series.getCategory());
+        copy.setPriority(series.getPriority());
+        copy.setDescription(series.getDescription());
+        copy.setChangeVersion(series.getChangeVersion());
+        copy.setUpdatedAt(series.getUpdatedAt());
+        copy.setRecurrence(series.getRecurrence());
+        copy.computeDerivedColumns();
+        return copy;
+    }
+
+    // Expand each series over [from, to]
+    public static List<EventEntity> expand(List<EventEntity> series, LocalDate from, LocalDate to) {
+        List<EventEntity> expanded = new ArrayList<>();
+        for (EventEntity event : series) {
+            for (LocalDate date : occurrences(event.getStartDate(), event.getRecurrence(), from, to)) {
+                expanded.add(occurrence(event, date));
+            }
+        }
+        return expanded;
+    }
+
+    private static long firstIndexOnOrAfter(LocalDate start, ChronoUnit unit, int interval, LocalDate from) {
+        if (!from.isAfter(start)) {
+            return 0;
+        }
+        long k = unit.between(start, from) / interval;
+        while (nth(start, unit, interval, k).isBefore(from)) {
+            k++;
+        }
+        return k;
+    }
+
+    private static LocalDate nth(LocalDate start, ChronoUnit unit, int interval, long k) {
+        return start.plus(k * interval, unit);
+    }
+
+    private static ChronoUnit unit(RecurrenceRule rule) {
+        return switch (rule.getFrequency()) {
+            case "DAILY" -> ChronoUnit.DAYS;
+            case "WEEKLY" -> ChronoUnit.WEEKS;
+            case "MONTHLY" -> ChronoUnit.MONTHS;
+            default -> throw new IllegalArgumentException("Unknown frequency: " + rule.getFrequency());
+        };
+    }
+
+    private static int interval(RecurrenceRule rule) {
+        return rule.getInterval() != null ? rule.getInterval() : 1;
+    }
+}
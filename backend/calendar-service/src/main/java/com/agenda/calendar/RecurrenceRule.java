@@ -0,0 +1,34 @@
+package com.agenda.calendar;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Embeddable;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Stored once on the series' first event; occurrences are expanded on read
+@Embeddable
+@Data
+@NoArgsConstructor
+public class RecurrenceRule {
+
+    @Column(name = "recurrence_frequency")
+    private String frequency; // DAILY, WEEKLY, MONTHLY
+
+    @Column(name = "recurrence_interval")
+    private Integer interval; // every N days/weeks/months, default 1
+
+    @Column(name = "recurrence_count")
+    private Integer count; // total occurrences, exceptions included
+
+    @Column(name = "recurrence_until")
+    private LocalDate until; // last possible date, inclusive
+
+    @Column(name = "recurrence_exceptions", columnDefinition = "text")
+    @Convert(converter = LocalDateSetConverter.class)
+    private Set<LocalDate> exceptions = new TreeSet<>(); // skipped dates
+}
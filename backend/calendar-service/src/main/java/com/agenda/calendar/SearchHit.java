@@ -0,0 +1,11 @@
+package com.agenda.calendar;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class SearchHit {
+    private EventSummary event;
+    private double score; // higher is better, 1.0+ for a title containing the query
+}
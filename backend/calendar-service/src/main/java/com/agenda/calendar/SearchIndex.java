@@ -0,0 +1,183 @@
+package com.agenda.calendar;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
+
+// Per-user inverted index of title and description trigrams (pg_trgm style: words padded
+// with two leading and one trailing space, accents and case folded). A query scores every
+// event sharing a trigram with it: title similarity (shared / union of trigrams) weighs
+// most, then how much of the query the description contains, plus a bonus when the title
+// contains the query as is. Loaded once per user and patched by calendar writes.
+@Component
+public class SearchIndex {
+
+    public static final int MAX_RESULTS = 50;
+    private static final double MIN_SCORE = 0.2;
+    private static final double DESCRIPTION_WEIGHT = 0.4;
+    private static final double SUBSTRING_BONUS = 0.5;
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    private final AsyncCache<String, UserIndex> indexes;
+
+    public SearchIndex(@Value("${calendar.search.max-users:10000}") long maxUsers,
+                       @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        // Loaded outside the map's compute lock (see FreeBusyIndex)
+        this.indexes = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(Duration.ofHours(1))
+                .executor(FreeBusyIndex.loadExecutor(virtualThreads))
+                .buildAsync();
+    }
+
+    // Best matches first; ties go to the most recent event
+    public List<SearchHit> search(String userId, String query, int limit) {
+        String normalized = normalize(query);
+        Set<String> queryGrams = trigrams(normalized);
+        if (queryGrams.isEmpty()) {
+            return List.of();
+        }
+        UserIndex index = indexes.get(userId, this::load).join();
+        List<SearchHit> hits = new ArrayList<>();
+        synchronized (index) {
+            Map<Long, int[]> shared = new HashMap<>(); // event id -> {title, description} trigrams in common
+            for (String gram : queryGrams) {
+                index.titlePostings.getOrDefault(gram, Set.of()).forEach(id -> shared.computeIfAbsent(id, k -> new int[2])[0]++);
+                index.descriptionPostings.getOrDefault(gram, Set.of()).forEach(id -> shared.computeIfAbsent(id, k -> new int[2])[1]++);
+            }
+            shared.forEach((id, counts) -> {
+                Document document = index.documents.get(id);
+                double score = (double) counts[0] / (queryGrams.size() + document.titleGrams().size() - counts[0])
+                        + DESCRIPTION_WEIGHT * counts[1] / queryGrams.size()
+                        + (document.title().contains(normalized) ? SUBSTRING_BONUS : 0);
+                if (score >= MIN_SCORE) {
+                    hits.add(new SearchHit(document.summary(), Math.round(score * 1000) / 1000.0));
+                }
+            });
+        }
+        hits.sort(Comparator.comparingDouble(SearchHit::getScore).reversed()
+                .thenComparing(hit -> hit.getEvent().getStartDate(), Comparator.nullsLast(Comparator.reverseOrder())));
+        return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+    }
+
+    // Best match scoring at least minScore (search() keeps anything above MIN_SCORE)
+    public Optional<EventSummary> bestMatch(String userId, String query, double minScore) {
+        return search(userId, query, 1).stream()
+                .filter(hit -> hit.getScore() >= minScore)
+                .findFirst()
+                .map(SearchHit::getEvent);
+    }
+
+    // Patch the owner's index after a committed write
+    public void apply(EventChange change) {
+        EventEntity event = change.getEvent();
+        if (event.getUserId() == null) {
+            return;
+        }
+        CompletableFuture<UserIndex> loaded = indexes.getIfPresent(event.getUserId());
+        if (loaded == null) {
+            return;
+        }
+        if (!loaded.isDone() || loaded.isCompletedExceptionally()) {
+            indexes.synchronous().invalidate(event.getUserId()); // snapshot may predate this write
+            return;
+        }
+        UserIndex index = loaded.join();
+        synchronized (index) {
+            index.remove(event.getId());
+            if (!event.isDeleted()) {
+                index.add(event);
+            }
+        }
+    }
+
+    // Writes made by another instance: rebuild on next use
+    public void evictUser(String userId) {
+        if (userId != null) {
+            indexes.synchronous().invalidate(userId);
+        }
+    }
+
+    private UserIndex load(String userId) {
+        UserIndex index = new UserIndex();
+        eventRepository.findByUserIdAndDeletedFalse(userId).forEach(index::add);
+        return index;
+    }
+
+    // Lower case, accents stripped, punctuation as word breaks
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.matcher(folded.toLowerCase()).replaceAll(" ").trim();
+    }
+
+    static Set<String> trigrams(String normalized) {
+        Set<String> grams = new HashSet<>();
+        for (String word : normalized.split(" ")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams.add(padded.substring(i, i + 3));
+            }
+        }
+        return grams;
+    }
+
+    private static final class UserIndex {
+        final Map<Long, Document> documents = new HashMap<>();
+        final Map<String, Set<Long>> titlePostings = new HashMap<>();
+        final Map<String, Set<Long>> descriptionPostings = new HashMap<>();
+
+        void add(EventEntity event) {
+            String title = normalize(event.getTitle());
+            Document document = new Document(EventSummary.of(event), title,
+                    trigrams(title), trigrams(normalize(event.getDescription())));
+            documents.put(event.getId(), document);
+            document.titleGrams().forEach(gram -> titlePostings.computeIfAbsent(gram, g -> new HashSet<>()).add(event.getId()));
+            document.descriptionGrams().forEach(gram -> descriptionPostings.computeIfAbsent(gram, g -> new HashSet<>()).add(event.getId()));
+        }
+
+        void remove(Long id) {
+            Document document = documents.remove(id);
+            if (document != null) {
+                unpost(titlePostings, document.titleGrams(), id);
+                unpost(descriptionPostings, document.descriptionGrams(), id);
+            }
+        }
+
+        private static void unpost(Map<String, Set<Long>> postings, Set<String> grams, Long id) {
+            for (String gram : grams) {
+                Set<Long> ids = postings.get(gram);
+                if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    private record Document(EventSummary summary, String title, Set<String> titleGrams, Set<String> descriptionGrams) {
+    }
+}
@@ -0,0 +1,104 @@
+package com.agenda.calendar;
+
+import com.agenda.contracts.Topics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EventServiceTest {
+
+    private static final int PARTITIONS = 12;
+    private static final LocalDate DAY = LocalDate.of(2025, 6, 2);
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @InjectMocks
+    private EventService eventService;
+
+    @Test
+    void upcomingOfSomePartitionsOnlyReadsTheirUsers() {
+        String alice = "alice";
+        String bob = userOutsideOf(Topics.partitionOf(alice, PARTITIONS));
+        when(eventRepository.findUpcomingOwners(any(), any())).thenReturn(List.of(alice, bob));
+        when(eventRepository.findSeriesOwnersInRange(any(), any())).thenReturn(List.of(alice));
+        EventEntity late = event(alice, LocalTime.of(18, 0));
+        EventEntity early = event(alice, LocalTime.of(8, 0));
+        when(eventRepository.findUpcomingEventsOf(anyCollection(), any(), any())).thenReturn(List.of(early, late));
+        EventEntity series = event(alice, LocalTime.of(12, 0));
+        series.setRecurrence(daily());
+        series.computeDerivedColumns();
+        when(eventRepository.findSeriesInRangeOf(anyCollection(), any(), any())).thenReturn(List.of(series));
+
+        List<EventEntity> events = eventService.findUpcoming(DAY, DAY, Set.of(Topics.partitionOf(alice, PARTITIONS)), PARTITIONS);
+
+        assertThat(events).extracting(EventEntity::getStartTime)
+                .containsExactly(LocalTime.of(8, 0), LocalTime.of(12, 0), LocalTime.of(18, 0));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<String>> users = ArgumentCaptor.forClass(Collection.class);
+        verify(eventRepository).findUpcomingEventsOf(users.capture(), any(), any());
+        assertThat(users.getValue()).containsExactly(alice);
+    }
+
+    @Test
+    void usersAreReadInBoundedChunks() {
+        List<String> owners = IntStream.range(0, 2_500).mapToObj(i -> "user-" + i).toList();
+        Set<Integer> all = new HashSet<>(IntStream.range(0, PARTITIONS).boxed().toList());
+        when(eventRepository.findUpcomingOwners(any(), any())).thenReturn(owners);
+        when(eventRepository.findSeriesOwnersInRange(any(), any())).thenReturn(List.of());
+        List<Integer> sizes = new ArrayList<>();
+        when(eventRepository.findUpcomingEventsOf(anyCollection(), any(), any())).thenAnswer(invocation -> {
+            sizes.add(invocation.<Collection<String>>getArgument(0).size());
+            return List.of();
+        });
+
+        assertThat(eventService.findUpcoming(DAY, DAY.plusDays(6), all, PARTITIONS)).isEmpty();
+
+        assertThat(sizes).containsExactly(1_000, 1_000, 500);
+        verify(eventRepository, times(3)).findSeriesInRangeOf(anyCollection(), any(), any());
+    }
+
+    private static String userOutsideOf(int partition) {
+        for (int i = 0; ; i++) {
+            if (Topics.partitionOf("user-" + i, PARTITIONS) != partition) {
+                return "user-" + i;
+            }
+        }
+    }
+
+    private static EventEntity event(String userId, LocalTime time) {
+        EventEntity event = new EventEntity();
+        event.setId((long) time.getHour());
+        event.setUserId(userId);
+        event.setStartDate(DAY);
+        event.setStartTime(time);
+        event.computeDerivedColumns();
+        return event;
+    }
+
+    private static RecurrenceRule daily() {
+        RecurrenceRule rule = new RecurrenceRule();
+        rule.setFrequency("DAILY");
+        return rule;
+    }
+}
@@ -0,0 +1,147 @@
+package com.agenda.calendar;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FreeBusyIndexTest {
+
+    private static final String USER = "alice";
+
+    @Mock
+    private EventRepository eventRepository;
+
+    private FreeBusyIndex index;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        index = new FreeBusyIndex(30, 100, false);
+        ReflectionTestUtils.setField(index, "eventRepository", eventRepository);
+        today = LocalDate.now();
+    }
+
+    @Test
+    void conflictsAreTheEventsOverlappingTheRequestedTime() {
+        when(eventRepository.findByUserIdInRange(eq(USER), any(), any()))
+                .thenReturn(List.of(event(1L, today.plusDays(1), "10:00", 60)));
+
+        assertThat(index.conflicts(USER, today.plusDays(1), time("10:30"), 30, null)).containsExactly(1L);
+        assertThat(index.conflicts(USER, today.plusDays(1), time("09:00"), 60, null)).isEmpty();
+        assertThat(index.conflicts(USER, today.plusDays(1), time("11:00"), 60, null)).isEmpty();
+        assertThat(index.conflicts(USER, today.plusDays(1), time("10:30"), 30, 1L)).isEmpty();
+    }
+
+    @Test
+    void freeSlotsSkipBusyTimeAcrossTheWordBoundary() {
+        // Slot 64 (16:00) is the first of the second bitmap word
+        when(eventRepository.findByUserIdInRange(eq(USER), any(), any()))
+                .thenReturn(List.of(event(1L, today.plusDays(1), "15:30", 60)));
+
+        List<FreeSlot> slots = index.freeSlots(USER, today.plusDays(1).atTime(15, 0), 60, 5, time("15:00"), time("18:00"));
+
+        assertThat(slots).containsExactly(new FreeSlot(today.plusDays(1), time("16:30"), time("17:30")));
+    }
+
+    @Test
+    void freeSlotsDoNotOverlapEachOther() {
+        List<FreeSlot> slots = index.freeSlots(USER, today.plusDays(1).atTime(8, 0), 90, 3, time("08:00"), time("20:00"));
+
+        assertThat(slots).containsExactly(
+                new FreeSlot(today.plusDays(1), time("08:00"), time("09:30")),
+                new FreeSlot(today.plusDays(1), time("09:30"), time("11:00")),
+                new FreeSlot(today.plusDays(1), time("11:00"), time("12:30")));
+    }
+
+    @Test
+    void overnightSeriesOccupiesBothEndsOfEachDay() {
+        // Daily 23:00 for two hours: every day holds its own start and the previous day's spill
+        EventEntity series = event(5L, today.minusDays(10), "23:00", 120);
+        series.setRecurrence(daily());
+        series.computeDerivedColumns();
+        when(eventRepository.findSeriesInRange(eq(USER), any(), any())).thenReturn(List.of(series));
+
+        assertThat(index.conflicts(USER, today.plusDays(2), time("00:30"), 15, null)).containsExactly(5L);
+        assertThat(index.conflicts(USER, today.plusDays(2), time("23:15"), 15, null)).containsExactly(5L);
+        assertThat(index.conflicts(USER, today.plusDays(2), time("12:00"), 60, null)).isEmpty();
+        // The first day of the window gets the spill of the occurrence the day before it
+        assertThat(index.conflicts(USER, today, time("00:30"), 15, null)).containsExactly(5L);
+        verify(eventRepository).findSeriesInRange(USER, today.minusDays(1).atStartOfDay(), today.plusDays(31).atStartOfDay());
+    }
+
+    @Test
+    void removingAnEventFreesAllOfItsIntervals() {
+        EventEntity series = event(5L, today.minusDays(10), "23:00", 120);
+        series.setRecurrence(daily());
+        series.computeDerivedColumns();
+        EventEntity other = event(6L, today.plusDays(2), "00:00", 30);
+        when(eventRepository.findByUserIdInRange(eq(USER), any(), any())).thenReturn(List.of(other));
+        when(eventRepository.findSeriesInRange(eq(USER), any(), any())).thenReturn(List.of(series));
+        assertThat(index.conflicts(USER, today.plusDays(2), time("00:00"), 60, null)).containsExactlyInAnyOrder(5L, 6L);
+
+        series.setDeleted(true);
+        index.apply(new EventChange(series, "DELETED", null));
+
+        assertThat(index.conflicts(USER, today.plusDays(2), time("00:00"), 60, null)).containsExactly(6L);
+        assertThat(index.conflicts(USER, today.plusDays(2), time("23:00"), 60, null)).isEmpty();
+        assertThat(index.freeSlots(USER, today.plusDays(2).atTime(0, 0), 60, 1, time("00:00"), time("02:00")))
+                .containsExactly(new FreeSlot(today.plusDays(2), time("00:30"), time("01:30")));
+    }
+
+    @Test
+    void updatedEventMovesInTheLoadedSchedule() {
+        EventEntity event = event(1L, today.plusDays(1), "10:00", 60);
+        when(eventRepository.findByUserIdInRange(eq(USER), any(), any())).thenReturn(List.of(event));
+        assertThat(index.conflicts(USER, today.plusDays(1), time("10:00"), 15, null)).containsExactly(1L);
+
+        EventEntity moved = event(1L, today.plusDays(1), "14:00", 60);
+        index.apply(new EventChange(moved, "UPDATED", today.plusDays(1)));
+
+        assertThat(index.conflicts(USER, today.plusDays(1), time("10:00"), 15, null)).isEmpty();
+        assertThat(index.conflicts(USER, today.plusDays(1), time("14:45"), 15, null)).containsExactly(1L);
+    }
+
+    @Test
+    void bitsOfAWord() {
+        assertThat(FreeBusyIndex.bits(0, 64, 0)).isEqualTo(-1L);
+        assertThat(FreeBusyIndex.bits(60, 70, 0)).isEqualTo(0xFL << 60);
+        assertThat(FreeBusyIndex.bits(60, 70, 64)).isEqualTo(0b111111L);
+        assertThat(FreeBusyIndex.bits(10, 10, 0)).isZero();
+        assertThat(FreeBusyIndex.bits(70, 96, 0)).isZero();
+    }
+
+    private static EventEntity event(Long id, LocalDate date, String time, int minutes) {
+        EventEntity event = new EventEntity();
+        event.setId(id);
+        event.setUserId(USER);
+        event.setStartDate(date);
+        event.setStartTime(time(time));
+        event.setDurationMinutes(minutes);
+        event.computeDerivedColumns();
+        return event;
+    }
+
+    private static RecurrenceRule daily() {
+        RecurrenceRule rule = new RecurrenceRule();
+        rule.setFrequency("DAILY");
+        return rule;
+    }
+
+    private static LocalTime time(String value) {
+        return LocalTime.parse(value);
+    }
+}
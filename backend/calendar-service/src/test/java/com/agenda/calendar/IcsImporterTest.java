@@ -0,0 +1,178 @@
+package com.agenda.calendar;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class IcsImporterTest {
+
+    private static final String USER = "alice";
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private EventService eventService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private IcsImporter importer;
+
+    @BeforeEach
+    void runTransactionsInline() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    void clearsThePersistenceContextAfterEveryChunk() throws Exception {
+        ReflectionTestUtils.setField(importer, "batchSize", 2);
+        StringBuilder ics = new StringBuilder("BEGIN:VCALENDAR\r\n");
+        for (int i = 1; i <= 5; i++) {
+            ics.append(event("event-" + i, "2025010" + i + "T090000", null, null));
+        }
+        ics.append("END:VCALENDAR\r\n");
+
+        ImportResult result = importer.importCalendar(stream(ics.toString()), USER);
+
+        assertThat(result.getImported()).isEqualTo(5);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<EventEntity>> chunks = ArgumentCaptor.forClass(List.class);
+        InOrder order = inOrder(eventService, entityManager);
+        for (int chunk = 0; chunk < 3; chunk++) {
+            order.verify(eventService).importEvents(chunks.capture(), eq("IMPORTED"));
+            order.verify(entityManager).clear();
+        }
+        assertThat(chunks.getAllValues()).allSatisfy(chunk -> assertThat(chunk).hasSizeLessThanOrEqualTo(2));
+    }
+
+    @Test
+    void movedOccurrenceBecomesAnExceptionOfItsSeries() throws Exception {
+        ReflectionTestUtils.setField(importer, "batchSize", 10);
+        // The moved occurrence comes before its series, as some exporters write them
+        String ics = "BEGIN:VCALENDAR\r\n"
+                + event("series-1", "20250114T100000", null, "RECURRENCE-ID:20250113T090000")
+                + event("series-1", "20250106T090000", "RRULE:FREQ=WEEKLY", null)
+                + "END:VCALENDAR\r\n";
+
+        importer.importCalendar(stream(ics), USER);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<EventEntity>> chunk = ArgumentCaptor.forClass(List.class);
+        verify(eventService).importEvents(chunk.capture(), eq("IMPORTED"));
+        EventEntity series = chunk.getValue().stream().filter(e -> e.getRecurrence() != null).findFirst().orElseThrow();
+        EventEntity moved = chunk.getValue().stream().filter(e -> e.getRecurrence() == null).findFirst().orElseThrow();
+        assertThat(series.getRecurrence().getExceptions()).containsExactly(LocalDate.of(2025, 1, 13));
+        assertThat(moved.getStartDate()).isEqualTo(LocalDate.of(2025, 1, 14));
+    }
+
+    @Test
+    void cancelledOccurrenceOfAStoredSeriesIsExcluded() throws Exception {
+        ReflectionTestUtils.setField(importer, "batchSize", 10);
+        EventEntity stored = new EventEntity();
+        stored.setRecurrence(new RecurrenceRule());
+        when(eventRepository.findSeriesBySourceKeys(anyCollection())).thenAnswer(invocation -> {
+            stored.setSourceKey(invocation.<Collection<String>>getArgument(0).iterator().next());
+            return List.of(stored);
+        });
+        String ics = "BEGIN:VCALENDAR\r\n"
+                + event("series-1", "20250113T090000", "STATUS:CANCELLED", "RECURRENCE-ID:20250113T090000")
+                + "END:VCALENDAR\r\n";
+
+        ImportResult result = importer.importCalendar(stream(ics), USER);
+
+        assertThat(result.getSkipped()).isEqualTo(1);
+        verify(eventService).addExceptions(Map.of(stored, Set.of(LocalDate.of(2025, 1, 13))));
+        verify(entityManager, times(1)).clear();
+    }
+
+    @Test
+    void looksUpEachMovedSeriesOnce() throws Exception {
+        ReflectionTestUtils.setField(importer, "batchSize", 1);
+        String ics = "BEGIN:VCALENDAR\r\n"
+                + event("series-1", "20250114T100000", null, "RECURRENCE-ID:20250113T090000")
+                + event("event-2", "20250115T090000", null, null)
+                + event("series-1", "20250121T100000", null, "RECURRENCE-ID:20250120T090000")
+                + "END:VCALENDAR\r\n";
+
+        importer.importCalendar(stream(ics), USER);
+
+        // Not stored: the later chunks do not query it again
+        verify(eventRepository, times(1)).findSeriesBySourceKeys(anyCollection());
+        verify(entityManager, times(3)).clear();
+    }
+
+    @Test
+    void keepsZonedWallTimesAndConvertsUtcToTheCalendarZone() throws Exception {
+        ReflectionTestUtils.setField(importer, "batchSize", 10);
+        ReflectionTestUtils.setField(importer, "zone", ZoneId.of("Europe/Paris"));
+        String ics = "BEGIN:VCALENDAR\r\n"
+                + "BEGIN:VEVENT\r\nUID:zoned\r\nDTSTART;TZID=America/New_York:20250106T090000\r\n"
+                + "DTEND;TZID=America/New_York:20250106T100000\r\nEND:VEVENT\r\n"
+                + "BEGIN:VEVENT\r\nUID:utc\r\nDTSTART:20250106T230000Z\r\nDURATION:PT30M\r\nEND:VEVENT\r\n"
+                + "END:VCALENDAR\r\n";
+
+        importer.importCalendar(stream(ics), USER);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<EventEntity>> chunk = ArgumentCaptor.forClass(List.class);
+        verify(eventService).importEvents(chunk.capture(), eq("IMPORTED"));
+        assertThat(chunk.getValue()).extracting(EventEntity::getStartDate, EventEntity::getStartTime, EventEntity::getDurationMinutes)
+                .containsExactly(
+                        tuple(LocalDate.of(2025, 1, 6), LocalTime.of(9, 0), 60),
+                        tuple(LocalDate.of(2025, 1, 7), LocalTime.of(0, 0), 30));
+    }
+
+    private static String event(String uid, String start, String extra, String recurrenceId) {
+        return "BEGIN:VEVENT\r\n"
+                + "UID:" + uid + "\r\n"
+                + "SUMMARY:" + uid + "\r\n"
+                + "DTSTART:" + start + "\r\n"
+                + (extra != null ? extra + "\r\n" : "")
+                + (recurrenceId != null ? recurrenceId + "\r\n" : "")
+                + "END:VEVENT\r\n";
+    }
+
+    private static ByteArrayInputStream stream(String ics) {
+        return new ByteArrayInputStream(ics.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,51 @@
+package com.agenda.calendar;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IcsWriterTest {
+
+    @Test
+    void untilOfATimedSeriesIsADateTime() throws Exception {
+        String ics = write(series(LocalTime.of(9, 0)));
+
+        assertThat(ics).contains("DTSTART:20250106T090000\r\n")
+                .contains("RRULE:FREQ=WEEKLY;UNTIL=20250331T235959\r\n");
+    }
+
+    @Test
+    void untilOfAnAllDaySeriesIsADate() throws Exception {
+        String ics = write(series(null));
+
+        assertThat(ics).contains("DTSTART;VALUE=DATE:20250106\r\n")
+                .contains("RRULE:FREQ=WEEKLY;UNTIL=20250331\r\n");
+    }
+
+    private static EventEntity series(LocalTime time) {
+        RecurrenceRule rule = new RecurrenceRule();
+        rule.setFrequency("WEEKLY");
+        rule.setUntil(LocalDate.of(2025, 3, 31));
+        EventEntity event = new EventEntity();
+        event.setId(1L);
+        event.setTitle("Standup");
+        event.setStartDate(LocalDate.of(2025, 1, 6));
+        event.setStartTime(time);
+        event.setRecurrence(rule);
+        event.computeDerivedColumns();
+        return event;
+    }
+
+    private static String write(EventEntity event) throws Exception {
+        StringWriter out = new StringWriter();
+        IcsWriter writer = new IcsWriter(out);
+        writer.begin();
+        writer.write(event);
+        writer.end();
+        return out.toString();
+    }
+}
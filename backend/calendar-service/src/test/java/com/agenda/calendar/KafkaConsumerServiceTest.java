@@ -0,0 +1,136 @@
+package com.agenda.calendar;
+
+import com.agenda.contracts.AiEventCommand;
+import com.agenda.contracts.Topics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class KafkaConsumerServiceTest {
+
+    private static final String USER = "alice";
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private EventService eventService;
+
+    @Mock
+    private SearchIndex searchIndex;
+
+    @Mock
+    private ProcessedCommandRepository processedCommandRepository;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private KafkaConsumerService consumer;
+
+    @BeforeEach
+    void registerMeters() {
+        consumer.registerMeters();
+    }
+
+    @Test
+    void deleteAfterCreateInTheSameBatchTargetsTheNewEvent() {
+        EventEntity stored = new EventEntity();
+        stored.setId(42L);
+        when(searchIndex.bestMatch(eq(USER), eq("Dentist"), anyDouble())).thenReturn(Optional.empty());
+        when(eventRepository.findFirstByUserIdAndTitleIgnoreCaseAndDeletedFalseOrderByIdDesc(USER, "Dentist"))
+                .thenReturn(Optional.of(stored));
+        when(processedCommandRepository.claim(eq("k2"), any())).thenReturn(1);
+        when(eventService.delete(42L, USER)).thenReturn(true);
+
+        consumer.consume(List.of(
+                record(0, command("CREATE", "Dentist", null, "k1")),
+                record(1, command("DELETE", null, "Dentist", "k2"))));
+
+        // The CREATE is stored before the DELETE looks for its target
+        InOrder order = inOrder(eventService, eventRepository);
+        order.verify(eventService).importEvents(anyList(), eq("AI_EXTRACTED"));
+        order.verify(eventRepository).findFirstByUserIdAndTitleIgnoreCaseAndDeletedFalseOrderByIdDesc(USER, "Dentist");
+        order.verify(eventService).delete(42L, USER);
+        assertThat(count("created")).isEqualTo(1);
+        assertThat(count("applied")).isEqualTo(1);
+    }
+
+    @Test
+    void unresolvedCommandIsRecordedAsNotFound() {
+        when(searchIndex.bestMatch(eq(USER), eq("Gym"), anyDouble())).thenReturn(Optional.empty());
+        when(eventRepository.findFirstByUserIdAndTitleIgnoreCaseAndDeletedFalseOrderByIdDesc(USER, "Gym"))
+                .thenReturn(Optional.empty());
+        when(processedCommandRepository.claim(eq("k1"), any())).thenReturn(1);
+
+        consumer.consume(List.of(record(0, command("DELETE", null, "Gym", "k1"))));
+
+        verify(processedCommandRepository).claim(eq("k1"), any());
+        verify(eventService, never()).delete(anyLong(), anyString());
+        verify(eventService, never()).importEvents(anyList(), anyString());
+        assertThat(count("not_found")).isEqualTo(1);
+    }
+
+    @Test
+    void replayedCommandIsNotAppliedTwice() {
+        EventSummary target = new EventSummary(7L, "Gym", null, null, null, null, null, false);
+        when(searchIndex.bestMatch(eq(USER), eq("Gym"), anyDouble())).thenReturn(Optional.of(target));
+        when(processedCommandRepository.claim(eq("k1"), any())).thenReturn(0);
+
+        consumer.consume(List.of(record(0, command("DELETE", null, "Gym", "k1"))));
+
+        verify(eventService, never()).delete(anyLong(), anyString());
+        assertThat(count("duplicate")).isEqualTo(1);
+    }
+
+    @Test
+    void storedCreatesAreCountedAsDuplicates() {
+        when(eventRepository.findExistingSourceKeys(anyCollection())).thenReturn(List.of("k1"));
+        when(eventService.importEvents(anyList(), eq("AI_EXTRACTED"))).thenReturn(List.of());
+
+        consumer.consume(List.of(
+                record(0, command("CREATE", "Dentist", null, "k1")),
+                record(1, command("CREATE", "Dentist", null, "k1")),
+                record(2, command("CREATE", "Lunch", null, "k2"))));
+
+        assertThat(count("created")).isEqualTo(1);
+        assertThat(count("duplicate")).isEqualTo(2);
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.counter("calendar.ai.commands", "outcome", outcome).count();
+    }
+
+    private static AiEventCommand command(String action, String title, String searchTitle, String key) {
+        return new AiEventCommand(action, USER, title, searchTitle, "2025-06-02", "09:00", null, null, key);
+    }
+
+    private static ConsumerRecord<String, AiEventCommand> record(long offset, AiEventCommand command) {
+        return new ConsumerRecord<>(Topics.AI_EVENTS, 0, offset, USER, command);
+    }
+}
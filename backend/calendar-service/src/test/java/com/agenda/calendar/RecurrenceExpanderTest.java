@@ -0,0 +1,133 @@
+package com.agenda.calendar;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RecurrenceExpanderTest {
+
+    @Test
+    void monthlySeriesOnThe31stIsClampedToShorterMonths() {
+        RecurrenceRule rule = rule("MONTHLY", null, null, null);
+
+        List<LocalDate> dates = RecurrenceExpander.occurrences(date(2025, 1, 31), rule, date(2025, 1, 1), date(2025, 5, 31));
+
+        assertThat(dates).containsExactly(date(2025, 1, 31), date(2025, 2, 28), date(2025, 3, 31),
+                date(2025, 4, 30), date(2025, 5, 31));
+    }
+
+    @Test
+    void clampingDoesNotDrift() {
+        // Each occurrence is computed from the series start, not from the previous (clamped) one
+        RecurrenceRule rule = rule("MONTHLY", null, null, null);
+
+        List<LocalDate> dates = RecurrenceExpander.occurrences(date(2024, 1, 30), rule, date(2024, 2, 1), date(2024, 3, 31));
+
+        assertThat(dates).containsExactly(date(2024, 2, 29), date(2024, 3, 30));
+    }
+
+    @Test
+    void windowFarFromTheStartBeginsAtTheRightOccurrence() {
+        RecurrenceRule rule = rule("WEEKLY", 2, null, null);
+
+        List<LocalDate> dates = RecurrenceExpander.occurrences(date(2000, 1, 3), rule, date(2025, 6, 1), date(2025, 6, 30));
+
+        // 2000-01-03 plus a multiple of 14 days
+        assertThat(dates).containsExactly(date(2025, 6, 2), date(2025, 6, 16), date(2025, 6, 30));
+    }
+
+    @Test
+    void windowStartingOnAnOccurrenceIncludesIt() {
+        RecurrenceRule rule = rule("DAILY", 3, null, null);
+
+        assertThat(RecurrenceExpander.occurrences(date(2025, 1, 1), rule, date(2025, 1, 7), date(2025, 1, 10)))
+                .containsExactly(date(2025, 1, 7), date(2025, 1, 10));
+    }
+
+    @Test
+    void countIncludesExceptionsAndUntilIsInclusive() {
+        RecurrenceRule counted = rule("DAILY", null, 4, null);
+        counted.setExceptions(new TreeSet<>(Set.of(date(2025, 1, 2))));
+        RecurrenceRule bounded = rule("DAILY", null, null, date(2025, 1, 3));
+
+        assertThat(RecurrenceExpander.occurrences(date(2025, 1, 1), counted, date(2025, 1, 1), date(2025, 12, 31)))
+                .containsExactly(date(2025, 1, 1), date(2025, 1, 3), date(2025, 1, 4));
+        assertThat(RecurrenceExpander.occurrences(date(2025, 1, 1), bounded, date(2025, 1, 1), date(2025, 12, 31)))
+                .containsExactly(date(2025, 1, 1), date(2025, 1, 2), date(2025, 1, 3));
+    }
+
+    @Test
+    void windowBeforeTheStartIsEmpty() {
+        RecurrenceRule rule = rule("DAILY", null, null, null);
+
+        assertThat(RecurrenceExpander.occurrences(date(2025, 3, 1), rule, date(2025, 1, 1), date(2025, 2, 28))).isEmpty();
+    }
+
+    @Test
+    void lastOccurrence() {
+        assertThat(RecurrenceExpander.lastOccurrence(date(2025, 1, 1), rule("DAILY", null, null, null))).isNull();
+        assertThat(RecurrenceExpander.lastOccurrence(date(2025, 1, 1), rule("WEEKLY", null, 3, null))).isEqualTo(date(2025, 1, 15));
+        assertThat(RecurrenceExpander.lastOccurrence(date(2025, 1, 1), rule("DAILY", 2, null, date(2025, 1, 10))))
+                .isEqualTo(date(2025, 1, 9));
+        // The earlier of COUNT and UNTIL wins
+        assertThat(RecurrenceExpander.lastOccurrence(date(2025, 1, 1), rule("DAILY", null, 5, date(2025, 1, 3))))
+                .isEqualTo(date(2025, 1, 3));
+        assertThat(RecurrenceExpander.lastOccurrence(date(2025, 1, 10), rule("DAILY", null, null, date(2025, 1, 1))))
+                .isEqualTo(date(2025, 1, 10));
+    }
+
+    @Test
+    void lastOccurrenceOfAClampedMonthlySeries() {
+        // Feb 28 is an occurrence of a Jan 31 series, although it is "0 months" after it
+        assertThat(RecurrenceExpander.lastOccurrence(date(2025, 1, 31), rule("MONTHLY", null, null, date(2025, 2, 28))))
+                .isEqualTo(date(2025, 2, 28));
+        assertThat(RecurrenceExpander.lastOccurrence(date(2025, 1, 31), rule("MONTHLY", null, null, date(2025, 4, 29))))
+                .isEqualTo(date(2025, 3, 31));
+    }
+
+    @Test
+    void occurrenceCopiesTheSeriesOntoTheDate() {
+        EventEntity series = new EventEntity();
+        series.setId(7L);
+        series.setTitle("Standup");
+        series.setStartDate(date(2025, 1, 6));
+        series.setStartTime(LocalTime.of(9, 30));
+        series.setRecurrence(rule("DAILY", null, null, null));
+
+        EventEntity occurrence = RecurrenceExpander.occurrence(series, date(2025, 1, 8));
+
+        assertThat(occurrence.getId()).isEqualTo(7L);
+        assertThat(occurrence.getStartAt()).isEqualTo(date(2025, 1, 8).atTime(9, 30));
+        assertThat(occurrence.isRecurring()).isTrue();
+    }
+
+    @Test
+    void validation() {
+        assertThat(RecurrenceExpander.isValid(null)).isTrue();
+        assertThat(RecurrenceExpander.isValid(rule("YEARLY", null, null, null))).isFalse();
+        assertThat(RecurrenceExpander.isValid(rule("DAILY", 0, null, null))).isFalse();
+        assertThat(RecurrenceExpander.isValid(rule("DAILY", null, 0, null))).isFalse();
+        assertThatThrownBy(() -> RecurrenceExpander.validate(rule("HOURLY", null, null, null)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static RecurrenceRule rule(String frequency, Integer interval, Integer count, LocalDate until) {
+        RecurrenceRule rule = new RecurrenceRule();
+        rule.setFrequency(frequency);
+        rule.setInterval(interval);
+        rule.setCount(count);
+        rule.setUntil(until);
+        return rule;
+    }
+
+    private static LocalDate date(int year, int month, int day) {
+        return LocalDate.of(year, month, day);
+    }
+}
@@ -0,0 +1,106 @@
+package com.agenda.calendar;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SearchIndexTest {
+
+    private static final String USER = "alice";
+
+    @Mock
+    private EventRepository eventRepository;
+
+    private SearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SearchIndex(100, false);
+        ReflectionTestUtils.setField(index, "eventRepository", eventRepository);
+    }
+
+    @Test
+    void normalizeFoldsCaseAccentsAndPunctuation() {
+        assertThat(SearchIndex.normalize("Réunion d'ÉQUIPE!")).isEqualTo("reunion d equipe");
+        assertThat(SearchIndex.normalize(null)).isEmpty();
+    }
+
+    @Test
+    void trigramsArePaddedPerWord() {
+        assertThat(SearchIndex.trigrams("ab")).containsExactlyInAnyOrder("  a", " ab", "ab ");
+        assertThat(SearchIndex.trigrams("a b")).containsExactlyInAnyOrder("  a", " a ", "  b", " b ");
+        assertThat(SearchIndex.trigrams("")).isEmpty();
+    }
+
+    @Test
+    void closerTitlesRankFirst() {
+        when(eventRepository.findByUserIdAndDeletedFalse(USER)).thenReturn(List.of(
+                event(1L, "Dentist appointment", null),
+                event(2L, "Dentist", null),
+                event(3L, "Gym", "bring the dentist forms")));
+
+        List<SearchHit> hits = index.search(USER, "dentist", 10);
+
+        assertThat(hits).extracting(hit -> hit.getEvent().getId()).containsExactly(2L, 1L, 3L);
+        assertThat(hits.get(0).getScore()).isEqualTo(1.5); // identical title plus the substring bonus
+        assertThat(index.search(USER, "tennis", 10)).isEmpty();
+        assertThat(index.search(USER, "!!", 10)).isEmpty();
+    }
+
+    @Test
+    void bestMatchRejectsWeakMatches() {
+        when(eventRepository.findByUserIdAndDeletedFalse(USER)).thenReturn(List.of(event(1L, "Dentist", null)));
+
+        // "dentst" shares 5 of 10 trigrams with "dentist"
+        assertThat(index.search(USER, "dentst", 10)).singleElement()
+                .satisfies(hit -> assertThat(hit.getScore()).isEqualTo(0.5));
+        assertThat(index.bestMatch(USER, "dentst", 0.8)).isEmpty();
+        assertThat(index.bestMatch(USER, "DENTIST", 0.8)).hasValueSatisfying(e -> assertThat(e.getId()).isEqualTo(1L));
+    }
+
+    @Test
+    void committedWritesPatchTheLoadedIndex() {
+        EventEntity dentist = event(1L, "Dentist", null);
+        when(eventRepository.findByUserIdAndDeletedFalse(USER)).thenReturn(List.of(dentist));
+        assertThat(index.search(USER, "dentist", 10)).hasSize(1);
+
+        index.apply(new EventChange(event(2L, "Dentist follow-up", null), "CREATED", null));
+        index.apply(new EventChange(event(1L, "Orthodontist", null), "UPDATED", null));
+        assertThat(index.search(USER, "dentist", 10)).extracting(hit -> hit.getEvent().getId()).containsExactly(2L, 1L);
+
+        EventEntity deleted = event(2L, "Dentist follow-up", null);
+        deleted.setDeleted(true);
+        index.apply(new EventChange(deleted, "DELETED", null));
+        assertThat(index.search(USER, "follow", 10)).isEmpty();
+        verify(eventRepository).findByUserIdAndDeletedFalse(USER); // loaded once
+    }
+
+    @Test
+    void writesOfUsersNotLoadedAreIgnored() {
+        index.apply(new EventChange(event(1L, "Dentist", null), "CREATED", null));
+        when(eventRepository.findByUserIdAndDeletedFalse(USER)).thenReturn(List.of());
+
+        assertThat(index.search(USER, "dentist", 10)).isEmpty();
+    }
+
+    private static EventEntity event(Long id, String title, String description) {
+        EventEntity event = new EventEntity();
+        event.setId(id);
+        event.setUserId(USER);
+        event.setTitle(title);
+        event.setDescription(description);
+        event.setStartDate(LocalDate.of(2025, 6, id.intValue()));
+        return event;
+    }
+}
@@ -0,0 +1,17 @@
+package com.agenda.contracts;
+
+// Published by ai-service on "ai-events-topic" for every extracted event; calendar-service
+// applies it. Dates and times are kept as the model wrote them (YYYY-MM-DD, HH:mm), the
+// consumer decides how to handle values that do not parse.
+public record AiEventCommand(
+        String action, // CREATE (default), UPDATE, DELETE
+        String userId,
+        String title,
+        String searchTitle, // UPDATE/DELETE target
+        String startDate,
+        String startTime,
+        String category, // WORK, HEALTH, SPORT, SOCIAL
+        String priority, // HIGH, MEDIUM, LOW
+        String idempotencyKey // consumers drop redeliveries of the same key
+) {
+}
@@ -0,0 +1,93 @@
+package com.agenda.contracts;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+// Reads what BinaryWriter wrote; every length is checked against the remaining input, and
+// malformed input of any kind fails with IllegalArgumentException
+final class BinaryReader {
+
+    private final byte[] data;
+    private int position;
+
+    BinaryReader(byte[] data, int position) {
+        this.data = data;
+        this.position = position;
+    }
+
+    int readByte() {
+        require(1);
+        return data[position++] & 0xFF;
+    }
+
+    long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint at offset " + position);
+    }
+
+    long readSignedVarLong() {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    String readString() {
+        return readUtf8(length(readVarLong()));
+    }
+
+    // Dictionary hits return the shared constant, so decoding them allocates nothing
+    String readToken(List<String> dictionary) {
+        long code = readVarLong();
+        if (code >= 0 && code < dictionary.size()) {
+            return dictionary.get((int) code);
+        }
+        return readUtf8(length(code - dictionary.size()));
+    }
+
+    LocalDate readDate() {
+        long epochDay = readSignedVarLong();
+        try {
+            return LocalDate.ofEpochDay(epochDay);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Invalid date " + epochDay + " at offset " + position, e);
+        }
+    }
+
+    LocalTime readTime() {
+        long secondOfDay = readVarLong();
+        try {
+            return LocalTime.ofSecondOfDay(secondOfDay);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Invalid time " + secondOfDay + " at offset " + position, e);
+        }
+    }
+
+    private String readUtf8(int length) {
+        require(length);
+        String value = new String(data, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    private int length(long value) {
+        if (value < 0 || value > data.length - position) {
+            throw new IllegalArgumentException("Length " + value + " exceeds the remaining " + (data.length - position) + " bytes");
+        }
+        return (int) value;
+    }
+
+    private void require(int bytes) {
+        if (position + bytes > data.length) {
+            throw new IllegalArgumentException("Message truncated at offset " + position);
+        }
+    }
+}
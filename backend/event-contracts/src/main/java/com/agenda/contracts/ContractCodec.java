@@ -0,0 +1,215 @@
+package com.agenda.contracts;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.util.List;
+
+// Binary encoding of the contract records. A message is
+//   magic (0xAC) | type id | schema version | field mask (varint) | present fields in order
+// The mask has one bit per field (plus the boolean flags), so null fields cost nothing.
+// Enum-like strings (type, category, ...) are dictionary tokens: one byte for known values.
+//
+// Evolving a type: bump its version and only ever append fields (new mask bits, new bytes at
+// the end). Newer readers leave the fields missing from an older message null. Readers reject
+// versions newer than theirs, so consumers are upgraded before producers. Dictionaries are
+// frozen per type: a new value is simply sent as a literal, which every reader understands.
+public final class ContractCodec {
+
+    public static final byte MAGIC = (byte) 0xAC; // never the first byte of a JSON document
+
+    private static final int NOTIFICATION = 1;
+    private static final int AI_COMMAND = 2;
+    private static final int NOTIFICATION_VERSION = 1;
+    private static final int AI_COMMAND_VERSION = 1;
+
+    private static final List<String> TYPES = List.of("CREATED", "UPDATED", "DELETED", "AI_EXTRACTED", "IMPORTED", "REMINDER");
+    private static final List<String> CATEGORIES = List.of("WORK", "HEALTH", "SPORT", "SOCIAL");
+    private static final List<String> ACTIONS = List.of("CREATE", "UPDATE", "DELETE");
+    private static final List<String> PRIORITIES = List.of("HIGH", "MEDIUM", "LOW");
+
+    private static final ObjectMapper JSON = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    private ContractCodec() {
+    }
+
+    public static byte[] encode(Object message) {
+        if (message instanceof EventNotification notification) {
+            return encode(notification);
+        }
+        if (message instanceof AiEventCommand command) {
+            return encode(command);
+        }
+        throw new IllegalArgumentException("Not an event contract: " + message.getClass().getName());
+    }
+
+    public static Object decode(byte[] data) {
+        if (data.length < 3 || data[0] != MAGIC) {
+            throw new IllegalArgumentException("Not a binary event contract");
+        }
+        BinaryReader reader = new BinaryReader(data, 3);
+        int version = data[2] & 0xFF;
+        return switch (data[1]) {
+            case NOTIFICATION -> {
+                requireVersion(version, NOTIFICATION_VERSION, "EventNotification");
+                yield readNotification(reader);
+            }
+            case AI_COMMAND -> {
+                requireVersion(version, AI_COMMAND_VERSION, "AiEventCommand");
+                yield readCommand(reader);
+            }
+            default -> throw new IllegalArgumentException("Unknown contract type " + data[1]);
+        };
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return data.length > 0 && data[0] == MAGIC;
+    }
+
+    // JSON form, field for field the same as the maps the services published before
+    public static byte[] toJson(Object message) {
+        try {
+            return JSON.writeValueAsBytes(message);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot write " + message.getClass().getSimpleName() + " as JSON", e);
+        }
+    }
+
+    public static <T> T fromJson(byte[] data, Class<T> type) {
+        try {
+            return JSON.readValue(data, type);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot read " + type.getSimpleName() + " from JSON", e);
+        }
+    }
+
+    private static byte[] encode(EventNotification n) {
+        long mask = bit(n.id(), 0) | bit(n.userId(), 1) | bit(n.title(), 2) | bit(n.startDate(), 3)
+                | bit(n.startTime(), 4) | bit(n.category(), 5) | bit(n.type(), 6)
+                | bit(n.previousStartDate(), 7) | bit(n.origin(), 8) | (n.recurring() ? 1L << 9 : 0);
+        BinaryWriter writer = header(NOTIFICATION, NOTIFICATION_VERSION, mask);
+        if (n.id() != null) {
+            writer.writeSignedVarLong(n.id());
+        }
+        if (n.userId() != null) {
+            writer.writeString(n.userId());
+        }
+        if (n.title() != null) {
+            writer.writeString(n.title());
+        }
+        if (n.startDate() != null) {
+            writer.writeDate(n.startDate());
+        }
+        if (n.startTime() != null) {
+            writer.writeTime(n.startTime());
+        }
+        if (n.category() != null) {
+            writer.writeToken(n.category(), CATEGORIES);
+        }
+        if (n.type() != null) {
+            writer.writeToken(n.type(), TYPES);
+        }
+        if (n.previousStartDate() != null) {
+            writer.writeDate(n.previousStartDate());
+        }
+        if (n.origin() != null) {
+            writer.writeString(n.origin());
+        }
+        return writer.toByteArray();
+    }
+
+    private static EventNotification readNotification(BinaryReader reader) {
+        long mask = reader.readVarLong();
+        return new EventNotification(
+                has(mask, 0) ? reader.readSignedVarLong() : null,
+                has(mask, 1) ? reader.readString() : null,
+                has(mask, 2) ? reader.readString() : null,
+                has(mask, 3) ? reader.readDate() : null,
+                has(mask, 4) ? reader.readTime() : null,
+                has(mask, 5) ? reader.readToken(CATEGORIES) : null,
+                has(mask, 6) ? reader.readToken(TYPES) : null,
+                has(mask, 9),
+                has(mask, 7) ? reader.readDate() : null,
+                has(mask, 8) ? reader.readString() : null);
+    }
+
+    private static byte[] encode(AiEventCommand c) {
+        long mask = bit(c.action(), 0) | bit(c.userId(), 1) | bit(c.title(), 2) | bit(c.searchTitle(), 3)
+                | bit(c.startDate(), 4) | bit(c.startTime(), 5) | bit(c.category(), 6)
+                | bit(c.priority(), 7) | bit(c.idempotencyKey(), 8);
+        BinaryWriter writer = header(AI_COMMAND, AI_COMMAND_VERSION, mask);
+        if (c.action() != null) {
+            writer.writeToken(c.action(), ACTIONS);
+        }
+        if (c.userId() != null) {
+            writer.writeString(c.userId());
+        }
+        if (c.title() != null) {
+            writer.writeString(c.title());
+        }
+        if (c.searchTitle() != null) {
+            writer.writeString(c.searchTitle());
+        }
+        if (c.startDate() != null) {
+            writer.writeString(c.startDate());
+        }
+        if (c.startTime() != null) {
+            writer.writeString(c.startTime());
+        }
+        if (c.category() != null) {
+            writer.writeToken(c.category(), CATEGORIES);
+        }
+        if (c.priority() != null) {
+            writer.writeToken(c.priority(), PRIORITIES);
+        }
+        if (c.idempotencyKey() != null) {
+            writer.writeString(c.idempotencyKey());
+        }
+        return writer.toByteArray();
+    }
+
+    private static AiEventCommand readCommand(BinaryReader reader) {
+        long mask = reader.readVarLong();
+        return new AiEventCommand(
+                has(mask, 0) ? reader.readToken(ACTIONS) : null,
+                has(mask, 1) ? reader.readString() : null,
+                has(mask, 2) ? reader.readString() : null,
+                has(mask, 3) ? reader.readString() : null,
+                has(mask, 4) ? reader.readString() : null,
+                has(mask, 5) ? reader.readString() : null,
+                has(mask, 6) ? reader.readToken(CATEGORIES) : null,
+                has(mask, 7) ? reader.readToken(PRIORITIES) : null,
+                has(mask, 8) ? reader.readString() : null);
+    }
+
+    private static void requireVersion(int version, int latest, String type) {
+        if (version < 1 || version > latest) {
+            throw new IllegalArgumentException("Unsupported " + type + " version " + version + ", this reader knows 1-" + latest);
+        }
+    }
+
+    private static BinaryWriter header(int type, int version, long mask) {
+        BinaryWriter writer = new BinaryWriter(128);
+        writer.writeByte(MAGIC);
+        writer.writeByte(type);
+        writer.writeByte(version);
+        writer.writeVarLong(mask);
+        return writer;
+    }
+
+    private static long bit(Object field, int index) {
+        return field != null ? 1L << index : 0;
+    }
+
+    private static boolean has(long mask, int index) {
+        return (mask & (1L << index)) != 0;
+    }
+}
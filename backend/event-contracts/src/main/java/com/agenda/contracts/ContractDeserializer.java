@@ -0,0 +1,29 @@
+package com.agenda.contracts;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+// Kafka value deserializer for the contract records. Binary messages name their own type;
+// anything else is read as JSON into the record type of the topic (see Topics), so records
+// published by a not yet upgraded service are still understood.
+public class ContractDeserializer implements Deserializer<Object> {
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            if (ContractCodec.isBinary(data)) {
+                return ContractCodec.decode(data);
+            }
+            Class<?> type = Topics.contractOf(topic);
+            if (type == null) {
+                throw new SerializationException("No event contract for topic " + topic);
+            }
+            return ContractCodec.fromJson(data, type);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Cannot deserialize record from topic " + topic, e);
+        }
+    }
+}
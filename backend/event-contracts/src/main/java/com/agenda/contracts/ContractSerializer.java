@@ -0,0 +1,34 @@
+package com.agenda.contracts;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.Map;
+
+// Kafka value serializer for the contract records. Writes the binary format unless
+// "agenda.contracts.format: json" is set, which keeps publishing the JSON the services sent
+// before, for as long as consumers without ContractDeserializer are still running.
+public class ContractSerializer implements Serializer<Object> {
+
+    public static final String FORMAT_CONFIG = "agenda.contracts.format";
+
+    private boolean json;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object format = configs.get(FORMAT_CONFIG);
+        json = format != null && "json".equalsIgnoreCase(format.toString());
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return json ? ContractCodec.toJson(data) : ContractCodec.encode(data);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Cannot serialize record for topic " + topic, e);
+        }
+    }
+}
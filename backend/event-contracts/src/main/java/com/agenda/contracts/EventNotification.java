@@ -0,0 +1,21 @@
+package com.agenda.contracts;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// Published by calendar-service on "event-notifications" after every committed write.
+// Consumed by notification-service (toasts) and by the other calendar instances (cache
+// invalidation, skipped when origin is their own). Keyed by userId.
+public record EventNotification(
+        Long id,
+        String userId,
+        String title,
+        LocalDate startDate,
+        LocalTime startTime, // minute precision
+        String category,
+        String type, // CREATED, UPDATED, DELETED, AI_EXTRACTED, IMPORTED
+        boolean recurring,
+        LocalDate previousStartDate, // set when an update moved the event to another day
+        String origin // producing instance
+) {
+}
@@ -0,0 +1,28 @@
+package com.agenda.contracts;
+
+import org.apache.kafka.common.utils.Utils;
+
+import java.nio.charset.StandardCharsets;
+
+public final class Topics {
+
+    public static final String EVENT_NOTIFICATIONS = "event-notifications";
+    public static final String AI_EVENTS = "ai-events-topic";
+
+    private Topics() {
+    }
+
+    // Partition the default partitioner picks for a String record key (murmur2 of its UTF-8 bytes)
+    public static int partitionOf(String key, int partitions) {
+        return Utils.toPositive(Utils.murmur2(key.getBytes(StandardCharsets.UTF_8))) % partitions;
+    }
+
+    // Message type of a topic, used to read JSON records that carry no type tag
+    static Class<?> contractOf(String topic) {
+        return switch (topic) {
+            case EVENT_NOTIFICATIONS -> EventNotification.class;
+            case AI_EVENTS -> AiEventCommand.class;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,146 @@
+package com.agenda.contracts;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ContractCodecTest {
+
+    private static final byte NOTIFICATION = 1;
+    private static final byte AI_COMMAND = 2;
+
+    @Test
+    void notificationRoundTripsWithEveryFieldMask() {
+        for (int mask = 0; mask < 1 << 10; mask++) {
+            EventNotification notification = notification(mask, "WORK", "UPDATED");
+            assertThat(ContractCodec.decode(ContractCodec.encode(notification))).isEqualTo(notification);
+        }
+    }
+
+    @Test
+    void commandRoundTripsWithEveryFieldMask() {
+        for (int mask = 0; mask < 1 << 9; mask++) {
+            AiEventCommand command = command(mask, "DELETE", "HEALTH", "LOW");
+            assertThat(ContractCodec.decode(ContractCodec.encode(command))).isEqualTo(command);
+        }
+    }
+
+    @Test
+    void unknownTokensTravelAsLiterals() {
+        EventNotification notification = notification((1 << 10) - 1, "FAMILY", "MOVED");
+        AiEventCommand command = command((1 << 9) - 1, "SNOOZE", "ÉTUDES", "URGENT");
+
+        assertThat(ContractCodec.decode(ContractCodec.encode(notification))).isEqualTo(notification);
+        assertThat(ContractCodec.decode(ContractCodec.encode(command))).isEqualTo(command);
+    }
+
+    @Test
+    void knownTokensTakeOneByte() {
+        byte[] known = ContractCodec.encode(notification(1 << 5, "WORK", null));
+        byte[] literal = ContractCodec.encode(notification(1 << 5, "FAMILY", null));
+
+        assertThat(known).hasSize(5); // magic, type, version, mask, token
+        assertThat(literal).hasSize(known.length + "FAMILY".length());
+    }
+
+    @Test
+    void rejectsOtherPayloads() {
+        assertThatThrownBy(() -> ContractCodec.decode(new byte[]{'{', '}', ' '}))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ContractCodec.decode(new byte[]{ContractCodec.MAGIC, 1}))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ContractCodec.decode(new byte[]{ContractCodec.MAGIC, 9, 1, 0}))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("type");
+    }
+
+    @Test
+    void rejectsUnknownVersions() {
+        assertThatThrownBy(() -> ContractCodec.decode(new byte[]{ContractCodec.MAGIC, NOTIFICATION, 2, 0}))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("version 2");
+        assertThatThrownBy(() -> ContractCodec.decode(new byte[]{ContractCodec.MAGIC, AI_COMMAND, 0, 0}))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("version 0");
+        assertThatThrownBy(() -> ContractCodec.decode(new byte[]{ContractCodec.MAGIC, AI_COMMAND, (byte) 0xFF, 0}))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("version 255");
+    }
+
+    @Test
+    void rejectsTruncatedInput() {
+        // Mask varint with its continuation bit set and nothing after it
+        assertThatThrownBy(() -> ContractCodec.decode(new byte[]{ContractCodec.MAGIC, NOTIFICATION, 1, (byte) 0x80}))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("truncated");
+        // Eleven continuation bytes: longer than any 64-bit varint
+        byte[] overlong = new byte[14];
+        overlong[0] = ContractCodec.MAGIC;
+        overlong[1] = NOTIFICATION;
+        overlong[2] = 1;
+        for (int i = 3; i < overlong.length; i++) {
+            overlong[i] = (byte) 0x80;
+        }
+        assertThatThrownBy(() -> ContractCodec.decode(overlong)).isInstanceOf(IllegalArgumentException.class);
+        // Title of 5 bytes announced, 2 present
+        assertThatThrownBy(() -> ContractCodec.decode(new byte[]{ContractCodec.MAGIC, NOTIFICATION, 1, 1 << 2, 5, 'a', 'b'}))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        byte[] full = ContractCodec.encode(command((1 << 9) - 1, "UPDATE", "WORK", "HIGH"));
+        for (int length = 3; length < full.length; length++) {
+            byte[] cut = Arrays.copyOf(full, length);
+            assertThatThrownBy(() -> ContractCodec.decode(cut)).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void rejectsOutOfRangeDatesAndTimes() {
+        // startDate (bit 3): zigzag varint of a day far past LocalDate.MAX
+        byte[] badDate = {ContractCodec.MAGIC, NOTIFICATION, 1, 1 << 3,
+                (byte) 0xFE, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F};
+        assertThatThrownBy(() -> ContractCodec.decode(badDate))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("date");
+        // startTime (bit 4): second 86400 (0x80 0xA3 0x05) is past the end of the day
+        byte[] badTime = {ContractCodec.MAGIC, NOTIFICATION, 1, 1 << 4, (byte) 0x80, (byte) 0xA3, 0x05};
+        assertThatThrownBy(() -> ContractCodec.decode(badTime))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("time");
+    }
+
+    private static EventNotification notification(int mask, String category, String type) {
+        return new EventNotification(
+                has(mask, 0) ? -42L : null,
+                has(mask, 1) ? "alice" : null,
+                has(mask, 2) ? "Réunion d'équipe" : null,
+                has(mask, 3) ? LocalDate.of(2025, 6, 2) : null,
+                has(mask, 4) ? LocalTime.of(9, 30) : null,
+                has(mask, 5) ? category : null,
+                has(mask, 6) ? type : null,
+                has(mask, 9),
+                has(mask, 7) ? LocalDate.of(1969, 12, 31) : null,
+                has(mask, 8) ? "calendar-1" : null);
+    }
+
+    private static AiEventCommand command(int mask, String action, String category, String priority) {
+        return new AiEventCommand(
+                has(mask, 0) ? action : null,
+                has(mask, 1) ? "alice" : null,
+                has(mask, 2) ? "Dentiste" : null,
+                has(mask, 3) ? "dentist" : null,
+                has(mask, 4) ? "2025-06-02" : null,
+                has(mask, 5) ? "demain 9h" : null,
+                has(mask, 6) ? category : null,
+                has(mask, 7) ? priority : null,
+                has(mask, 8) ? "key-1" : null);
+    }
+
+    private static boolean has(int mask, int bit) {
+        return (mask & 1 << bit) != 0;
+    }
+}
@@ -0,0 +1,38 @@
+package com.agenda.contracts;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ContractDeserializerTest {
+
+    private final ContractDeserializer deserializer = new ContractDeserializer();
+
+    @Test
+    void readsBinaryAndJsonRecords() {
+        AiEventCommand command = new AiEventCommand("CREATE", "alice", "Dentiste", null, "2025-06-02", "09:00", "HEALTH", "HIGH", "key-1");
+
+        assertThat(deserializer.deserialize(Topics.AI_EVENTS, ContractCodec.encode(command))).isEqualTo(command);
+        assertThat(deserializer.deserialize(Topics.AI_EVENTS, ContractCodec.toJson(command))).isEqualTo(command);
+        assertThat(deserializer.deserialize(Topics.AI_EVENTS, null)).isNull();
+    }
+
+    @Test
+    void malformedRecordsFailAsSerializationExceptions() {
+        byte[] badTime = {ContractCodec.MAGIC, 1, 1, 1 << 4, (byte) 0x80, (byte) 0xA3, 0x05};
+        byte[] newerVersion = {ContractCodec.MAGIC, 1, 2, 0};
+
+        assertThatThrownBy(() -> deserializer.deserialize(Topics.EVENT_NOTIFICATIONS, badTime))
+                .isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> deserializer.deserialize(Topics.EVENT_NOTIFICATIONS, newerVersion))
+                .isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> deserializer.deserialize(Topics.EVENT_NOTIFICATIONS, "{".getBytes(StandardCharsets.UTF_8)))
+                .isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> deserializer.deserialize("other-topic", "{}".getBytes(StandardCharsets.UTF_8)))
+                .isInstanceOf(SerializationException.class);
+    }
+}
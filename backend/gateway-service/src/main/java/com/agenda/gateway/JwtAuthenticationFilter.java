@@ -4,6 +4,9 @@ import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
 import org.springframework.http.HttpHeaders;
@@ -21,6 +24,8 @@ public class JwtAuthenticationFilter extends AbstractGatewayFilterFactory<JwtAut
     public static final String SECRET = "5367566B59703373367639792F423F4528482B4D6251655468576D5A71347437";
     public static final String USER_ID_HEADER = "X-User-Id";
 
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
     public JwtAuthenticationFilter() {
         super(Config.class);
     }
@@ -29,12 +34,12 @@ public class JwtAuthenticationFilter extends AbstractGatewayFilterFactory<JwtAut
     public GatewayFilter apply(Config config) {
         return (exchange, chain) -> {
             if (!exchange.getRequest().getHeaders().containsKey(HttpHeaders.AUTHORIZATION)) {
-                return onError(exchange, "Missing Authorization Header");
+                return onError(exchange, "missing", "Missing Authorization Header");
             }
 
             String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
             if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                return onError(exchange, "Invalid Authorization Header");
+                return onError(exchange, "malformed", "Invalid Authorization Header");
             }
 
             String token = authHeader.substring(7);
@@ -49,7 +54,7 @@ public class JwtAuthenticationFilter extends AbstractGatewayFilterFactory<JwtAut
 
                 return chain.filter(exchange.mutate().request(modifiedRequest).build());
             } catch (Exception e) {
-                return onError(exchange, "Invalid Token: " + e.getMessage());
+                return onError(exchange, "invalid", "Invalid Token: " + e.getMessage());
             }
         };
     }
@@ -63,8 +68,10 @@ public class JwtAuthenticationFilter extends AbstractGatewayFilterFactory<JwtAut
         return claims.getSubject();
     }
 
-    private Mono<Void> onError(ServerWebExchange exchange, String err) {
-        System.err.println("[Gateway] Auth error: " + err);
+    // Counted on the global registry, which Boot binds to the Prometheus one
+    private Mono<Void> onError(ServerWebExchange exchange, String reason, String err) {
+        Metrics.counter("gateway.auth.rejected", "reason", reason).increment();
+        log.debug("auth rejected path={} error={}", exchange.getRequest().getPath(), err);
         exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
         return exchange.getResponse().setComplete();
     }
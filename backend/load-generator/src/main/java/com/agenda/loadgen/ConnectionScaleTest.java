@@ -0,0 +1,351 @@
+package com.agenda.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+// How many concurrent notification sessions one notification-service instance sustains.
+// Sessions are opened in steps of --step on the native endpoint (--endpoint sockjs: the raw
+// WebSocket transport of the SockJS endpoint), spread over --users users, each doing a STOMP
+// CONNECT with its user's token (--encoding binary asks for binary frames) and SUBSCRIBE. After
+// each step every user gets one test notification (POST /api/notifications/test) and the time
+// until each of their sessions has it is recorded. A step passes while connect and delivery
+// failures stay under --max-failures and the delivery p99 under --max-p99; the run stops at the
+// first step that does not, or at --sessions. Server heap and session gauge are read from
+// /actuator/metrics after each step.
+//   mvn -DskipTests install && mvn -pl load-generator exec:java@connection-scale \
+//       -Dexec.args="--users 200 --sessions 20000 --step 2000 --encoding binary"
+// --gateway URL with --notification URL (and --jdbc-url to seed) tests a running stack instead.
+// The client needs one file descriptor and one ephemeral port per session: raise ulimit -n.
+public class ConnectionScaleTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = HttpLoadBenchmark.parseOptions(args);
+        int users = Integer.parseInt(options.getOrDefault("users", "100"));
+        int maxSessions = Integer.parseInt(options.getOrDefault("sessions", "10000"));
+        int step = Integer.parseInt(options.getOrDefault("step", "1000"));
+        String endpoint = options.getOrDefault("endpoint", "native");
+        boolean binary = "binary".equals(options.getOrDefault("encoding", "json"));
+        double maxFailures = Double.parseDouble(options.getOrDefault("max-failures", "0.01"));
+        double maxP99 = Double.parseDouble(options.getOrDefault("max-p99", "1000"));
+        Duration deliveryTimeout = HttpLoadBenchmark.parseDuration(options.getOrDefault("delivery-timeout", "10s"));
+        String label = options.getOrDefault("label", endpoint + "-" + (binary ? "binary" : "json"));
+        boolean seed = Boolean.parseBoolean(options.getOrDefault("seed", "true"));
+        if ("sockjs".equals(endpoint) && binary) {
+            throw new IllegalArgumentException("Binary frames are only sent on the native endpoint");
+        }
+
+        LocalStack stack = null;
+        try {
+            String gateway = options.get("gateway");
+            String notification = options.get("notification");
+            if (gateway == null) {
+                stack = LocalStack.start(new LocalStack.Settings(
+                        Path.of(options.getOrDefault("backend-dir", ".")).toAbsolutePath(),
+                        Path.of(options.getOrDefault("logs", "load-generator/target/stack-logs")),
+                        Integer.parseInt(options.getOrDefault("base-port", "18000")),
+                        Integer.parseInt(options.getOrDefault("partitions", "12")),
+                        Duration.ZERO, Duration.ZERO,
+                        options.getOrDefault("heap", "512m"),
+                        Boolean.parseBoolean(options.getOrDefault("virtual-threads", "false"))));
+                gateway = stack.gatewayUrl();
+                notification = stack.notificationUrl();
+            }
+            if (seed) {
+                try (Connection connection = stack != null ? stack.openConnection() : DriverManager.getConnection(
+                        HttpLoadBenchmark.required(options, "jdbc-url"),
+                        options.getOrDefault("jdbc-user", "postgres"), options.getOrDefault("jdbc-password", ""))) {
+                    EventSeeder.seedUsers(connection, users);
+                }
+            }
+            String path = "sockjs".equals(endpoint) ? "/ws/notifications/websocket" : "/ws/notifications-native";
+            URI socketUri = URI.create(notification.replaceFirst("^http", "ws") + path);
+            List<Step> steps = run(gateway, notification, socketUri, binary, users, maxSessions, step,
+                    maxFailures, maxP99, deliveryTimeout);
+            report(steps, label, options.get("csv"));
+        } finally {
+            if (stack != null) {
+                stack.close();
+            }
+        }
+    }
+
+    record Step(int sessions, long connectErrors, LatencyRecorder.Stats connect, LatencyRecorder.Stats delivery,
+                long missed, double heapMb, double serverSessions, boolean passed) {
+    }
+
+    private static List<Step> run(String gateway, String notification, URI socketUri, boolean binary, int users,
+                                  int maxSessions, int step, double maxFailures, double maxP99,
+                                  Duration deliveryTimeout) throws Exception {
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        // Several clients, so that one selector thread does not receive every session's frames
+        List<HttpClient> socketClients = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, Runtime.getRuntime().availableProcessors() / 2); i++) {
+            socketClients.add(HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build());
+        }
+        String[] tokens = login(http, gateway, users);
+        List<ScaleSession> open = new ArrayList<>();
+        List<Step> steps = new ArrayList<>();
+        System.out.printf("[SCALE] up to %d sessions over %d users, steps of %d, %s%s%n",
+                maxSessions, users, step, socketUri, binary ? " (binary frames)" : "");
+        try {
+            for (int round = 1; open.size() < maxSessions; round++) {
+                int target = Math.min(maxSessions, open.size() + step);
+                LatencyRecorder connect = new LatencyRecorder();
+                long connectErrors = 0;
+                try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                    List<Future<ScaleSession>> opening = new ArrayList<>();
+                    for (int i = open.size(); i < target; i++) {
+                        int user = i % users;
+                        HttpClient client = socketClients.get(i % socketClients.size());
+                        opening.add(executor.submit(() -> ScaleSession.open(client, socketUri, user, tokens[user], binary)));
+                    }
+                    for (Future<ScaleSession> future : opening) {
+                        try {
+                            ScaleSession session = future.get();
+                            connect.record(session.connectNanos);
+                            open.add(session);
+                        } catch (Exception e) {
+                            connectErrors++;
+                        }
+                    }
+                }
+
+                LatencyRecorder delivery = new LatencyRecorder();
+                long missed = deliver(http, notification, open, users, round, deliveryTimeout, delivery);
+                LatencyRecorder.Stats connectStats = LatencyRecorder.merge(List.of(connect));
+                LatencyRecorder.Stats deliveryStats = LatencyRecorder.merge(List.of(delivery));
+                boolean passed = connectErrors <= maxFailures * (connectErrors + connectStats.count())
+                        && missed <= maxFailures * open.size()
+                        && deliveryStats.percentile(99) <= maxP99;
+                Step result = new Step(open.size(), connectErrors, connectStats, deliveryStats, missed,
+                        metric(http, notification, "jvm.memory.used?tag=area:heap") / (1 << 20),
+                        metric(http, notification, "notification.websocket.sessions"), passed);
+                steps.add(result);
+                System.out.printf(Locale.ROOT, "[SCALE] %6d sessions: connect p99 %.1f ms (%d failed), delivery p50 %.1f p99 %.1f ms"
+                                + " (%d missed), server heap %.0f MB, server sessions %.0f%s%n",
+                        result.sessions(), connectStats.percentile(99), connectErrors, deliveryStats.percentile(50),
+                        deliveryStats.percentile(99), missed, result.heapMb(), result.serverSessions(), passed ? "" : "  FAILED");
+                if (!passed) {
+                    break;
+                }
+            }
+        } finally {
+            open.forEach(ScaleSession::close);
+        }
+        return steps;
+    }
+
+    private static String[] login(HttpClient http, String gateway, int users) throws IOException, InterruptedException {
+        String[] tokens = new String[users];
+        for (int i = 0; i < users; i++) {
+            HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(gateway + "/api/auth/token"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"" + EventSeeder.username(i)
+                            + "\",\"password\":\"" + EventSeeder.PASSWORD + "\"}"))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Login of " + EventSeeder.username(i) + " failed: " + response.statusCode());
+            }
+            tokens[i] = response.body();
+        }
+        return tokens;
+    }
+
+    // One notification per user, sent at once; returns the sessions that did not get theirs in time
+    private static long deliver(HttpClient http, String notification, List<ScaleSession> sessions, int users, int round,
+                                Duration timeout, LatencyRecorder delivery) throws InterruptedException {
+        String[] markers = new String[users];
+        for (int user = 0; user < users; user++) {
+            markers[user] = "scale-" + round + "-" + user + "-";
+        }
+        for (ScaleSession session : sessions) {
+            session.expect(markers[session.user]);
+        }
+        long[] sentAt = new long[users];
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int user = 0; user < users; user++) {
+                int u = user;
+                executor.submit(() -> {
+                    sentAt[u] = System.nanoTime();
+                    http.send(HttpRequest.newBuilder(URI.create(notification + "/api/notifications/test"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString("{\"userId\":\"" + EventSeeder.username(u)
+                                    + "\",\"title\":\"" + markers[u] + "\",\"message\":\"scale\"}"))
+                            .build(), HttpResponse.BodyHandlers.discarding());
+                    return null;
+                });
+            }
+        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline && sessions.stream().anyMatch(session -> session.receivedAt == 0)) {
+            Thread.sleep(20);
+        }
+        long missed = 0;
+        for (ScaleSession session : sessions) {
+            long receivedAt = session.receivedAt;
+            if (receivedAt == 0) {
+                missed++;
+            } else {
+                delivery.record(Math.max(0, receivedAt - sentAt[session.user]));
+            }
+        }
+        return missed;
+    }
+
+    // Value of an actuator metric of notification-service, NaN if unavailable
+    private static double metric(HttpClient http, String notification, String name) {
+        try {
+            HttpResponse<String> response = http.send(HttpRequest.newBuilder(
+                    URI.create(notification + "/actuator/metrics/" + name)).build(), HttpResponse.BodyHandlers.ofString());
+            JsonNode measurements = JSON.readTree(response.body()).path("measurements");
+            return measurements.isArray() && !measurements.isEmpty() ? measurements.get(0).path("value").asDouble() : Double.NaN;
+        } catch (Exception e) {
+            return Double.NaN;
+        }
+    }
+
+    private static void report(List<Step> steps, String label, String csv) throws IOException {
+        Step sustained = null;
+        for (Step step : steps) {
+            if (step.passed()) {
+                sustained = step;
+            }
+        }
+        System.out.printf("%n[SCALE] %s: %s%n", label, sustained != null
+                ? "sustained " + sustained.sessions() + " sessions" : "no step passed");
+        if (csv == null) {
+            return;
+        }
+        Path path = Path.of(csv);
+        boolean header = !Files.exists(path);
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+            if (header) {
+                out.println("label,sessions,connect_errors,connect_p50_ms,connect_p99_ms,delivery_p50_ms,delivery_p99_ms,"
+                        + "delivery_max_ms,missed,server_heap_mb,server_sessions,passed");
+            }
+            for (Step step : steps) {
+                out.printf(Locale.ROOT, "%s,%d,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%d,%.1f,%.0f,%b%n", label, step.sessions(),
+                        step.connectErrors(), step.connect().percentile(50), step.connect().percentile(99),
+                        step.delivery().percentile(50), step.delivery().percentile(99), step.delivery().max(),
+                        step.missed(), step.heapMb(), step.serverSessions(), step.passed());
+            }
+        }
+    }
+
+    // One STOMP session subscribed to its user's queue, watching for the marker of the current round
+    private static final class ScaleSession implements WebSocket.Listener {
+        final int user;
+        final CompletableFuture<Void> connected = new CompletableFuture<>();
+        WebSocket socket;
+        long connectNanos;
+        volatile String expected;
+        volatile long receivedAt;
+        private final StringBuilder partial = new StringBuilder();
+
+        private ScaleSession(int user) {
+            this.user = user;
+        }
+
+        static ScaleSession open(HttpClient client, URI uri, int user, String token, boolean binary) throws Exception {
+            ScaleSession session = new ScaleSession(user);
+            long start = System.nanoTime();
+            session.socket = client.newWebSocketBuilder().buildAsync(uri, session).get(10, TimeUnit.SECONDS);
+            try {
+                session.socket.sendText("CONNECT\naccept-version:1.2\nhost:localhost\nheart-beat:0,0\nAuthorization:Bearer " + token
+                        + (binary ? "\nnotification-encoding:binary" : "") + "\n\n\u0000", true);
+                session.connected.get(10, TimeUnit.SECONDS);
+                session.socket.sendText("SUBSCRIBE\nid:sub-0\ndestination:/user/queue/notifications\n\n\u0000", true)
+                        .get(10, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                session.close();
+                throw e;
+            }
+            session.connectNanos = System.nanoTime() - start;
+            return session;
+        }
+
+        void expect(String marker) {
+            receivedAt = 0;
+            expected = marker;
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            partial.append(data);
+            if (last) {
+                onFrame(partial.toString());
+                partial.setLength(0);
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        // Binary frames: the STOMP headers and the title are ASCII, enough to find the marker
+        @Override
+        public CompletionStage<?> onBinary(WebSocket webSocket, ByteBuffer data, boolean last) {
+            partial.append(StandardCharsets.ISO_8859_1.decode(data));
+            if (last) {
+                onFrame(partial.toString());
+                partial.setLength(0);
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket webSocket, Throwable error) {
+            connected.completeExceptionally(error);
+        }
+
+        private void onFrame(String frame) {
+            if (frame.startsWith("CONNECTED")) {
+                connected.complete(null);
+            } else if (frame.startsWith("ERROR")) {
+                connected.completeExceptionally(new IllegalStateException(frame));
+            } else {
+                String marker = expected;
+                if (marker != null && receivedAt == 0 && frame.contains(marker)) {
+                    receivedAt = System.nanoTime();
+                }
+            }
+        }
+
+        void close() {
+            if (socket != null) {
+                socket.sendClose(WebSocket.NORMAL_CLOSURE, "").orTimeout(5, TimeUnit.SECONDS).exceptionally(e -> null);
+            }
+        }
+    }
+}
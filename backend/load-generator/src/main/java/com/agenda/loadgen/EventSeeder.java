@@ -0,0 +1,118 @@
+package com.agenda.loadgen;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Random;
+
+// Bulk-loads users and events straight into PostgreSQL with COPY (hundreds of thousands of
+// rows per second instead of one API call each). Runs once the services have created their
+// tables. Users are loaduser-<n>, all with the same password; their events are spread over
+// the year around today, on the half hours of the working day.
+final class EventSeeder {
+
+    static final String PASSWORD = "loadtest";
+    static final String USER_PREFIX = "loaduser-";
+
+    private static final String[] TITLES = {"Réunion équipe", "Point projet", "Dentiste", "Footing", "Déjeuner client",
+            "Revue de code", "Cours de yoga", "Dîner entre amis", "Appel fournisseur", "Formation"};
+    private static final String[] CATEGORIES = {"WORK", "WORK", "HEALTH", "SPORT", "WORK", "WORK", "SPORT", "SOCIAL", "WORK", "WORK"};
+    private static final String[] PRIORITIES = {"HIGH", "MEDIUM", "MEDIUM", "LOW"};
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private EventSeeder() {
+    }
+
+    static String username(int index) {
+        return USER_PREFIX + index;
+    }
+
+    // Users already present (an earlier seeding of the same database) are kept
+    static void seedUsers(Connection connection, int users) throws SQLException {
+        String hash = new BCryptPasswordEncoder().encode(PASSWORD);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TEMP TABLE seed_users (username varchar(255), password varchar(255))");
+            CopyIn copy = copyIn(connection, "COPY seed_users (username, password) FROM STDIN WITH (FORMAT csv)");
+            StringBuilder rows = new StringBuilder(BUFFER_BYTES);
+            for (int i = 0; i < users; i++) {
+                rows.append(username(i)).append(',').append(hash).append('\n');
+                if (rows.length() >= BUFFER_BYTES - 256) {
+                    write(copy, rows);
+                }
+            }
+            write(copy, rows);
+            copy.endCopy();
+            int inserted = statement.executeUpdate("INSERT INTO users (username, password) SELECT s.username, s.password "
+                    + "FROM seed_users s WHERE NOT EXISTS (SELECT 1 FROM users u WHERE u.username = s.username)");
+            statement.execute("DROP TABLE seed_users");
+            System.out.printf("[SEED] %d users (%d new)%n", users, inserted);
+        }
+    }
+
+    static void seedEvents(Connection connection, int users, int eventsPerUser) throws SQLException {
+        long start = System.nanoTime();
+        Random random = new Random(42);
+        LocalDate today = LocalDate.now();
+        long firstId;
+        try (Statement statement = connection.createStatement();
+             ResultSet max = statement.executeQuery("SELECT coalesce(max(id), 0) FROM events")) {
+            max.next();
+            firstId = max.getLong(1) + 1;
+        }
+
+        CopyIn copy = copyIn(connection, "COPY events (id, user_id, title, start_date, start_time, duration_minutes, "
+                + "category, priority, description, change_version, updated_at, deleted, start_at, recurring) "
+                + "FROM STDIN WITH (FORMAT csv)");
+        StringBuilder rows = new StringBuilder(BUFFER_BYTES);
+        long id = firstId;
+        for (int user = 0; user < users; user++) {
+            String userId = username(user);
+            for (int e = 0; e < eventsPerUser; e++, id++) {
+                int kind = random.nextInt(TITLES.length);
+                LocalDate date = today.plusDays(random.nextInt(731) - 365);
+                LocalTime time = LocalTime.of(8 + random.nextInt(11), random.nextBoolean() ? 0 : 30);
+                rows.append(id).append(',')
+                        .append(userId).append(',')
+                        .append(TITLES[kind]).append(' ').append(e).append(',')
+                        .append(date).append(',')
+                        .append(time).append(',')
+                        .append(random.nextInt(4) == 0 ? "30" : "").append(',')
+                        .append(CATEGORIES[kind]).append(',')
+                        .append(PRIORITIES[random.nextInt(PRIORITIES.length)]).append(',')
+                        .append(random.nextInt(5) == 0 ? "Notes de préparation" : "").append(',')
+                        .append("0,2026-01-01 00:00:00+00,false,")
+                        .append(date).append(' ').append(time).append(",false\n");
+                if (rows.length() >= BUFFER_BYTES - 512) {
+                    write(copy, rows);
+                }
+            }
+        }
+        write(copy, rows);
+        long copied = copy.endCopy();
+
+        try (Statement statement = connection.createStatement()) {
+            // The pooled sequence hands out blocks of 50: skip past the seeded ids
+            statement.execute("SELECT setval('events_seq', " + (id + 50) + ")");
+            statement.execute("ANALYZE events");
+        }
+        System.out.printf("[SEED] %d events in %.1f s%n", copied, (System.nanoTime() - start) / 1e9);
+    }
+
+    private static CopyIn copyIn(Connection connection, String sql) throws SQLException {
+        return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+    }
+
+    private static void write(CopyIn copy, StringBuilder rows) throws SQLException {
+        byte[] bytes = rows.toString().getBytes(StandardCharsets.UTF_8);
+        copy.writeToCopy(bytes, 0, bytes.length);
+        rows.setLength(0);
+    }
+}
@@ -0,0 +1,163 @@
+package com.agenda.loadgen;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Closed-loop HTTP load: `concurrency` clients (one virtual thread and connection each) send
+// requests back to back for `duration`, then throughput and latency percentiles are printed
+// and appended as one CSV row, so runs of different server modes can be compared.
+//
+// Platform vs virtual threads on calendar-service:
+//   1. start calendar-service normally, run with --label platform
+//   2. restart it with SPRING_PROFILES_ACTIVE=virtual-threads, run with --label virtual
+//   3. compare the two rows of --csv (same --concurrency, e.g. 500, 2000, 5000)
+//
+// Example:
+//   --url "http://localhost:8082/api/calendar/range?from=2025-01-01&to=2025-01-31"
+//   --concurrency 2000 --duration 60s --warmup 15s --users 1000 --label virtual --csv results.csv
+// Requests carry X-User-Id: loadtest-<n>, cycling through --users ids (services trust the header
+// when called directly, behind the gateway a JWT is needed instead).
+public class HttpLoadBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        URI url = URI.create(required(options, "url"));
+        String method = options.getOrDefault("method", "GET");
+        String body = options.get("body");
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "1000"));
+        int users = Integer.parseInt(options.getOrDefault("users", "1000"));
+        Duration warmup = parseDuration(options.getOrDefault("warmup", "10s"));
+        Duration duration = parseDuration(options.getOrDefault("duration", "60s"));
+        String label = options.getOrDefault("label", "run");
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long measureUntil = measureFrom + duration.toNanos();
+        List<LatencyRecorder> recorders = new ArrayList<>(concurrency);
+
+        System.out.printf("[LOAD] %s %s with %d clients: %s warmup + %s measured%n",
+                method, url, concurrency, warmup, duration);
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                LatencyRecorder recorder = new LatencyRecorder();
+                recorders.add(recorder);
+                String userId = "loadtest-" + (i % users);
+                clients.submit(() -> {
+                    HttpRequest request = HttpRequest.newBuilder(url)
+                            .timeout(Duration.ofSeconds(30))
+                            .header("X-User-Id", userId)
+                            .header("Content-Type", "application/json")
+                            .method(method, body != null
+                                    ? HttpRequest.BodyPublishers.ofString(body)
+                                    : HttpRequest.BodyPublishers.noBody())
+                            .build();
+                    long now;
+                    while ((now = System.nanoTime()) < measureUntil) {
+                        boolean ok;
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            ok = response.statusCode() < 400;
+                        } catch (IOException e) {
+                            ok = false;
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                        long end = System.nanoTime();
+                        if (now >= measureFrom) {
+                            if (ok) {
+                                recorder.record(end - now);
+                            } else {
+                                recorder.error();
+                            }
+                        }
+                    }
+                });
+            }
+        } // waits for every client
+
+        LatencyRecorder.Stats stats = LatencyRecorder.merge(recorders);
+        double seconds = duration.toNanos() / 1e9;
+        Result result = new Result(label, concurrency, stats.count(), stats.errors(), stats.count() / seconds,
+                stats.percentile(50), stats.percentile(90), stats.percentile(99), stats.percentile(99.9), stats.max());
+        System.out.println(result.describe());
+        if (options.containsKey("csv")) {
+            result.appendTo(Path.of(options.get("csv")));
+        }
+    }
+
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --name value, got: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        return options;
+    }
+
+    static String required(Map<String, String> options, String name) {
+        String value = options.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing --" + name);
+        }
+        return value;
+    }
+
+    // "90s", "5m" or ISO-8601 ("PT90S")
+    static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.parse(value);
+    }
+
+    private record Result(String label, int concurrency, long requests, long errors, double throughput,
+                          double p50, double p90, double p99, double p999, double max) {
+
+        String describe() {
+            return String.format("[LOAD] %s: %d requests, %d errors, %.1f req/s, latency ms p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f",
+                    label, requests, errors, throughput, p50, p90, p99, p999, max);
+        }
+
+        void appendTo(Path csv) throws IOException {
+            boolean header = !Files.exists(csv);
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(csv,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+                if (header) {
+                    out.println("label,concurrency,requests,errors,throughput_rps,p50_ms,p90_ms,p99_ms,p999_ms,max_ms");
+                }
+                out.printf(Locale.ROOT, "%s,%d,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f,%.3f%n",
+                        label, concurrency, requests, errors, throughput, p50, p90, p99, p999, max);
+            }
+        }
+    }
+}
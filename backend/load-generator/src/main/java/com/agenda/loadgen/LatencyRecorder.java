@@ -0,0 +1,58 @@
+package com.agenda.loadgen;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Latency buffer of one client thread (only that thread records into it); the buffers of a
+// run are merged and sorted once at the end to read the percentiles.
+final class LatencyRecorder {
+
+    private long[] values = new long[1024];
+    private int size;
+    private long errors;
+
+    void record(long nanos) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = nanos;
+    }
+
+    void error() {
+        errors++;
+    }
+
+    static Stats merge(List<LatencyRecorder> recorders) {
+        int total = recorders.stream().mapToInt(r -> r.size).sum();
+        long[] merged = new long[total];
+        int offset = 0;
+        long errors = 0;
+        for (LatencyRecorder recorder : recorders) {
+            System.arraycopy(recorder.values, 0, merged, offset, recorder.size);
+            offset += recorder.size;
+            errors += recorder.errors;
+        }
+        Arrays.sort(merged);
+        return new Stats(merged, errors);
+    }
+
+    record Stats(long[] sorted, long errors) {
+
+        long count() {
+            return sorted.length;
+        }
+
+        // Latency in milliseconds at the given percentile
+        double percentile(double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+        }
+
+        double max() {
+            return sorted.length > 0 ? sorted[sorted.length - 1] / 1e6 : 0;
+        }
+    }
+}
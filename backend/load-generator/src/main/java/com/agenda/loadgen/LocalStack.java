@@ -0,0 +1,149 @@
+package com.agenda.loadgen;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// The whole backend on one machine without docker-compose: a real PostgreSQL run from
+// embedded binaries, a single-node KRaft Kafka broker in this JVM, the OpenRouter stub, and
+// auth, calendar, ai, notification and gateway services as child JVMs wired to them.
+// Eureka is left out: the gateway routes to fixed URLs, as in docker-compose.
+final class LocalStack implements AutoCloseable {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+
+    private final List<AutoCloseable> resources = new ArrayList<>();
+    private EmbeddedPostgres postgres;
+    private EmbeddedKafkaKraftBroker kafka;
+    private String gatewayUrl;
+    private String notificationUrl;
+
+    record Settings(Path backendDir, Path logs, int basePort, int partitions, Duration aiLatency, Duration aiJitter,
+                    String heap, boolean virtualThreads) {
+    }
+
+    static LocalStack start(Settings settings) throws Exception {
+        LocalStack stack = new LocalStack();
+        try {
+            stack.boot(settings);
+            return stack;
+        } catch (Exception e) {
+            stack.close();
+            throw e;
+        }
+    }
+
+    private void boot(Settings settings) throws Exception {
+        int port = settings.basePort();
+        postgres = EmbeddedPostgres.builder()
+                .setPort(port)
+                .setServerConfig("max_connections", "300")
+                .start();
+        resources.add(postgres);
+        String jdbcUrl = postgres.getJdbcUrl("postgres", "postgres");
+        System.out.println("[STACK] PostgreSQL at " + jdbcUrl);
+
+        kafka = new EmbeddedKafkaKraftBroker(1, settings.partitions(), "ai-events-topic", "event-notifications");
+        kafka.afterPropertiesSet();
+        resources.add(kafka::destroy);
+        String brokers = kafka.getBrokersAsString();
+        System.out.println("[STACK] Kafka at " + brokers);
+
+        StubOpenRouter openRouter = new StubOpenRouter(port + 1, settings.aiLatency(), settings.aiJitter());
+        resources.add(openRouter);
+        System.out.println("[STACK] OpenRouter stub at " + openRouter.url() + ", latency " + settings.aiLatency()
+                + " + up to " + settings.aiJitter());
+
+        int authPort = port + 89;
+        int calendarPort = port + 82;
+        int aiPort = port + 81;
+        int notificationPort = port + 85;
+        int gatewayPort = port + 88;
+        List<String> common = List.of(
+                "eureka.client.enabled=false",
+                "spring.kafka.bootstrap-servers=" + brokers);
+        List<String> database = List.of(
+                "spring.datasource.url=" + jdbcUrl,
+                "spring.datasource.username=postgres",
+                "spring.datasource.password=");
+        List<String> threads = settings.virtualThreads() ? List.of("spring.profiles.active=virtual-threads") : List.of();
+
+        HttpClient probe = HttpClient.newHttpClient();
+        List<ServiceProcess> services = new ArrayList<>();
+        services.add(launch(settings, "auth-service", authPort, common, database, threads));
+        services.add(launch(settings, "calendar-service", calendarPort, common, database, threads,
+                List.of("calendar.kafka.notification-partitions=" + settings.partitions())));
+        services.add(launch(settings, "ai-service", aiPort, common,
+                List.of("openrouter.api-key=stub", "openrouter.url=" + openRouter.url())));
+        services.add(launch(settings, "notification-service", notificationPort, common,
+                List.of("notification.calendar-url=http://localhost:" + calendarPort,
+                        "notification.reminders.store-file=" + settings.logs().toAbsolutePath().resolve("sent-reminders.db"),
+                        "notification.inbox.dir=" + settings.logs().toAbsolutePath().resolve("inbox"))));
+        services.add(launch(settings, "gateway-service", gatewayPort, common, List.of(
+                "spring.cloud.gateway.discovery.locator.enabled=false",
+                "spring.cloud.gateway.routes[0].id=auth-service",
+                "spring.cloud.gateway.routes[0].uri=http://localhost:" + authPort,
+                "spring.cloud.gateway.routes[0].predicates[0]=Path=/api/auth/**",
+                "spring.cloud.gateway.routes[1].id=ai-service",
+                "spring.cloud.gateway.routes[1].uri=http://localhost:" + aiPort,
+                "spring.cloud.gateway.routes[1].predicates[0]=Path=/api/ai/**",
+                "spring.cloud.gateway.routes[1].filters[0]=JwtAuthenticationFilter",
+                "spring.cloud.gateway.routes[2].id=calendar-service",
+                "spring.cloud.gateway.routes[2].uri=http://localhost:" + calendarPort,
+                "spring.cloud.gateway.routes[2].predicates[0]=Path=/api/calendar/**",
+                "spring.cloud.gateway.routes[2].filters[0]=JwtAuthenticationFilter",
+                "spring.cloud.gateway.routes[3].id=notification-service",
+                "spring.cloud.gateway.routes[3].uri=http://localhost:" + notificationPort,
+                "spring.cloud.gateway.routes[3].predicates[0]=Path=/api/notifications/**",
+                "spring.cloud.gateway.routes[3].filters[0]=JwtAuthenticationFilter")));
+        for (ServiceProcess service : services) {
+            service.awaitReady(probe, STARTUP_TIMEOUT);
+        }
+        gatewayUrl = "http://localhost:" + gatewayPort;
+        notificationUrl = "http://localhost:" + notificationPort;
+    }
+
+    @SafeVarargs
+    private ServiceProcess launch(Settings settings, String name, int port, List<String>... properties) throws IOException {
+        List<String> all = new ArrayList<>();
+        for (List<String> group : properties) {
+            all.addAll(group);
+        }
+        ServiceProcess service = ServiceProcess.start(settings.backendDir(), settings.logs(), name, port, settings.heap(), all);
+        resources.add(service);
+        return service;
+    }
+
+    String gatewayUrl() {
+        return gatewayUrl;
+    }
+
+    String notificationUrl() {
+        return notificationUrl;
+    }
+
+    Connection openConnection() throws SQLException {
+        return DriverManager.getConnection(postgres.getJdbcUrl("postgres", "postgres"), "postgres", "");
+    }
+
+    // Services first, then the broker and the database they depend on
+    @Override
+    public void close() throws Exception {
+        for (int i = resources.size() - 1; i >= 0; i--) {
+            try {
+                resources.get(i).close();
+            } catch (Exception e) {
+                System.err.println("[STACK] Shutdown error: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.agenda.loadgen;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// One service of the stack, run from its executable jar (mvn package builds
+// <service>/target/<service>-<version>-exec.jar) in its own JVM, output to <logs>/<service>.log
+final class ServiceProcess implements AutoCloseable {
+
+    private final String name;
+    private final int port;
+    private final Process process;
+
+    private ServiceProcess(String name, int port, Process process) {
+        this.name = name;
+        this.port = port;
+        this.process = process;
+    }
+
+    static ServiceProcess start(Path backendDir, Path logs, String name, int port, String heap, List<String> properties) throws IOException {
+        Path jar = findJar(backendDir, name);
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-Xmx" + heap);
+        command.add("-jar");
+        command.add(jar.toString());
+        command.add("--server.port=" + port);
+        properties.forEach(property -> command.add("--" + property));
+
+        Files.createDirectories(logs);
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(logs.resolve(name + ".log").toFile())
+                .start();
+        System.out.printf("[STACK] %s starting on port %d (log: %s)%n", name, port, logs.resolve(name + ".log"));
+        return new ServiceProcess(name, port, process);
+    }
+
+    // Any HTTP answer means the web server is up, which Spring Boot does once the context is ready
+    void awaitReady(HttpClient client, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        HttpRequest probe = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/"))
+                .timeout(Duration.ofSeconds(2))
+                .build();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException(name + " exited with status " + process.exitValue() + ", see its log");
+            }
+            try {
+                client.send(probe, HttpResponse.BodyHandlers.discarding());
+                System.out.printf("[STACK] %s ready%n", name);
+                return;
+            } catch (IOException e) {
+                Thread.sleep(500);
+            }
+        }
+        throw new IllegalStateException(name + " not ready after " + timeout);
+    }
+
+    int port() {
+        return port;
+    }
+
+    private static Path findJar(Path backendDir, String name) throws IOException {
+        Path target = backendDir.resolve(name).resolve("target");
+        try (var jars = Files.list(target)) {
+            return jars.filter(path -> path.getFileName().toString().endsWith("-exec.jar"))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No executable jar in " + target + ", run mvn package first"));
+        } catch (NoSuchFileException e) {
+            throw new IllegalStateException("No " + target + ", run mvn package first", e);
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy(); // SIGTERM: graceful shutdown
+        if (!process.waitFor(20, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+        }
+    }
+}
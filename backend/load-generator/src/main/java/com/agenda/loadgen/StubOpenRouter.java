@@ -0,0 +1,75 @@
+package com.agenda.loadgen;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Stands in for the OpenRouter chat completions API: answers every POST after `latency`
+// (plus up to `jitter`), with a completion whose content is the event JSON ai-service asks
+// the model for. Each request is served on its own virtual thread, so slow answers cost
+// no platform threads, like a remote API would not.
+final class StubOpenRouter implements AutoCloseable {
+
+    static final String PATH = "/api/v1/chat/completions";
+
+    private static final String[] TITLES = {"Réunion équipe", "Dentiste", "Match de foot", "Dîner avec Léa", "Point projet"};
+    private static final String[] CATEGORIES = {"WORK", "HEALTH", "SPORT", "SOCIAL", "WORK"};
+
+    private final HttpServer server;
+    private final Duration latency;
+    private final Duration jitter;
+
+    StubOpenRouter(int port, Duration latency, Duration jitter) throws IOException {
+        this.latency = latency;
+        this.jitter = jitter;
+        this.server = HttpServer.create(new InetSocketAddress(port), 1024);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext(PATH, this::handle);
+        server.start();
+    }
+
+    String url() {
+        return "http://localhost:" + server.getAddress().getPort() + PATH;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange; InputStream body = exchange.getRequestBody()) {
+            body.transferTo(OutputStream.nullOutputStream());
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long delay = latency.toMillis() + (jitter.isZero() ? 0 : random.nextLong(jitter.toMillis() + 1));
+            Thread.sleep(delay);
+
+            int pick = random.nextInt(TITLES.length);
+            String content = String.format("{\"action\":\"CREATE\",\"title\":\"%s\",\"searchTitle\":null,"
+                            + "\"startDate\":\"%s\",\"startTime\":\"%02d:%s\",\"category\":\"%s\",\"priority\":\"MEDIUM\"}",
+                    TITLES[pick], LocalDate.now().plusDays(random.nextInt(30)), 8 + random.nextInt(11),
+                    random.nextBoolean() ? "00" : "30", CATEGORIES[pick]);
+            String response = "{\"id\":\"stub\",\"object\":\"chat.completion\",\"choices\":[{\"index\":0,"
+                    + "\"message\":{\"role\":\"assistant\",\"content\":" + quote(content) + "},\"finish_reason\":\"stop\"}]}";
+            byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            exchange.getResponseBody().write(bytes);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
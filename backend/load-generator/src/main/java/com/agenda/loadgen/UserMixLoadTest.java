@@ -0,0 +1,344 @@
+package com.agenda.loadgen;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// End-to-end load through the gateway with a mix of user journeys. Each of `clients` virtual
+// users logs in, then repeatedly picks an action by weight (--mix), waits --think, and does it:
+//   login  POST /api/auth/token              list    GET /api/calendar/range (one week)
+//   month  GET /api/calendar/month/{month}   create  POST /api/calendar
+//   ai     POST /api/ai/extract              ws      STOMP connect + subscribe on notification-service
+// Throughput and latency percentiles are reported per route, and appended to --csv.
+//
+// By default the whole stack is started locally (LocalStack: embedded PostgreSQL and Kafka,
+// OpenRouter stub, services from their jars) and seeded with --users x --events-per-user events:
+//   mvn -DskipTests install && mvn -pl load-generator exec:java@user-mix \
+//       -Dexec.args="--users 2000 --events-per-user 1000 --clients 500 --duration 120s --ai-latency 1500ms"
+// --gateway URL (with --notification URL, and --jdbc-url to seed) drives a running stack instead.
+public class UserMixLoadTest {
+
+    private static final String DEFAULT_MIX = "login=5,list=45,month=15,create=15,ai=10,ws=10";
+    private static final String[] PROMPTS = {"Réunion avec l'équipe demain à 10h", "Dentiste vendredi à 14h30",
+            "Match de foot samedi 18h", "Dîner avec des amis le 12/12/2026 à 20h"};
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = HttpLoadBenchmark.parseOptions(args);
+        int users = Integer.parseInt(options.getOrDefault("users", "1000"));
+        int eventsPerUser = Integer.parseInt(options.getOrDefault("events-per-user", "1000"));
+        int clients = Integer.parseInt(options.getOrDefault("clients", "200"));
+        Duration think = HttpLoadBenchmark.parseDuration(options.getOrDefault("think", "0ms"));
+        Duration warmup = HttpLoadBenchmark.parseDuration(options.getOrDefault("warmup", "15s"));
+        Duration duration = HttpLoadBenchmark.parseDuration(options.getOrDefault("duration", "60s"));
+        Map<String, Integer> mix = parseMix(options.getOrDefault("mix", DEFAULT_MIX));
+        String label = options.getOrDefault("label", "run");
+        boolean seed = Boolean.parseBoolean(options.getOrDefault("seed", "true"));
+
+        LocalStack stack = null;
+        try {
+            String gateway = options.get("gateway");
+            String notification = options.get("notification");
+            if (gateway == null) {
+                stack = LocalStack.start(new LocalStack.Settings(
+                        Path.of(options.getOrDefault("backend-dir", ".")).toAbsolutePath(),
+                        Path.of(options.getOrDefault("logs", "load-generator/target/stack-logs")),
+                        Integer.parseInt(options.getOrDefault("base-port", "18000")),
+                        Integer.parseInt(options.getOrDefault("partitions", "12")),
+                        HttpLoadBenchmark.parseDuration(options.getOrDefault("ai-latency", "800ms")),
+                        HttpLoadBenchmark.parseDuration(options.getOrDefault("ai-jitter", "400ms")),
+                        options.getOrDefault("heap", "512m"),
+                        Boolean.parseBoolean(options.getOrDefault("virtual-threads", "false"))));
+                gateway = stack.gatewayUrl();
+                notification = stack.notificationUrl();
+            }
+            if (seed) {
+                try (Connection connection = stack != null ? stack.openConnection() : DriverManager.getConnection(
+                        HttpLoadBenchmark.required(options, "jdbc-url"),
+                        options.getOrDefault("jdbc-user", "postgres"), options.getOrDefault("jdbc-password", ""))) {
+                    EventSeeder.seedUsers(connection, users);
+                    EventSeeder.seedEvents(connection, users, eventsPerUser);
+                }
+            }
+            Map<String, LatencyRecorder.Stats> stats = run(gateway, notification, users, clients, think, warmup, duration, mix);
+            report(stats, label, clients, duration, options.get("csv"));
+        } finally {
+            if (stack != null) {
+                stack.close();
+            }
+        }
+    }
+
+    private static Map<String, LatencyRecorder.Stats> run(String gateway, String notification, int users, int clients,
+                                                          Duration think, Duration warmup, Duration duration,
+                                                          Map<String, Integer> mix) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long measureUntil = measureFrom + duration.toNanos();
+        List<Map<String, LatencyRecorder>> recorders = new ArrayList<>(clients);
+
+        System.out.printf("[LOAD] %d clients over %d users, mix %s: %s warmup + %s measured%n",
+                clients, users, mix, warmup, duration);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                Map<String, LatencyRecorder> routes = new LinkedHashMap<>();
+                recorders.add(routes);
+                VirtualUser user = new VirtualUser(client, gateway, notification, EventSeeder.username(i % users), routes);
+                executor.submit(() -> user.run(mix, think, measureFrom, measureUntil));
+            }
+        }
+
+        Map<String, List<LatencyRecorder>> byRoute = new TreeMap<>();
+        recorders.forEach(routes -> routes.forEach((route, recorder) ->
+                byRoute.computeIfAbsent(route, r -> new ArrayList<>()).add(recorder)));
+        Map<String, LatencyRecorder.Stats> stats = new LinkedHashMap<>();
+        byRoute.forEach((route, list) -> stats.put(route, LatencyRecorder.merge(list)));
+        return stats;
+    }
+
+    private static void report(Map<String, LatencyRecorder.Stats> stats, String label, int clients, Duration duration,
+                               String csv) throws IOException {
+        double seconds = duration.toNanos() / 1e9;
+        System.out.printf("%n[LOAD] %s%n%-28s %10s %8s %10s %9s %9s %9s %9s %9s%n", label,
+                "route", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map.Entry<String, LatencyRecorder.Stats> entry : stats.entrySet()) {
+            LatencyRecorder.Stats s = entry.getValue();
+            System.out.printf(Locale.ROOT, "%-28s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", entry.getKey(),
+                    s.count(), s.errors(), s.count() / seconds, s.percentile(50), s.percentile(90),
+                    s.percentile(99), s.percentile(99.9), s.max());
+        }
+        if (csv == null) {
+            return;
+        }
+        Path path = Path.of(csv);
+        boolean header = !Files.exists(path);
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+            if (header) {
+                out.println("label,route,clients,requests,errors,throughput_rps,p50_ms,p90_ms,p99_ms,p999_ms,max_ms");
+            }
+            for (Map.Entry<String, LatencyRecorder.Stats> entry : stats.entrySet()) {
+                LatencyRecorder.Stats s = entry.getValue();
+                out.printf(Locale.ROOT, "%s,%s,%d,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f,%.3f%n", label, entry.getKey(), clients,
+                        s.count(), s.errors(), s.count() / seconds, s.percentile(50), s.percentile(90),
+                        s.percentile(99), s.percentile(99.9), s.max());
+            }
+        }
+    }
+
+    // "login=5,list=45,..." -> weights, in the order given
+    static Map<String, Integer> parseMix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String part : value.split(",")) {
+            String[] pair = part.trim().split("=");
+            if (pair.length != 2 || !VirtualUser.ACTIONS.contains(pair[0])) {
+                throw new IllegalArgumentException("Bad --mix entry '" + part + "', actions are " + VirtualUser.ACTIONS);
+            }
+            mix.put(pair[0], Integer.parseInt(pair[1]));
+        }
+        return mix;
+    }
+
+    // One simulated user: its own recorders, so the hot loop shares nothing with other clients
+    private static final class VirtualUser {
+
+        static final List<String> ACTIONS = List.of("login", "list", "month", "create", "ai", "ws");
+
+        private final HttpClient client;
+        private final String gateway;
+        private final String notification;
+        private final String username;
+        private final Map<String, LatencyRecorder> routes;
+        private String token;
+
+        VirtualUser(HttpClient client, String gateway, String notification, String username, Map<String, LatencyRecorder> routes) {
+            this.client = client;
+            this.gateway = gateway;
+            this.notification = notification;
+            this.username = username;
+            this.routes = routes;
+        }
+
+        void run(Map<String, Integer> mix, Duration think, long measureFrom, long measureUntil) {
+            int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+            try {
+                timed("POST /api/auth/token", this::login, measureFrom);
+                long now;
+                while ((now = System.nanoTime()) < measureUntil) {
+                    String action = pick(mix, total);
+                    switch (action) {
+                        case "login" -> timed("POST /api/auth/token", this::login, measureFrom);
+                        case "list" -> timed("GET /api/calendar/range", this::listWeek, measureFrom);
+                        case "month" -> timed("GET /api/calendar/month", this::month, measureFrom);
+                        case "create" -> timed("POST /api/calendar", this::create, measureFrom);
+                        case "ai" -> timed("POST /api/ai/extract", this::extract, measureFrom);
+                        case "ws" -> timed("WS subscribe", this::subscribe, measureFrom);
+                        default -> throw new IllegalStateException(action);
+                    }
+                    if (!think.isZero() && now < measureUntil) {
+                        Thread.sleep(think.toMillis());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void timed(String route, Action action, long measureFrom) throws InterruptedException {
+            long start = System.nanoTime();
+            boolean ok;
+            try {
+                ok = action.run();
+            } catch (IOException e) {
+                ok = false;
+            }
+            if (start >= measureFrom) {
+                LatencyRecorder recorder = routes.computeIfAbsent(route, r -> new LatencyRecorder());
+                if (ok) {
+                    recorder.record(System.nanoTime() - start);
+                } else {
+                    recorder.error();
+                }
+            }
+        }
+
+        private boolean login() throws IOException, InterruptedException {
+            HttpResponse<String> response = client.send(json(URI.create(gateway + "/api/auth/token"),
+                    "{\"username\":\"" + username + "\",\"password\":\"" + EventSeeder.PASSWORD + "\"}"), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 200) {
+                token = response.body();
+                return true;
+            }
+            return false;
+        }
+
+        private boolean listWeek() throws IOException, InterruptedException {
+            LocalDate from = LocalDate.now().plusDays(ThreadLocalRandom.current().nextInt(-60, 60));
+            return send(authorized(URI.create(gateway + "/api/calendar/range?from=" + from + "&to=" + from.plusDays(6))).GET());
+        }
+
+        private boolean month() throws IOException, InterruptedException {
+            YearMonth month = YearMonth.now().plusMonths(ThreadLocalRandom.current().nextInt(-3, 4));
+            return send(authorized(URI.create(gateway + "/api/calendar/month/" + month)).GET());
+        }
+
+        private boolean create() throws IOException, InterruptedException {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            String body = String.format("{\"title\":\"Charge %d\",\"startDate\":\"%s\",\"startTime\":\"%02d:%s\","
+                            + "\"category\":\"WORK\",\"priority\":\"MEDIUM\"}", random.nextInt(1_000_000),
+                    LocalDate.now().plusDays(random.nextInt(30)), 8 + random.nextInt(11), random.nextBoolean() ? "00" : "30");
+            return send(authorized(URI.create(gateway + "/api/calendar"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body)));
+        }
+
+        private boolean extract() throws IOException, InterruptedException {
+            String prompt = PROMPTS[ThreadLocalRandom.current().nextInt(PROMPTS.length)];
+            return send(authorized(URI.create(gateway + "/api/ai/extract"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"text\":\"" + prompt + "\"}")));
+        }
+
+        // What the frontend does on page load: STOMP CONNECT, wait for CONNECTED, SUBSCRIBE
+        private boolean subscribe() throws InterruptedException {
+            CompletableFuture<Void> connected = new CompletableFuture<>();
+            URI uri = URI.create(notification.replaceFirst("^http", "ws") + "/ws/notifications/websocket");
+            WebSocket.Listener listener = new WebSocket.Listener() {
+                @Override
+                public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+                    if (data.toString().startsWith("CONNECTED")) {
+                        connected.complete(null);
+                    } else if (data.toString().startsWith("ERROR")) {
+                        connected.completeExceptionally(new IllegalStateException(data.toString()));
+                    }
+                    webSocket.request(1);
+                    return null;
+                }
+
+                @Override
+                public void onError(WebSocket webSocket, Throwable error) {
+                    connected.completeExceptionally(error);
+                }
+            };
+            WebSocket socket = null;
+            try {
+                socket = client.newWebSocketBuilder().buildAsync(uri, listener).get(10, TimeUnit.SECONDS);
+                socket.sendText("CONNECT\naccept-version:1.2\nhost:localhost\nheart-beat:0,0\nAuthorization:Bearer " + token
+                        + "\n\n\u0000", true);
+                connected.get(10, TimeUnit.SECONDS);
+                socket.sendText("SUBSCRIBE\nid:sub-0\ndestination:/user/queue/notifications\n\n\u0000", true)
+                        .get(10, TimeUnit.SECONDS);
+                return true;
+            } catch (Exception e) {
+                if (e instanceof InterruptedException) {
+                    throw (InterruptedException) e;
+                }
+                return false;
+            } finally {
+                if (socket != null) {
+                    socket.sendClose(WebSocket.NORMAL_CLOSURE, "").orTimeout(5, TimeUnit.SECONDS).exceptionally(e -> null);
+                }
+            }
+        }
+
+        private HttpRequest.Builder authorized(URI uri) {
+            return HttpRequest.newBuilder(uri)
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Authorization", "Bearer " + token);
+        }
+
+        private HttpRequest json(URI uri, String body) {
+            return HttpRequest.newBuilder(uri)
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+
+        private boolean send(HttpRequest.Builder request) throws IOException, InterruptedException {
+            return client.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode() < 400;
+        }
+
+        private static String pick(Map<String, Integer> mix, int total) {
+            int ticket = ThreadLocalRandom.current().nextInt(total);
+            for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+                ticket -= entry.getValue();
+                if (ticket < 0) {
+                    return entry.getKey();
+                }
+            }
+            throw new IllegalStateException("empty mix");
+        }
+
+        @FunctionalInterface
+        private interface Action {
+            boolean run() throws IOException, InterruptedException;
+        }
+    }
+}
@@ -1,62 +1,82 @@
 package com.agenda.notification;
 
+import com.agenda.contracts.EventNotification;
+import com.agenda.contracts.Topics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Service;
 
-import java.util.Map;
+import java.time.Duration;
 
 @Service
+@Slf4j
 public class KafkaEventConsumer {
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
-
-    @KafkaListener(topics = "event-notifications", groupId = "notification-group")
-    public void consumeEventNotification(Map<String, Object> event) {
-        System.out.println("===========================================");
-        System.out.println("[KAFKA CONSUMER] Received event from Kafka:");
-        System.out.println("  Type: " + event.get("type"));
-        System.out.println("  Title: " + event.get("title"));
-        System.out.println("  User: " + event.get("userId"));
-        System.out.println("  Date: " + event.get("startDate"));
-        System.out.println("===========================================");
+    private NotificationSessions notificationSessions;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ReminderScheduler reminderScheduler;
+
+    private Timer delayTimer;
+    private Timer sendTimer;
+
+    // delay: age of the record when it reaches us (outbox relay delay plus consumer lag)
+    @PostConstruct
+    void registerMeters() {
+        delayTimer = Timer.builder("notification.kafka.delay").publishPercentileHistogram().register(meterRegistry);
+        sendTimer = meterRegistry.timer("notification.websocket.send", "source", "kafka");
+    }
+
+    // Records are keyed by userId, so one user's events are always handled by the same thread,
+    // in order; different users are spread over the partitions and handled in parallel
+    @KafkaListener(topics = Topics.EVENT_NOTIFICATIONS, groupId = "notification-group",
+            concurrency = "${notification.kafka.concurrency:3}")
+    public void consumeEventNotification(EventNotification event, @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long timestamp) {
+        delayTimer.record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - timestamp)));
+        reminderScheduler.onEventChange(event);
+        // Bulk ICS imports would push one toast per imported event
+        if ("IMPORTED".equals(event.type())) {
+            return;
+        }
+        log.debug("kafka event type={} user={} id={} date={}", event.type(), event.userId(), event.id(), event.startDate());
 
         // Create notification message
         NotificationMessage notification = new NotificationMessage();
-        notification.setType((String) event.get("type"));
-        notification.setUserId((String) event.get("userId"));
-        notification.setTitle((String) event.get("title"));
+        notification.setType(event.type());
+        notification.setUserId(event.userId());
+        notification.setTitle(event.title());
         
-        Object eventId = event.get("id");
-        notification.setEventId(eventId != null ? eventId.toString() : null);
+        notification.setEventId(event.id() != null ? event.id().toString() : null);
         
         // Set appropriate message based on event type
-        String type = (String) event.getOrDefault("type", "CREATED");
+        String type = event.type() != null ? event.type() : "CREATED";
         switch (type) {
             case "CREATED":
-                notification.setMessage("Nouvel événement créé: " + event.get("title"));
+                notification.setMessage("Nouvel événement créé: " + event.title());
                 break;
             case "AI_EXTRACTED":
-                notification.setMessage("IA a extrait: " + event.get("title"));
+                notification.setMessage("IA a extrait: " + event.title());
                 break;
             case "REMINDER":
-                notification.setMessage("Rappel: " + event.get("title") + " le " + event.get("startDate"));
+                notification.setMessage("Rappel: " + event.title() + " le " + event.startDate());
                 break;
             default:
-                notification.setMessage("Événement: " + event.get("title"));
+                notification.setMessage("Événement: " + event.title());
         }
 
-        // Send to all subscribers via WebSocket
-        messagingTemplate.convertAndSend("/topic/notifications", notification);
-        
-        // Also send to user-specific topic
-        String userId = (String) event.get("userId");
-        if (userId != null) {
-            messagingTemplate.convertAndSend("/topic/notifications/" + userId, notification);
-        }
-        
-        System.out.println("[WEBSOCKET] Notification sent to /topic/notifications");
+        Timer.Sample sample = Timer.start(meterRegistry);
+        // Only to the sessions of the event's owner
+        notificationSessions.send(event.userId(), notification);
+        sample.stop(sendTimer);
     }
 }
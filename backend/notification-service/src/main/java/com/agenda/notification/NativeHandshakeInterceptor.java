@@ -0,0 +1,38 @@
+package com.agenda.notification;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.util.Map;
+
+// Handshakes of the native WebSocket endpoint. Marks the session as native, since only those
+// can receive binary frames (SockJS carries text), and counts how many clients offer
+// permessage-deflate, which Tomcat then negotiates.
+@Component
+public class NativeHandshakeInterceptor implements HandshakeInterceptor {
+
+    static final String NATIVE_ATTRIBUTE = "notification.native";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response, WebSocketHandler wsHandler,
+                                   Map<String, Object> attributes) {
+        attributes.put(NATIVE_ATTRIBUTE, Boolean.TRUE);
+        boolean deflate = request.getHeaders().getOrEmpty("Sec-WebSocket-Extensions").stream()
+                .anyMatch(value -> value.contains("permessage-deflate"));
+        meterRegistry.counter("notification.websocket.handshakes", "deflate", String.valueOf(deflate)).increment();
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response, WebSocketHandler wsHandler,
+                               Exception exception) {
+    }
+}
@@ -1,19 +1,25 @@
 package com.agenda.notification;
 
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/notifications")
 @CrossOrigin(origins = "*")
+@Slf4j
 public class NotificationController {
 
+    private static final int MAX_INBOX_PAGE = 500;
+
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private NotificationSessions notificationSessions;
 
     @Autowired
     private ReminderScheduler reminderScheduler;
@@ -29,6 +35,21 @@ public class NotificationController {
                 "reminders", "active"));
     }
 
+    // Stored notifications of the user after `after` (exclusive), oldest first: a client that
+    // reconnects passes the id of the last notification it has and gets what it missed
+    @GetMapping
+    public ResponseEntity<byte[]> inbox(
+            @RequestHeader(value = "X-User-Id", required = false) String userId,
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "100") int limit) throws IOException {
+        if (userId == null || userId.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(notificationSessions.history(userId, after, Math.max(1, Math.min(limit, MAX_INBOX_PAGE))));
+    }
+
     // Manual test endpoint to send a notification
     @PostMapping("/test")
     public ResponseEntity<String> testNotification(@RequestBody Map<String, String> body) {
@@ -38,10 +59,10 @@ public class NotificationController {
 
         NotificationMessage notification = new NotificationMessage("TEST", userId, title, message);
 
-        // Send to all subscribers
-        messagingTemplate.convertAndSend("/topic/notifications", notification);
+        // Send to the sessions of that user
+        notificationSessions.send(userId, notification);
 
-        System.out.println("[TEST] Notification sent: " + title);
+        log.info("test notification sent user={} title={}", userId, title);
 
         return ResponseEntity.ok("Notification sent: " + title);
     }
@@ -0,0 +1,108 @@
+package com.agenda.notification;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.List;
+
+// Compact binary form of notifications, for native WebSocket sessions that ask for it (CONNECT
+// header notification-encoding:binary). A frame is
+//   magic (0xAD) | version | count (varint) | per notification: field mask (varint), present fields
+// with the fields in mask order: id (varint), type (token), title, message (length-prefixed
+// UTF-8), event id (varint), timestamp (epoch ms, varint). The user id is left out: it is the
+// session's own user. Varints and tokens are those of the event contracts (ContractCodec); the
+// frontend decodes frames in notification-frame.ts.
+final class NotificationFrames {
+
+    static final byte MAGIC = (byte) 0xAD;
+    static final int VERSION = 1;
+
+    private static final List<String> TYPES = List.of("CREATED", "UPDATED", "DELETED", "AI_EXTRACTED", "IMPORTED",
+            "REMINDER", "TEST");
+
+    private static final int ID = 1;
+    private static final int TYPE = 1 << 1;
+    private static final int TITLE = 1 << 2;
+    private static final int MESSAGE = 1 << 3;
+    private static final int EVENT_ID = 1 << 4;
+    private static final int TIMESTAMP = 1 << 5;
+
+    private NotificationFrames() {
+    }
+
+    static byte[] encode(List<NotificationMessage> notifications) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 * notifications.size());
+        out.write(MAGIC);
+        out.write(VERSION);
+        writeVarLong(out, notifications.size());
+        for (NotificationMessage notification : notifications) {
+            Long id = asLong(notification.getId());
+            Long eventId = asLong(notification.getEventId());
+            int mask = (id != null ? ID : 0)
+                    | (notification.getType() != null ? TYPE : 0)
+                    | (notification.getTitle() != null ? TITLE : 0)
+                    | (notification.getMessage() != null ? MESSAGE : 0)
+                    | (eventId != null ? EVENT_ID : 0)
+                    | (notification.getTimestamp() != null ? TIMESTAMP : 0);
+            writeVarLong(out, mask);
+            if (id != null) {
+                writeVarLong(out, id);
+            }
+            if (notification.getType() != null) {
+                writeToken(out, notification.getType());
+            }
+            if (notification.getTitle() != null) {
+                writeString(out, notification.getTitle());
+            }
+            if (notification.getMessage() != null) {
+                writeString(out, notification.getMessage());
+            }
+            if (eventId != null) {
+                writeVarLong(out, eventId);
+            }
+            if (notification.getTimestamp() != null) {
+                writeVarLong(out, notification.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    // Known types take one byte; anything else is written as (dictionary size + length, bytes)
+    private static void writeToken(ByteArrayOutputStream out, String value) {
+        int index = TYPES.indexOf(value);
+        if (index >= 0) {
+            writeVarLong(out, index);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, TYPES.size() + (long) bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    // Ids are sent as numbers when they are numeric, which ours are
+    private static Long asLong(String value) {
+        if (value == null || value.isEmpty() || value.length() > 18) {
+            return null;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isDigit(value.charAt(i))) {
+                return null;
+            }
+        }
+        return Long.parseLong(value);
+    }
+}
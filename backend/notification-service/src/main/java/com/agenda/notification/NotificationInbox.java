@@ -0,0 +1,312 @@
+package com.agenda.notification;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.LongFunction;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Every notification sent, per user, so a client that was offline can fetch what it missed
+// (GET /api/notifications?after=<id>). Records are appended to segment files and never rewritten;
+// a segment is deleted as a whole once all its records are past the retention. Each user has an
+// in-memory index of their records' positions in id order, rebuilt by one scan at startup. A
+// burst for one user is a run of adjacent records, read back with a single positional read.
+//
+// Ids are the send time in ms shifted left by 10 bits, or the previous id + 1 if that is not
+// greater: monotonic within the process and ordered by time across restarts.
+// Appends reach the page cache at once: a crash of the process loses nothing.
+public class NotificationInbox implements Closeable {
+
+    static final int ID_SHIFT = 10;
+    // length, crc, id, user id length; the length counts the bytes after itself
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 2;
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+    private static final String SUFFIX = ".log";
+
+    private final Path dir;
+    private final long segmentBytes;
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+    private final Map<String, UserIndex> users = new HashMap<>();
+    private Segment active;
+    private long lastId;
+
+    private static final class Segment {
+        final int seq;
+        final Path file;
+        final FileChannel channel;
+        long firstId = -1; // -1 while empty
+        long size;
+
+        Segment(int seq, Path file, FileChannel channel) {
+            this.seq = seq;
+            this.file = file;
+            this.channel = channel;
+        }
+    }
+
+    // One user's records in id order, live from `start` to `end`; a position is segment << 32 | offset
+    private static final class UserIndex {
+        long[] ids = new long[8];
+        long[] positions = new long[8];
+        int[] lengths = new int[8];
+        int start;
+        int end;
+
+        void add(long id, long position, int length) {
+            if (end == ids.length) {
+                int live = end - start;
+                int capacity = live * 2 > ids.length ? ids.length * 2 : ids.length;
+                ids = move(ids, capacity);
+                positions = move(positions, capacity);
+                lengths = Arrays.copyOfRange(lengths, start, start + capacity);
+                start = 0;
+                end = live;
+            }
+            ids[end] = id;
+            positions[end] = position;
+            lengths[end] = length;
+            end++;
+        }
+
+        // Index of the first record with an id greater than `after`
+        int firstAfter(long after) {
+            int low = start;
+            int high = end;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (ids[mid] <= after) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private long[] move(long[] values, int capacity) {
+            return Arrays.copyOfRange(values, start, start + capacity);
+        }
+    }
+
+    private NotificationInbox(Path dir, long segmentBytes) {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+    }
+
+    // Indexes the segments in `dir` (created if missing); a record cut short by a crash ends its segment
+    public static NotificationInbox open(Path dir, long segmentBytes) throws IOException {
+        Files.createDirectories(dir);
+        NotificationInbox inbox = new NotificationInbox(dir, segmentBytes);
+        List<Integer> seqs;
+        try (Stream<Path> files = Files.list(dir)) {
+            seqs = files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(SUFFIX))
+                    .map(name -> Integer.valueOf(name.substring(0, name.length() - SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+        for (int seq : seqs) {
+            inbox.scan(inbox.openSegment(seq));
+        }
+        if (inbox.active == null) {
+            inbox.openSegment(0);
+        }
+        return inbox;
+    }
+
+    // Stores one notification of `userId`. The payload is built under the lock from the id it
+    // gets, so a user's records are in id order; returns that id.
+    public synchronized long append(String userId, long now, LongFunction<byte[]> payloadOf) throws IOException {
+        long id = Math.max(lastId + 1, now << ID_SHIFT);
+        byte[] user = userId.getBytes(StandardCharsets.UTF_8);
+        byte[] payload = payloadOf.apply(id);
+        int length = HEADER_BYTES + user.length + payload.length;
+        if (length > MAX_RECORD_BYTES) {
+            throw new IOException("notification of " + length + " bytes");
+        }
+        ByteBuffer record = ByteBuffer.allocate(length);
+        record.putInt(length - 4).putInt(0).putLong(id).putShort((short) user.length).put(user).put(payload);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 8, length - 8);
+        record.putInt(4, (int) crc.getValue());
+        record.flip();
+
+        if (active.size > 0 && active.size + length > segmentBytes) {
+            openSegment(active.seq + 1);
+        }
+        long offset = active.size;
+        while (record.hasRemaining()) {
+            active.channel.write(record, offset + record.position());
+        }
+        active.size += length;
+        if (active.firstId < 0) {
+            active.firstId = id;
+        }
+        lastId = id;
+        users.computeIfAbsent(userId, u -> new UserIndex()).add(id, (long) active.seq << 32 | offset, length);
+        return id;
+    }
+
+    // Payloads of the user's notifications with an id greater than `after`, oldest first.
+    // Reads happen outside the lock; records of a segment expired meanwhile are skipped.
+    public List<byte[]> read(String userId, long after, int limit) throws IOException {
+        long[] positions;
+        int[] lengths;
+        synchronized (this) {
+            UserIndex index = users.get(userId);
+            if (index == null) {
+                return List.of();
+            }
+            int from = index.firstAfter(after);
+            int to = from + Math.min(limit, index.end - from);
+            positions = Arrays.copyOfRange(index.positions, from, to);
+            lengths = Arrays.copyOfRange(index.lengths, from, to);
+        }
+        List<byte[]> payloads = new ArrayList<>(positions.length);
+        for (int i = 0; i < positions.length; ) {
+            int seq = (int) (positions[i] >>> 32);
+            long offset = positions[i] & 0xFFFFFFFFL;
+            // Extend the read over the following records that are adjacent in the same segment
+            int j = i + 1;
+            long runEnd = offset + lengths[i];
+            while (j < positions.length && positions[j] == ((long) seq << 32 | runEnd)) {
+                runEnd += lengths[j];
+                j++;
+            }
+            Segment segment;
+            synchronized (this) {
+                segment = segments.get(seq);
+            }
+            if (segment != null) {
+                try {
+                    ByteBuffer run = ByteBuffer.allocate((int) (runEnd - offset));
+                    while (run.hasRemaining()) {
+                        if (segment.channel.read(run, offset + run.position()) < 0) {
+                            break;
+                        }
+                    }
+                    run.flip();
+                    for (int k = i; k < j && run.remaining() >= HEADER_BYTES; k++) {
+                        int next = run.position() + lengths[k];
+                        run.position(run.position() + HEADER_BYTES - 2);
+                        int userBytes = run.getShort() & 0xFFFF;
+                        byte[] payload = new byte[lengths[k] - HEADER_BYTES - userBytes];
+                        run.position(run.position() + userBytes).get(payload);
+                        payloads.add(payload);
+                        run.position(next);
+                    }
+                } catch (ClosedChannelException e) {
+                    // expired while we were reading
+                }
+            }
+            i = j;
+        }
+        return payloads;
+    }
+
+    // Deletes the segments whose records all have an id below `beforeId`; returns how many
+    public synchronized int expire(long beforeId) throws IOException {
+        int deleted = 0;
+        for (Iterator<Segment> it = segments.values().iterator(); it.hasNext(); ) {
+            Segment segment = it.next();
+            Map.Entry<Integer, Segment> next = segments.higherEntry(segment.seq);
+            if (next == null || next.getValue().firstId < 0 || next.getValue().firstId > beforeId) {
+                break; // the active segment, or one that still holds recent records
+            }
+            segment.channel.close();
+            Files.deleteIfExists(segment.file);
+            it.remove();
+            deleted++;
+        }
+        if (deleted > 0) {
+            long oldest = segments.firstEntry().getValue().firstId;
+            for (Iterator<UserIndex> it = users.values().iterator(); it.hasNext(); ) {
+                UserIndex index = it.next();
+                index.start = oldest < 0 ? index.end : index.firstAfter(oldest - 1);
+                if (index.start == index.end) {
+                    it.remove();
+                }
+            }
+        }
+        return deleted;
+    }
+
+    public synchronized int users() {
+        return users.size();
+    }
+
+    public synchronized long bytes() {
+        return segments.values().stream().mapToLong(segment -> segment.size).sum();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (Segment segment : segments.values()) {
+            segment.channel.force(false);
+            segment.channel.close();
+        }
+    }
+
+    private Segment openSegment(int seq) throws IOException {
+        Path file = dir.resolve(String.format("%010d%s", seq, SUFFIX));
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (active != null) {
+            active.channel.force(false);
+        }
+        Segment segment = new Segment(seq, file, channel);
+        segments.put(seq, segment);
+        active = segment;
+        return segment;
+    }
+
+    // Indexes the valid records of a segment and cuts off whatever follows them
+    private void scan(Segment segment) throws IOException {
+        long fileSize = segment.channel.size();
+        if (fileSize > 0) {
+            MappedByteBuffer log = segment.channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            CRC32 crc = new CRC32();
+            while (log.remaining() >= HEADER_BYTES) {
+                int offset = log.position();
+                int length = log.getInt() + 4;
+                if (length < HEADER_BYTES || length > MAX_RECORD_BYTES || offset + length > fileSize) {
+                    break;
+                }
+                int checksum = log.getInt();
+                crc.reset();
+                crc.update(log.slice(offset + 8, length - 8));
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                long id = log.getLong();
+                byte[] user = new byte[log.getShort() & 0xFFFF];
+                log.get(user);
+                log.position(offset + length);
+                if (segment.firstId < 0) {
+                    segment.firstId = id;
+                }
+                lastId = Math.max(lastId, id);
+                users.computeIfAbsent(new String(user, StandardCharsets.UTF_8), u -> new UserIndex())
+                        .add(id, (long) segment.seq << 32 | offset, length);
+                segment.size = offset + length;
+            }
+        }
+        if (segment.size < fileSize) {
+            segment.channel.truncate(segment.size);
+        }
+    }
+}
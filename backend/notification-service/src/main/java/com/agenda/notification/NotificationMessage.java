@@ -5,7 +5,7 @@ import java.time.LocalDateTime;
 
 @Data
 public class NotificationMessage {
-    private String id;
+    private String id;  // assigned when stored in the inbox: increasing, see NotificationInbox
     private String type;  // EVENT_CREATED, REMINDER, AI_EXTRACTED
     private String userId;
     private String title;
@@ -14,7 +14,6 @@ public class NotificationMessage {
     private LocalDateTime timestamp;
     
     public NotificationMessage() {
-        this.id = String.valueOf(System.currentTimeMillis());
         this.timestamp = LocalDateTime.now();
     }
     
@@ -0,0 +1,470 @@
+package com.agenda.notification;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.socket.messaging.SessionConnectEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Connected WebSocket sessions per user. A notification is first stored in the user's
+// NotificationInbox, which gives it its id, then serialized once and queued on each of its
+// user's sessions only; nobody else receives it.
+//
+// Each session has at most one notification in the outbound channel at a time: the next one is
+// written when the previous one has been handed to the socket (afterMessageHandled), so a slow
+// client only fills its own queue, never the shared outbound threads. That queue is bounded:
+// a queued notification is replaced by a newer one of the same type for the same event, and when
+// the queue is full the oldest is dropped. A client that stops reading altogether is closed by
+// the transport's send time limit (WebSocketConfig).
+@Component
+@Slf4j
+public class NotificationSessions implements ExecutorChannelInterceptor {
+
+    public static final String DESTINATION = "/user/queue/notifications";
+    // Internal header marking our messages on the outbound channel; not written to the frame
+    private static final String QUEUED_HEADER = "notificationSessions.queued";
+    private static final String DIGEST = "DIGEST";
+    // CONNECT header by which a native session asks for NotificationFrames
+    static final String ENCODING_HEADER = "notification-encoding";
+    static final String BINARY_ENCODING = "binary";
+
+    @Autowired
+    @Lazy // the channel is built from WebSocketConfig, which registers this interceptor on it
+    @Qualifier("clientOutboundChannel")
+    private MessageChannel clientOutboundChannel;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${notification.websocket.queue-size:32}")
+    private int queueSize;
+
+    @Value("${notification.websocket.digest-window:100ms}")
+    private Duration digestWindow;
+
+    @Value("${notification.inbox.dir:data/inbox}")
+    private String inboxDir;
+
+    @Value("${notification.inbox.segment-size:64MB}")
+    private DataSize inboxSegmentSize;
+
+    @Value("${notification.inbox.retention:7d}")
+    private Duration inboxRetention;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Set<Session>> byUser = new ConcurrentHashMap<>();
+    // Users whose digest window is open, with what arrived since it was last flushed
+    private final Map<String, List<NotificationMessage>> digests = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+    private NotificationInbox inbox;
+
+    private Counter delivered;
+    private Counter coalesced;
+    private Counter droppedFull;
+    private Counter droppedOffline;
+    private Counter droppedRejected;
+    private DistributionSummary digestSize;
+    private DistributionSummary jsonBytes;
+    private DistributionSummary binaryBytes;
+
+    // One frame in both encodings; an encoding no session of the user asked for is null
+    private record Queued(String type, String eventId, byte[] json, byte[] binary) {
+    }
+
+    private static final class Session {
+        final String id;
+        final String userId;
+        final boolean binary; // NotificationFrames instead of JSON
+        final ArrayDeque<Queued> queue = new ArrayDeque<>();
+        String subscriptionId; // null until the client subscribed
+        boolean inFlight;
+
+        Session(String id, String userId, boolean binary) {
+            this.id = id;
+            this.userId = userId;
+            this.binary = binary;
+        }
+    }
+
+    // delivered: frames written to a socket; coalesced: notifications replaced by a newer one;
+    // digest.size: notifications per frame; frame.bytes: payload size per encoding
+    @PostConstruct
+    void start() throws IOException {
+        inbox = NotificationInbox.open(Path.of(inboxDir), inboxSegmentSize.toBytes());
+        log.info("notification inbox loaded dir={} users={} bytes={}", inboxDir, inbox.users(), inbox.bytes());
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("notification-sessions").daemon().factory());
+        scheduler.scheduleWithFixedDelay(this::expireInbox, 1, 60, TimeUnit.MINUTES);
+        meterRegistry.gauge("notification.inbox.bytes", inbox, NotificationInbox::bytes);
+        digestSize = DistributionSummary.builder("notification.websocket.digest.size").register(meterRegistry);
+        jsonBytes = DistributionSummary.builder("notification.websocket.frame.bytes").tag("encoding", "json").register(meterRegistry);
+        binaryBytes = DistributionSummary.builder("notification.websocket.frame.bytes").tag("encoding", "binary").register(meterRegistry);
+        delivered = meterRegistry.counter("notification.websocket.delivered");
+        coalesced = meterRegistry.counter("notification.websocket.coalesced");
+        droppedFull = meterRegistry.counter("notification.websocket.dropped", "reason", "queue-full");
+        droppedOffline = meterRegistry.counter("notification.websocket.dropped", "reason", "offline");
+        droppedRejected = meterRegistry.counter("notification.websocket.dropped", "reason", "rejected");
+        meterRegistry.gauge("notification.websocket.sessions", sessions, Map::size);
+        meterRegistry.gauge("notification.websocket.queued", this, NotificationSessions::queued);
+    }
+
+    // Stores the notification and sends it to every session of its user. The first one of a burst
+    // goes out at once and opens a digest window; what arrives for the user until the window
+    // closes is sent as one frame, a JSON array, and the window stays open as long as
+    // notifications keep coming.
+    public void send(String userId, NotificationMessage notification) {
+        if (userId != null) {
+            store(userId, notification);
+        }
+        if (userId == null || !byUser.containsKey(userId)) {
+            droppedOffline.increment();
+            return;
+        }
+        if (digestWindow.isZero()) {
+            deliver(userId, List.of(notification));
+            return;
+        }
+        boolean[] leading = new boolean[1];
+        digests.compute(userId, (id, pending) -> {
+            if (pending == null) {
+                leading[0] = true;
+                return new ArrayList<>();
+            }
+            pending.add(notification);
+            return pending;
+        });
+        if (leading[0]) {
+            deliver(userId, List.of(notification));
+            scheduler.schedule(() -> flushDigest(userId), digestWindow.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // The stored notifications of the user after `after`, oldest first, as a JSON array
+    public byte[] history(String userId, long after, int limit) throws IOException {
+        List<byte[]> payloads = inbox.read(userId, after, limit);
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        json.write('[');
+        for (int i = 0; i < payloads.size(); i++) {
+            if (i > 0) {
+                json.write(',');
+            }
+            json.write(payloads.get(i));
+        }
+        json.write(']');
+        return json.toByteArray();
+    }
+
+    private void store(String userId, NotificationMessage notification) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            inbox.append(userId, System.currentTimeMillis(), id -> {
+                notification.setId(Long.toString(id));
+                try {
+                    return objectMapper.writeValueAsBytes(notification);
+                } catch (JsonProcessingException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException | UncheckedIOException e) {
+            meterRegistry.counter("notification.inbox.errors").increment();
+            log.warn("notification not stored user={} error={}", userId, e.getMessage());
+        } finally {
+            sample.stop(meterRegistry.timer("notification.inbox.append"));
+        }
+    }
+
+    private void expireInbox() {
+        long cutoff = System.currentTimeMillis() - inboxRetention.toMillis();
+        try {
+            int deleted = inbox.expire(cutoff << NotificationInbox.ID_SHIFT);
+            if (deleted > 0) {
+                log.info("notification inbox expired segments={} users={}", deleted, inbox.users());
+            }
+        } catch (IOException e) {
+            log.warn("notification inbox not expired error={}", e.getMessage());
+        }
+    }
+
+    private void flushDigest(String userId) {
+        List<List<NotificationMessage>> flushed = new ArrayList<>(1);
+        digests.compute(userId, (id, pending) -> {
+            if (pending == null || pending.isEmpty()) {
+                return null; // quiet for a whole window: the next notification is sent at once
+            }
+            flushed.add(pending);
+            return new ArrayList<>();
+        });
+        if (flushed.isEmpty()) {
+            return;
+        }
+        scheduler.schedule(() -> flushDigest(userId), digestWindow.toMillis(), TimeUnit.MILLISECONDS);
+        try {
+            deliver(userId, flushed.get(0));
+        } catch (Exception e) {
+            log.warn("digest not sent user={} error={}", userId, e.getMessage());
+        }
+    }
+
+    // Serializes the notifications once per encoding in use, as a single object or a digest array
+    // in JSON, and queues the frame on each session of the user. In a digest only the last
+    // notification of a type for an event is kept.
+    private void deliver(String userId, List<NotificationMessage> notifications) {
+        Set<Session> userSessions = byUser.get(userId);
+        // A snapshot, so that a session connecting meanwhile does not miss the encoding it needs
+        List<Session> targets = userSessions != null ? List.copyOf(userSessions) : List.of();
+        if (targets.isEmpty()) {
+            droppedOffline.increment(notifications.size());
+            return;
+        }
+        if (notifications.size() > 1) {
+            Map<Object, NotificationMessage> latest = new LinkedHashMap<>();
+            for (NotificationMessage notification : notifications) {
+                Object key = notification.getEventId() != null
+                        ? Arrays.asList(notification.getType(), notification.getEventId())
+                        : new Object();
+                latest.remove(key);
+                latest.put(key, notification);
+            }
+            coalesced.increment(notifications.size() - latest.size());
+            notifications = new ArrayList<>(latest.values());
+        }
+        digestSize.record(notifications.size());
+        boolean anyJson = targets.stream().anyMatch(session -> !session.binary);
+        boolean anyBinary = targets.stream().anyMatch(session -> session.binary);
+        Queued queued;
+        try {
+            boolean single = notifications.size() == 1;
+            byte[] json = anyJson ? objectMapper.writeValueAsBytes(single ? notifications.get(0) : notifications) : null;
+            byte[] binary = anyBinary ? NotificationFrames.encode(notifications) : null;
+            if (json != null) {
+                jsonBytes.record(json.length);
+            }
+            if (binary != null) {
+                binaryBytes.record(binary.length);
+            }
+            queued = single
+                    ? new Queued(notifications.get(0).getType(), notifications.get(0).getEventId(), json, binary)
+                    : new Queued(DIGEST, null, json, binary);
+        } catch (JsonProcessingException e) {
+            log.warn("notification not serialized user={} error={}", userId, e.getMessage());
+            return;
+        }
+        for (Session session : targets) {
+            Queued next;
+            synchronized (session) {
+                offer(session, queued);
+                next = takeNext(session);
+            }
+            if (next != null) {
+                write(session, next);
+            }
+        }
+    }
+
+    @PreDestroy
+    void stop() throws IOException {
+        scheduler.shutdownNow();
+        inbox.close();
+    }
+
+    @EventListener
+    public void onConnect(SessionConnectEvent event) {
+        Principal user = event.getUser();
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        if (user == null || sessionId == null) {
+            return; // CONNECT was rejected by StompAuthInterceptor
+        }
+        // Binary frames only where the client asked for them and the transport is not SockJS
+        Map<String, Object> attributes = SimpMessageHeaderAccessor.getSessionAttributes(event.getMessage().getHeaders());
+        boolean binary = attributes != null && Boolean.TRUE.equals(attributes.get(NativeHandshakeInterceptor.NATIVE_ATTRIBUTE))
+                && BINARY_ENCODING.equals(StompHeaderAccessor.wrap(event.getMessage()).getFirstNativeHeader(ENCODING_HEADER));
+        Session session = new Session(sessionId, user.getName(), binary);
+        sessions.put(sessionId, session);
+        // Inside compute, so a concurrent disconnect cannot drop the set we add to
+        byUser.compute(session.userId, (id, userSessions) -> {
+            Set<Session> updated = userSessions != null ? userSessions : ConcurrentHashMap.newKeySet();
+            updated.add(session);
+            return updated;
+        });
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        Session session = sessions.get(accessor.getSessionId());
+        if (session == null || !DESTINATION.equals(accessor.getDestination())) {
+            return;
+        }
+        Queued next;
+        synchronized (session) {
+            session.subscriptionId = accessor.getSubscriptionId();
+            next = takeNext(session);
+        }
+        if (next != null) {
+            write(session, next);
+        }
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        Session session = sessions.get(accessor.getSessionId());
+        if (session != null) {
+            synchronized (session) {
+                if (Objects.equals(session.subscriptionId, accessor.getSubscriptionId())) {
+                    session.subscriptionId = null;
+                }
+            }
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Session session = sessions.remove(event.getSessionId());
+        if (session == null) {
+            return;
+        }
+        byUser.computeIfPresent(session.userId, (id, userSessions) -> {
+            userSessions.remove(session);
+            return userSessions.isEmpty() ? null : userSessions;
+        });
+        synchronized (session) {
+            session.queue.clear();
+        }
+    }
+
+    // Runs on the outbound thread once our message was written (or failed): sends the next one
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        if (message.getHeaders().get(QUEUED_HEADER) == null) {
+            return;
+        }
+        Session session = sessions.get(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()));
+        if (session == null) {
+            return;
+        }
+        if (ex == null) {
+            delivered.increment();
+        }
+        Queued next;
+        synchronized (session) {
+            session.inFlight = false;
+            next = takeNext(session);
+        }
+        if (next != null) {
+            write(session, next);
+        }
+    }
+
+    private void offer(Session session, Queued queued) {
+        if (queued.eventId() != null) {
+            for (Iterator<Queued> it = session.queue.iterator(); it.hasNext(); ) {
+                Queued old = it.next();
+                if (queued.eventId().equals(old.eventId()) && Objects.equals(queued.type(), old.type())) {
+                    it.remove();
+                    coalesced.increment();
+                    break;
+                }
+            }
+        }
+        if (session.queue.size() >= queueSize) {
+            session.queue.poll();
+            droppedFull.increment();
+        }
+        session.queue.add(queued);
+    }
+
+    // The next notification to write, if the session is subscribed and has none in flight
+    private Queued takeNext(Session session) {
+        if (session.inFlight || session.subscriptionId == null || session.queue.isEmpty()) {
+            return null;
+        }
+        session.inFlight = true;
+        return session.queue.poll();
+    }
+
+    // A MESSAGE frame for the session's subscription, straight to the outbound channel: user
+    // notifications need no broker lookup
+    private void write(Session session, Queued queued) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(session.id);
+        accessor.setSubscriptionId(session.subscriptionId);
+        accessor.setDestination(DESTINATION);
+        // application/octet-stream is what makes Spring send the frame as a binary WebSocket message
+        accessor.setContentType(session.binary ? MimeTypeUtils.APPLICATION_OCTET_STREAM : MimeTypeUtils.APPLICATION_JSON);
+        accessor.setHeader(QUEUED_HEADER, Boolean.TRUE);
+        try {
+            byte[] payload = session.binary ? queued.binary() : queued.json();
+            clientOutboundChannel.send(MessageBuilder.createMessage(payload, accessor.getMessageHeaders()));
+        } catch (Exception e) {
+            // Not accepted (e.g. executor saturated): count it lost and go on with the queue
+            log.warn("notification not written session={} user={} error={}", session.id, session.userId, e.getMessage());
+            droppedRejected.increment();
+            Queued next;
+            synchronized (session) {
+                session.inFlight = false;
+                next = takeNext(session);
+            }
+            if (next != null) {
+                write(session, next);
+            }
+        }
+    }
+
+    private int queued() {
+        int total = 0;
+        for (Session session : sessions.values()) {
+            synchronized (session) {
+                total += session.queue.size();
+            }
+        }
+        return total;
+    }
+}
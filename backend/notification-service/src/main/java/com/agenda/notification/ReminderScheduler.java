@@ -1,126 +1,490 @@
 package com.agenda.notification;
 
+import com.agenda.contracts.EventNotification;
+import com.agenda.contracts.Topics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
+// Sends reminders 24 h, 1 h and 30 min before each event from an in-memory timing wheel.
+// The wheel is loaded from calendar-service /upcoming for the next `horizon-days` days at
+// startup, extended by one day when the date changes, and kept current from the
+// event-notifications stream (onEventChange). A one-second tick fires what is due, and sent
+// reminders are recorded in a SentReminderStore so a restart does not send them again.
+// Nothing calls calendar-service on the tick or listener threads: horizon loads and series
+// fetches (records of series only carry the series start; one request per user for all of
+// their changed series) run one at a time on a loader thread.
+//
+// With several instances, each one only handles the users of the event-notifications
+// partitions its consumer owns (ReminderShardListener): it loads their horizon when a
+// partition is assigned and drops their reminders when it is revoked.
 @Service
 @EnableScheduling
+@Slf4j
 public class ReminderScheduler {
 
+    // Event dates and times are the user's wall clock
+    static final ZoneId ZONE = ZoneId.of("Europe/Paris");
+    private static final long TICK_MILLIS = 1000;
+    private static final int WHEEL_SIZE = 64;
+    private static final int MAX_DAYS_PER_REQUEST = 7; // calendar-service /upcoming limit
+    private static final long LOAD_RETRY_MILLIS = 30_000;
+    private static final long COMPACT_INTERVAL_MILLIS = 3_600_000;
+
+    enum Window {
+        DAY("24HOUR", Duration.ofHours(24), "📅 Demain: \"%s\""),
+        HOUR("1HOUR", Duration.ofHours(1), "⏰ Dans 1 heure: \"%s\""),
+        HALF_HOUR("30MIN", Duration.ofMinutes(30), "⏰ Dans 30 min: \"%s\"");
+
+        final String type;
+        final Duration before;
+        final String message;
+
+        Window(String type, Duration before, String message) {
+            this.type = type;
+            this.before = before;
+            this.message = message;
+        }
+    }
+
+    // One reminder of one occurrence (the occurrences of a series share the event id)
+    record Reminder(Long eventId, LocalDate date, String userId, String title, Window window, long deadline) {
+    }
+
+    private record Occurrence(Long eventId, String userId, String title, LocalDate date, LocalTime time) {
+    }
+
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private NotificationSessions notificationSessions;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${notification.calendar-url:http://calendar-service:8082}")
+    private String calendarServiceUrl;
+
+    @Value("${notification.reminders.horizon-days:2}")
+    private int horizonDays;
+
+    // A reminder up to this late (e.g. due while the service was restarting) is still sent
+    @Value("${notification.reminders.grace:5m}")
+    private Duration grace;
+
+    @Value("${notification.reminders.store-file:data/sent-reminders.db}")
+    private String storeFile;
 
     private final RestTemplate restTemplate = new RestTemplate();
-    
-    // Cache to track sent reminders: format "eventId_reminderType" (e.g. "5_30MIN", "5_1HOUR", "5_24HOUR")
-    private final Set<String> sentReminders = new HashSet<>();
+    private final TimingWheel<Reminder> wheel = new TimingWheel<>(TICK_MILLIS, WHEEL_SIZE, System.currentTimeMillis());
+    // Pending reminders per event id, cancelled when the event changes
+    private final Map<Long, List<TimingWheel.Timeout<Reminder>>> byEvent = new HashMap<>();
+    // Last day whose events are in the wheel; null until the first load succeeded
+    private LocalDate loadedUntil;
+    // Partitions of event-notifications assigned to this instance, and those of them whose
+    // horizon is not loaded yet
+    private final Set<Integer> owned = new HashSet<>();
+    private final Set<Integer> unloaded = new HashSet<>();
+    private int partitionCount;
+    private boolean horizonLoadQueued;
+    // Records received while a horizon load is in flight, applied again once it is scheduled:
+    // its snapshot may predate them. Null when no load is running.
+    private List<EventNotification> changedDuringLoad;
+    // Only the first load after startup sends the reminders that fell due while we were down;
+    // reminders due before a partition was taken over were its previous owner's
+    private boolean recovered;
+    private long nextLoadAttempt;
+    private SentReminderStore sentReminders;
+    private long nextCompaction;
+    // Series whose occurrences are waiting to be fetched, per user; a user is present while a
+    // fetch for them is queued. seriesLoads: the fetch in flight for a series, dropped when a
+    // newer record of it arrives so that the fetch does not schedule outdated occurrences.
+    private final Map<String, Set<Long>> staleSeries = new HashMap<>();
+    private final Map<Long, Object> seriesLoads = new HashMap<>();
+    private ExecutorService loader;
 
-    // Run every minute to check for upcoming events
-    @Scheduled(fixedRate = 60000)
-    public void checkUpcomingEvents() {
-        System.out.println("[REMINDER] Checking for upcoming events...");
+    private Timer sendTimer;
+    private Timer delayTimer;
 
-        try {
-            // Get events from calendar-service
-            String calendarUrl = "http://calendar-service:8082/api/calendar/upcoming";
-            
-            ResponseEntity<List<Map<String, Object>>> response = restTemplate.exchange(
-                calendarUrl,
-                HttpMethod.GET,
-                null,
-                new ParameterizedTypeReference<List<Map<String, Object>>>() {}
-            );
-            
-            List<Map<String, Object>> events = response.getBody();
-            if (events != null && !events.isEmpty()) {
-                System.out.println("[REMINDER] Found " + events.size() + " upcoming events");
-                checkAndSendReminders(events);
-            } else {
-                System.out.println("[REMINDER] No upcoming events found");
+    // delay: how late a reminder fired relative to its exact offset
+    @PostConstruct
+    void start() throws IOException {
+        long now = System.currentTimeMillis();
+        sentReminders = SentReminderStore.open(Path.of(storeFile), now);
+        nextCompaction = now + COMPACT_INTERVAL_MILLIS;
+        loader = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("reminder-loader").daemon().factory());
+        log.info("sent reminders loaded file={} entries={}", storeFile, sentReminders.size());
+        sendTimer = meterRegistry.timer("notification.websocket.send", "source", "reminder");
+        delayTimer = Timer.builder("notification.reminder.delay").publishPercentileHistogram().register(meterRegistry);
+        meterRegistry.gauge("notification.reminder.pending", wheel, TimingWheel::size);
+        meterRegistry.gauge("notification.reminder.sent.entries", sentReminders, SentReminderStore::size);
+    }
+
+    @PreDestroy
+    void stop() throws IOException {
+        loader.shutdownNow();
+        sentReminders.close();
+    }
+
+    @Scheduled(fixedRate = TICK_MILLIS)
+    public void tick() {
+        requestHorizonLoad();
+        List<Reminder> due = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            wheel.advance(now, reminder -> {
+                forget(reminder);
+                due.add(reminder);
+            });
+        }
+        due.forEach(this::fire);
+        if (now >= nextCompaction) {
+            nextCompaction = now + COMPACT_INTERVAL_MILLIS;
+            try {
+                sentReminders.compact(now);
+            } catch (IOException e) {
+                log.warn("sent reminders not compacted error={}", e.getMessage());
             }
+        }
+    }
 
+    // Called for every event-notifications record, in order per user. Never blocks on
+    // calendar-service: series are handed to the loader thread (loadSeries).
+    public void onEventChange(EventNotification event) {
+        if (event.id() == null) {
+            return;
+        }
+        synchronized (this) {
+            if (changedDuringLoad != null) {
+                changedDuringLoad.add(event);
+            }
+        }
+        apply(event);
+    }
+
+    private void apply(EventNotification event) {
+        LocalDate until;
+        synchronized (this) {
+            cancel(event.id());
+            seriesLoads.remove(event.id());
+            Set<Long> stale = staleSeries.get(event.userId());
+            if (stale != null) {
+                stale.remove(event.id());
+            }
+            until = loadedUntil;
+            if (until != null && event.recurring() && !"DELETED".equals(event.type()) && event.userId() != null) {
+                if (!staleSeries.containsKey(event.userId())) {
+                    loader.execute(() -> loadSeries(event.userId()));
+                }
+                staleSeries.computeIfAbsent(event.userId(), user -> new HashSet<>()).add(event.id());
+                return;
+            }
+        }
+        if ("DELETED".equals(event.type()) || until == null) {
+            return; // before the first load, the load will pick the event up
+        }
+        LocalDate today = LocalDate.now(ZONE);
+        if (event.startDate() != null && !event.startDate().isBefore(today) && !event.startDate().isAfter(until)) {
+            scheduleAll(List.of(new Occurrence(event.id(), event.userId(), event.title(), event.startDate(), event.startTime())),
+                    System.currentTimeMillis(), occurrence -> true);
+        }
+    }
+
+    // Occurrences of the user's changed series, from one /range request however many series
+    // changed meanwhile (an ICS import brings many at once)
+    private void loadSeries(String userId) {
+        Object load = new Object();
+        Set<Long> ids;
+        LocalDate until;
+        synchronized (this) {
+            ids = staleSeries.remove(userId);
+            until = loadedUntil;
+            if (ids == null || ids.isEmpty()) {
+                return;
+            }
+            ids.forEach(id -> seriesLoads.put(id, load));
+        }
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set("X-User-Id", userId);
+            List<Map<String, Object>> events = restTemplate.exchange(
+                    calendarServiceUrl + "/api/calendar/range?from=" + LocalDate.now(ZONE) + "&to=" + until,
+                    HttpMethod.GET, new HttpEntity<>(headers),
+                    new ParameterizedTypeReference<List<Map<String, Object>>>() {}).getBody();
+            if (events != null) {
+                scheduleAll(events.stream()
+                        .filter(e -> ids.contains(asLong(e.get("id"))))
+                        .map(this::occurrence)
+                        .toList(), System.currentTimeMillis(), occurrence -> seriesLoads.get(occurrence.eventId()) == load);
+            }
+            log.debug("reminder series loaded user={} series={}", userId, ids.size());
         } catch (Exception e) {
-            System.out.println("[REMINDER] Error checking events: " + e.getMessage());
+            meterRegistry.counter("notification.reminder.errors").increment();
+            log.warn("reminder series not loaded user={} series={} error={}", userId, ids, e.getMessage());
+        } finally {
+            synchronized (this) {
+                ids.forEach(id -> seriesLoads.remove(id, load));
+            }
         }
     }
 
-    // Check events and send appropriate reminders
-    public void checkAndSendReminders(List<Map<String, Object>> events) {
-        // Use Europe/Paris timezone to match user's local time
-        LocalDateTime now = LocalDateTime.now(ZoneId.of("Europe/Paris"));
+    // Consumer threads report their partitions here (ReminderShardListener). A new partition's
+    // horizon load is queued right away; records of its users handled before the load are
+    // applied again after it.
+    public void assign(Collection<Integer> partitions, int count) {
+        synchronized (this) {
+            partitionCount = count;
+            for (Integer partition : partitions) {
+                if (owned.add(partition)) {
+                    unloaded.add(partition);
+                }
+            }
+        }
+        log.info("reminder partitions assigned={} count={}", partitions, count);
+        requestHorizonLoad();
+    }
 
-        for (Map<String, Object> event : events) {
-            try {
-                String startDate = (String) event.get("startDate");
-                String startTime = (String) event.get("startTime");
-                String title = (String) event.get("title");
-                String userId = (String) event.get("userId");
-                Object eventId = event.get("id");
-
-                if (startDate == null || startTime == null)
-                    continue;
-
-                LocalDateTime eventDateTime = parseEventDateTime(startDate, startTime);
-                long minutesUntilEvent = java.time.Duration.between(now, eventDateTime).toMinutes();
-
-                // Only check specific reminder windows and send ONCE per type
-                String reminderMessage = null;
-                String reminderType = null;
-
-                // 30 minutes before (25-35 min window to catch it)
-                if (minutesUntilEvent >= 25 && minutesUntilEvent <= 35) {
-                    reminderType = "30MIN";
-                    reminderMessage = "⏰ Dans 30 min: \"" + title + "\"";
+    // The reminders of the revoked partitions' users are now sent by their new owner
+    public void revoke(Collection<Integer> partitions) {
+        int dropped = 0;
+        synchronized (this) {
+            owned.removeAll(partitions);
+            unloaded.removeAll(partitions);
+            for (Iterator<List<TimingWheel.Timeout<Reminder>>> it = byEvent.values().iterator(); it.hasNext(); ) {
+                List<TimingWheel.Timeout<Reminder>> pending = it.next();
+                String userId = pending.get(0).task().userId();
+                if (userId == null || partitions.contains(Topics.partitionOf(userId, partitionCount))) {
+                    pending.forEach(TimingWheel.Timeout::cancel);
+                    dropped += pending.size();
+                    it.remove();
                 }
-                // 1 hour before (55-65 min window)
-                else if (minutesUntilEvent >= 55 && minutesUntilEvent <= 65) {
-                    reminderType = "1HOUR";
-                    reminderMessage = "⏰ Dans 1 heure: \"" + title + "\"";
+            }
+        }
+        log.info("reminder partitions revoked={} dropped={}", partitions, dropped);
+    }
+
+    // Queues a horizon load on the loader thread when one is due and none is queued yet
+    private void requestHorizonLoad() {
+        long now = System.currentTimeMillis();
+        LocalDate target = LocalDate.now(ZONE).plusDays(horizonDays);
+        synchronized (this) {
+            if (horizonLoadQueued || now < nextLoadAttempt || partitionCount == 0
+                    || (unloaded.isEmpty() && loadedUntil != null && !loadedUntil.isBefore(target))) {
+                return;
+            }
+            horizonLoadQueued = true;
+        }
+        loader.execute(this::extendHorizon);
+    }
+
+    // Loads what is missing from the horizon: all of it for newly assigned partitions, the day
+    // that entered it at each date change for the others. Retried every 30 s on failure.
+    private void extendHorizon() {
+        long now = System.currentTimeMillis();
+        LocalDate today = LocalDate.now(ZONE);
+        LocalDate target = today.plusDays(horizonDays);
+        LocalDate from;
+        Set<Integer> fresh;
+        Set<Integer> loaded;
+        long notBefore;
+        synchronized (this) {
+            horizonLoadQueued = false;
+            if (now < nextLoadAttempt || partitionCount == 0) {
+                return;
+            }
+            from = loadedUntil != null && !loadedUntil.isBefore(today) ? loadedUntil.plusDays(1) : today;
+            fresh = new HashSet<>(unloaded);
+            loaded = new HashSet<>(owned);
+            loaded.removeAll(unloaded);
+            notBefore = recovered ? now : now - grace.toMillis();
+            if (fresh.isEmpty() && from.isAfter(target)) {
+                return;
+            }
+            changedDuringLoad = new ArrayList<>();
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            if (!fresh.isEmpty()) {
+                load(today, target, fresh, notBefore);
+                synchronized (this) {
+                    unloaded.removeAll(fresh);
                 }
-                // 24 hours before (1435-1445 min window = ~24h)
-                else if (minutesUntilEvent >= 1435 && minutesUntilEvent <= 1445) {
-                    reminderType = "24HOUR";
-                    reminderMessage = "📅 Demain: \"" + title + "\"";
+            }
+            if (!from.isAfter(target) && !loaded.isEmpty()) {
+                load(from, target, loaded, notBefore);
+            }
+            synchronized (this) {
+                loadedUntil = target;
+                recovered = true;
+            }
+        } catch (Exception e) {
+            synchronized (this) {
+                nextLoadAttempt = now + LOAD_RETRY_MILLIS;
+            }
+            meterRegistry.counter("notification.reminder.errors").increment();
+            log.warn("reminder horizon not loaded from={} error={}", from, e.getMessage());
+        } finally {
+            sample.stop(meterRegistry.timer("notification.reminder.load"));
+            applyChangedDuringLoad();
+        }
+    }
+
+    // Re-applies, in order, the records that arrived during the load, until none arrived while
+    // re-applying: the last record of each event is applied last, over the load's snapshot
+    private void applyChangedDuringLoad() {
+        while (true) {
+            List<EventNotification> changed;
+            synchronized (this) {
+                changed = changedDuringLoad;
+                if (changed.isEmpty()) {
+                    changedDuringLoad = null;
+                    return;
                 }
+                changedDuringLoad = new ArrayList<>();
+            }
+            changed.forEach(this::apply);
+        }
+    }
+
+    private void load(LocalDate from, LocalDate to, Set<Integer> partitions, long notBefore) {
+        String shard = partitions.stream().map(String::valueOf).collect(Collectors.joining(","));
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(MAX_DAYS_PER_REQUEST)) {
+            LocalDate last = day.plusDays(MAX_DAYS_PER_REQUEST - 1).isAfter(to) ? to : day.plusDays(MAX_DAYS_PER_REQUEST - 1);
+            List<Map<String, Object>> events = restTemplate.exchange(
+                    calendarServiceUrl + "/api/calendar/upcoming?from=" + day + "&to=" + last
+                            + "&partitions=" + shard + "&partitionCount=" + partitionCount,
+                    HttpMethod.GET, null,
+                    new ParameterizedTypeReference<List<Map<String, Object>>>() {}).getBody();
+            List<Occurrence> occurrences = events != null ? events.stream().map(this::occurrence).toList() : List.of();
+            scheduleAll(occurrences, notBefore, occurrence -> true);
+            log.info("reminders loaded from={} to={} partitions={} events={} pending={}",
+                    day, last, shard, occurrences.size(), wheel.size());
+        }
+    }
 
-                if (reminderMessage != null && reminderType != null) {
-                    String cacheKey = eventId + "_" + reminderType;
-                    
-                    // Only send if not already sent
-                    if (!sentReminders.contains(cacheKey)) {
-                        sendReminder(userId, title, reminderMessage, eventId);
-                        sentReminders.add(cacheKey);
-                        System.out.println("[REMINDER] ✅ Sent " + reminderType + " reminder for: " + title);
+    // An event as serialized by calendar-service
+    private Occurrence occurrence(Map<String, Object> event) {
+        String date = (String) event.get("startDate");
+        String time = (String) event.get("startTime");
+        return new Occurrence(asLong(event.get("id")), (String) event.get("userId"), (String) event.get("title"),
+                date != null ? LocalDate.parse(date) : null, time != null ? LocalTime.parse(time) : null);
+    }
+
+    // Replaces the occurrences' pending reminders. Those due now are sent at once if their time
+    // is not before `notBefore`, the others are skipped; so are occurrences no longer `current`.
+    private void scheduleAll(List<Occurrence> occurrences, long notBefore, Predicate<Occurrence> current) {
+        List<Reminder> due = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            for (Occurrence occurrence : occurrences) {
+                if (occurrence.eventId() == null || occurrence.date() == null || occurrence.time() == null) {
+                    continue; // all-day events get no reminder
+                }
+                if (!current.test(occurrence)) {
+                    continue; // the event changed again while its occurrences were fetched
+                }
+                if (occurrence.userId() == null || partitionCount == 0
+                        || !owned.contains(Topics.partitionOf(occurrence.userId(), partitionCount))) {
+                    continue; // another instance's user, or revoked while loading
+                }
+                cancel(occurrence.eventId(), occurrence.date());
+                long start = ZonedDateTime.of(occurrence.date(), occurrence.time(), ZONE).toInstant().toEpochMilli();
+                for (Window window : Window.values()) {
+                    long deadline = start - window.before.toMillis();
+                    if (deadline < notBefore || start <= now
+                            || sentReminders.contains(SentReminderStore.key(occurrence.eventId(), occurrence.date(), window.ordinal()), now)) {
+                        continue;
+                    }
+                    Reminder reminder = new Reminder(occurrence.eventId(), occurrence.date(), occurrence.userId(),
+                            occurrence.title(), window, deadline);
+                    TimingWheel.Timeout<Reminder> timeout = wheel.schedule(deadline, reminder);
+                    if (timeout != null) {
+                        byEvent.computeIfAbsent(occurrence.eventId(), id -> new ArrayList<>(3)).add(timeout);
+                    } else {
+                        due.add(reminder);
                     }
                 }
+            }
+        }
+        due.forEach(this::fire);
+    }
+
+    private void cancel(Long eventId) {
+        List<TimingWheel.Timeout<Reminder>> pending = byEvent.remove(eventId);
+        if (pending != null) {
+            pending.forEach(TimingWheel.Timeout::cancel);
+        }
+    }
 
-            } catch (Exception e) {
-                System.out.println("[REMINDER] Error processing event: " + e.getMessage());
+    private void cancel(Long eventId, LocalDate date) {
+        List<TimingWheel.Timeout<Reminder>> pending = byEvent.get(eventId);
+        if (pending != null) {
+            pending.removeIf(timeout -> timeout.task().date().equals(date) && timeout.cancel());
+            if (pending.isEmpty()) {
+                byEvent.remove(eventId);
             }
         }
     }
 
-    private LocalDateTime parseEventDateTime(String date, String time) {
-        LocalDate localDate = LocalDate.parse(date);
-        LocalTime localTime = LocalTime.parse(time, DateTimeFormatter.ofPattern("HH:mm"));
-        return LocalDateTime.of(localDate, localTime);
+    private void forget(Reminder reminder) {
+        List<TimingWheel.Timeout<Reminder>> pending = byEvent.get(reminder.eventId());
+        if (pending != null) {
+            pending.removeIf(timeout -> timeout.task() == reminder);
+            if (pending.isEmpty()) {
+                byEvent.remove(reminder.eventId());
+            }
+        }
+    }
+
+    private void fire(Reminder reminder) {
+        // The entry lives until the occurrence starts, after which no reminder of it is scheduled
+        long key = SentReminderStore.key(reminder.eventId(), reminder.date(), reminder.window().ordinal());
+        try {
+            if (!sentReminders.markSent(key, reminder.deadline() + reminder.window().before.toMillis(), System.currentTimeMillis())) {
+                meterRegistry.counter("notification.reminders.duplicates").increment();
+                return;
+            }
+        } catch (IOException e) {
+            log.warn("sent reminder not recorded event={} error={}", reminder.eventId(), e.getMessage());
+        }
+        delayTimer.record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - reminder.deadline())));
+        sendReminder(reminder.userId(), reminder.title(), String.format(reminder.window().message, reminder.title()), reminder.eventId());
+        meterRegistry.counter("notification.reminders.sent", "window", reminder.window().type).increment();
+        log.debug("reminder sent window={} user={} event={} date={}", reminder.window().type, reminder.userId(), reminder.eventId(), reminder.date());
+    }
+
+    private static Long asLong(Object value) {
+        return value instanceof Number number ? number.longValue() : null;
     }
 
     private void sendReminder(String userId, String title, String message, Object eventId) {
@@ -131,20 +495,9 @@ public class ReminderScheduler {
         notification.setMessage(message);
         notification.setEventId(eventId != null ? eventId.toString() : null);
 
-        // Send to all subscribers
-        messagingTemplate.convertAndSend("/topic/notifications", notification);
-
-        // Send to user-specific topic
-        if (userId != null) {
-            messagingTemplate.convertAndSend("/topic/notifications/" + userId, notification);
-        }
-
-        System.out.println("===========================================");
-        System.out.println("[REMINDER] Notification sent:");
-        System.out.println("  User: " + userId);
-        System.out.println("  Title: " + title);
-        System.out.println("  Message: " + message);
-        System.out.println("===========================================");
+        Timer.Sample sample = Timer.start(meterRegistry);
+        notificationSessions.send(userId, notification);
+        sample.stop(sendTimer);
     }
 
     // Manual trigger for testing
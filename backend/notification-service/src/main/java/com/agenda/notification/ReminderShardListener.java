@@ -0,0 +1,53 @@
+package com.agenda.notification;
+
+import com.agenda.contracts.Topics;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+// Ties reminder ownership to the notification-group assignment of event-notifications: records
+// are keyed by userId, so the instance consuming a user's partition also sends their reminders.
+// Boot sets this bean on the listener container factory; with the cooperative assignor only the
+// partitions that move are revoked and assigned.
+@Component
+public class ReminderShardListener implements ConsumerAwareRebalanceListener {
+
+    @Autowired
+    private ReminderScheduler reminderScheduler;
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        List<Integer> assigned = partitionsOf(partitions);
+        if (!assigned.isEmpty()) {
+            reminderScheduler.assign(assigned, consumer.partitionsFor(Topics.EVENT_NOTIFICATIONS).size());
+        }
+    }
+
+    @Override
+    public void onPartitionsRevokedAfterCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        List<Integer> revoked = partitionsOf(partitions);
+        if (!revoked.isEmpty()) {
+            reminderScheduler.revoke(revoked);
+        }
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        List<Integer> lost = partitionsOf(partitions);
+        if (!lost.isEmpty()) {
+            reminderScheduler.revoke(lost);
+        }
+    }
+
+    private List<Integer> partitionsOf(Collection<TopicPartition> partitions) {
+        return partitions.stream()
+                .filter(p -> Topics.EVENT_NOTIFICATIONS.equals(p.topic()))
+                .map(TopicPartition::partition)
+                .toList();
+    }
+}
@@ -0,0 +1,187 @@
+package com.agenda.notification;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+// Reminders already sent, so that a restart or a reload of the horizon never sends one twice.
+// An entry is one primitive key (event id, occurrence day, window) plus the occurrence's start,
+// after which it is useless. Entries are appended to a memory-mapped file of 16-byte records and
+// indexed in an open-addressing table; compaction rewrites both with the live entries only, so
+// memory and file size follow the number of upcoming reminders rather than the uptime.
+// Appends reach the page cache at once: a crash of the process loses nothing.
+public class SentReminderStore implements Closeable {
+
+    private static final int RECORD_BYTES = 16;
+    private static final int MIN_CAPACITY = 1 << 12;
+    private static final long EMPTY = 0;
+
+    private final Path file;
+    private FileChannel channel;
+    private MappedByteBuffer log;
+    private int appended; // records in the log, live or expired
+
+    private long[] keys;
+    private long[] expiries;
+    private int size;
+
+    private SentReminderStore(Path file) {
+        this.file = file;
+    }
+
+    // Loads the live records of `file` (created if missing) and compacts it
+    public static SentReminderStore open(Path file, long now) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        SentReminderStore store = new SentReminderStore(file);
+        store.resetIndex(MIN_CAPACITY);
+        if (Files.exists(file)) {
+            try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer old = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size() - in.size() % RECORD_BYTES);
+                while (old.remaining() >= RECORD_BYTES) {
+                    long expiry = old.getLong();
+                    long key = old.getLong();
+                    if (key == EMPTY) {
+                        break; // end of the appended records
+                    }
+                    if (expiry > now) {
+                        store.index(key, expiry);
+                    }
+                }
+            }
+        }
+        store.rewrite();
+        return store;
+    }
+
+    // Event ids are sequence values, far below 2^40; the window ordinal is stored + 1 so no key is 0
+    static long key(long eventId, LocalDate date, int window) {
+        return eventId << 23 | (date.toEpochDay() & 0x1FFFFF) << 2 | (window + 1);
+    }
+
+    public synchronized boolean contains(long key, long now) {
+        int slot = find(key);
+        return keys[slot] == key && expiries[slot] > now;
+    }
+
+    // Records the reminder as sent until `expiresAt`; false if it was sent already
+    public synchronized boolean markSent(long key, long expiresAt, long now) throws IOException {
+        int slot = find(key);
+        if (keys[slot] == key && expiries[slot] > now) {
+            return false;
+        }
+        if (appended * (long) RECORD_BYTES >= log.capacity()) {
+            compact(now);
+        }
+        index(key, expiresAt);
+        // Expiry first: a record cut short by a crash has a key of 0 and ends the log
+        log.putLong(appended * RECORD_BYTES, expiresAt);
+        log.putLong(appended * RECORD_BYTES + 8, key);
+        appended++;
+        return true;
+    }
+
+    // Drops the entries whose occurrence has started, in memory and on disk
+    public synchronized void compact(long now) throws IOException {
+        long[] oldKeys = keys;
+        long[] oldExpiries = expiries;
+        int live = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY && oldExpiries[i] > now) {
+                live++;
+            }
+        }
+        resetIndex(tableSize(live));
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY && oldExpiries[i] > now) {
+                index(oldKeys[i], oldExpiries[i]);
+            }
+        }
+        rewrite();
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        log.force();
+        channel.close();
+    }
+
+    // Writes the indexed entries to a new log with room to double, then swaps it in
+    private void rewrite() throws IOException {
+        int capacity = Math.max(MIN_CAPACITY, size * 2);
+        Path next = file.resolveSibling(file.getFileName() + ".tmp");
+        FileChannel nextChannel = FileChannel.open(next, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer nextLog = nextChannel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * RECORD_BYTES);
+        int count = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                nextLog.putLong(count * RECORD_BYTES, expiries[i]);
+                nextLog.putLong(count * RECORD_BYTES + 8, keys[i]);
+                count++;
+            }
+        }
+        nextLog.force();
+        Files.move(next, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (channel != null) {
+            channel.close();
+        }
+        channel = nextChannel;
+        log = nextLog;
+        appended = count;
+    }
+
+    private void index(long key, long expiry) {
+        if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        int slot = find(key);
+        if (keys[slot] != key) {
+            keys[slot] = key;
+            size++;
+        }
+        expiries[slot] = Math.max(expiries[slot], expiry);
+    }
+
+    // Linear probing: the key's slot, or the empty slot where it would go
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldExpiries = expiries;
+        resetIndex(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                index(oldKeys[i], oldExpiries[i]);
+            }
+        }
+    }
+
+    private void resetIndex(int capacity) {
+        keys = new long[capacity];
+        expiries = new long[capacity];
+        size = 0;
+    }
+
+    private static int tableSize(int entries) {
+        return Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, entries * 4 - 1)) << 1);
+    }
+}
@@ -0,0 +1,71 @@
+package com.agenda.notification;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.security.Key;
+import java.security.Principal;
+
+// The WebSocket does not go through the gateway, so the STOMP CONNECT carries the same bearer
+// token as the REST calls and the user is its subject. Clients may only subscribe to their own
+// notification queue: there is no shared destination to listen to.
+@Component
+public class StompAuthInterceptor implements ChannelInterceptor {
+
+    public static final String SECRET = "5367566B59703373367639792F423F4528482B4D6251655468576D5A71347437";
+
+    private final Key signKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    record User(String name) implements Principal {
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+            String authHeader = accessor.getFirstNativeHeader("Authorization");
+            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+                throw reject("missing", "Missing Authorization header");
+            }
+            try {
+                String username = Jwts.parserBuilder().setSigningKey(signKey).build()
+                        .parseClaimsJws(authHeader.substring(7)).getBody().getSubject();
+                accessor.setUser(new User(username));
+            } catch (Exception e) {
+                throw reject("invalid", "Invalid token");
+            }
+        } else if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            if (accessor.getUser() == null || !NotificationSessions.DESTINATION.equals(accessor.getDestination())) {
+                throw reject("destination", "Only " + NotificationSessions.DESTINATION + " can be subscribed to");
+            }
+        }
+        return message;
+    }
+
+    // Sent back to the client as a STOMP ERROR frame, after which the session is closed
+    private MessagingException reject(String reason, String error) {
+        meterRegistry.counter("notification.websocket.rejected", "reason", reason).increment();
+        return new MessagingException(error);
+    }
+}
@@ -0,0 +1,175 @@
+package com.agenda.notification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Hierarchical timing wheel (Varghese & Lauck). Level 0 has `wheelSize` slots of `tickMillis`,
+// each level above has slots as wide as the whole level below, and levels are added on demand
+// for far deadlines. Scheduling and cancelling are O(1); a timer moves down one level when its
+// slot comes up, so it is touched at most once per level before it fires.
+// Not thread-safe: the owner serializes all calls.
+public class TimingWheel<T> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final List<Level<T>> levels = new ArrayList<>();
+    private int size;
+
+    public TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        levels.add(new Level<>(tickMillis, wheelSize, startMillis - Math.floorMod(startMillis, tickMillis)));
+    }
+
+    // Timers fire on the first tick at or after their deadline, never before. Returns null
+    // when that tick has passed already: the caller runs the task now.
+    public Timeout<T> schedule(long deadlineMillis, T task) {
+        long due = deadlineMillis + Math.floorMod(-deadlineMillis, tickMillis);
+        Timeout<T> timeout = new Timeout<>(this, deadlineMillis, due, task);
+        return place(timeout) ? timeout : null;
+    }
+
+    // Moves the wheel up to `nowMillis` and hands every timer that became due to `expired`
+    public void advance(long nowMillis, Consumer<T> expired) {
+        Level<T> bottom = levels.get(0);
+        while (bottom.currentTime + tickMillis <= nowMillis) {
+            long time = bottom.currentTime + tickMillis;
+            for (Level<T> level : levels) {
+                if (time % level.span == 0) {
+                    level.currentTime = time;
+                }
+            }
+            // Top-down: a turning level's current slot is spread over the levels below before
+            // they turn themselves; what lands below level 0's current slot is due
+            for (int i = levels.size() - 1; i >= 0; i--) {
+                Level<T> level = levels.get(i);
+                if (level.currentTime != time) {
+                    continue;
+                }
+                Bucket<T> bucket = level.slots[level.index(time)];
+                for (Timeout<T> timeout = bucket.poll(); timeout != null; timeout = bucket.poll()) {
+                    size--;
+                    if (!place(timeout)) {
+                        expired.accept(timeout.task);
+                    }
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Puts the timer in the lowest level whose range covers its due tick; false if it is due
+    private boolean place(Timeout<T> timeout) {
+        Level<T> bottom = levels.get(0);
+        if (timeout.due <= bottom.currentTime) {
+            return false;
+        }
+        for (int i = 0; ; i++) {
+            if (i == levels.size()) {
+                long span = levels.get(i - 1).span * wheelSize;
+                levels.add(new Level<>(span, wheelSize, bottom.currentTime - Math.floorMod(bottom.currentTime, span)));
+            }
+            Level<T> level = levels.get(i);
+            if (timeout.due < level.currentTime + level.span * wheelSize) {
+                level.slots[level.index(timeout.due)].add(timeout);
+                size++;
+                return true;
+            }
+        }
+    }
+
+    private static final class Level<T> {
+        final long span;
+        final Bucket<T>[] slots;
+        long currentTime;
+
+        @SuppressWarnings("unchecked")
+        Level(long span, int wheelSize, long currentTime) {
+            this.span = span;
+            this.currentTime = currentTime;
+            this.slots = new Bucket[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                slots[i] = new Bucket<>();
+            }
+        }
+
+        int index(long time) {
+            return (int) Math.floorMod(time / span, (long) slots.length);
+        }
+    }
+
+    // Circular doubly linked list around a sentinel, so a timer unlinks itself in O(1)
+    private static final class Bucket<T> {
+        final Timeout<T> head = new Timeout<>(null, 0, 0, null);
+
+        Bucket() {
+            head.prev = head;
+            head.next = head;
+        }
+
+        void add(Timeout<T> timeout) {
+            timeout.bucket = this;
+            timeout.prev = head.prev;
+            timeout.next = head;
+            head.prev.next = timeout;
+            head.prev = timeout;
+        }
+
+        Timeout<T> poll() {
+            Timeout<T> first = head.next;
+            if (first == head) {
+                return null;
+            }
+            remove(first);
+            return first;
+        }
+
+        void remove(Timeout<T> timeout) {
+            timeout.prev.next = timeout.next;
+            timeout.next.prev = timeout.prev;
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+
+    // Handle to a scheduled task
+    public static final class Timeout<T> {
+        private final TimingWheel<T> wheel;
+        private final long deadline;
+        private final long due; // deadline rounded up to a tick
+        private final T task;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+        private Bucket<T> bucket;
+
+        private Timeout(TimingWheel<T> wheel, long deadline, long due, T task) {
+            this.wheel = wheel;
+            this.deadline = deadline;
+            this.due = due;
+            this.task = task;
+        }
+
+        public long deadline() {
+            return deadline;
+        }
+
+        public T task() {
+            return task;
+        }
+
+        // False if it already fired or was cancelled
+        public boolean cancel() {
+            if (bucket == null) {
+                return false;
+            }
+            bucket.remove(this);
+            wheel.size--;
+            return true;
+        }
+    }
+}
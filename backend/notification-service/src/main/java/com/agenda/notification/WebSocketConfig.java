@@ -1,19 +1,39 @@
 package com.agenda.notification;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import java.time.Duration;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    @Autowired
+    private StompAuthInterceptor stompAuthInterceptor;
+
+    @Autowired
+    private NotificationSessions notificationSessions;
+
+    @Autowired
+    private NativeHandshakeInterceptor nativeHandshakeInterceptor;
+
+    // How long one write may block on a client that does not read before its session is closed
+    @Value("${notification.websocket.send-time-limit:10s}")
+    private Duration sendTimeLimit;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable a simple in-memory message broker for /topic destinations
-        config.enableSimpleBroker("/topic");
+        // The simple broker only answers CONNECT and heartbeats: notifications are written by
+        // NotificationSessions to the sessions of their user
+        config.enableSimpleBroker("/queue");
         // Set prefix for messages from clients to server
         config.setApplicationDestinationPrefixes("/app");
     }
@@ -24,5 +44,25 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws/notifications")
                 .setAllowedOriginPatterns("*")
                 .withSockJS();
+        // Plain WebSocket, no SockJS fallback transports: permessage-deflate when the client
+        // offers it, and binary notification frames on request (NotificationFrames)
+        registry.addEndpoint("/ws/notifications-native")
+                .setAllowedOriginPatterns("*")
+                .addInterceptors(nativeHandshakeInterceptor);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(stompAuthInterceptor);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.interceptors(notificationSessions);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit((int) sendTimeLimit.toMillis());
     }
 }
@@ -0,0 +1,170 @@
+package com.agenda.notification;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NotificationInboxTest {
+
+    // 18 bytes of header, a one-byte user id and an 8-byte payload
+    private static final int RECORD_BYTES = 27;
+    // Two records per segment
+    private static final long SEGMENT_BYTES = 2 * RECORD_BYTES + 10;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsAUsersNotificationsAfterAnId() throws Exception {
+        try (NotificationInbox inbox = NotificationInbox.open(dir, 1 << 20)) {
+            long first = append(inbox, "a", 1_000);
+            long second = append(inbox, "a", 1_000);
+            append(inbox, "b", 1_000);
+            long third = append(inbox, "a", 999);
+
+            assertThat(first).isEqualTo(1_000L << NotificationInbox.ID_SHIFT);
+            assertThat(second).isEqualTo(first + 1);
+            assertThat(third).isGreaterThan(second + 1);
+            assertThat(read(inbox, "a", 0, 10)).isEqualTo(List.of(first, second, third));
+            assertThat(read(inbox, "a", first, 10)).isEqualTo(List.of(second, third));
+            assertThat(read(inbox, "a", first, 1)).isEqualTo(List.of(second));
+            assertThat(read(inbox, "a", third, 10)).isEmpty();
+            assertThat(read(inbox, "c", 0, 10)).isEmpty();
+        }
+    }
+
+    @Test
+    void fullSegmentsRollOverAndAreReadBackAfterAReopen() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        try (NotificationInbox inbox = NotificationInbox.open(dir, SEGMENT_BYTES)) {
+            for (int i = 0; i < 8; i++) {
+                ids.add(append(inbox, "a", 1_000 + i));
+            }
+            assertThat(segmentFiles()).isEqualTo(4L);
+            assertThat(inbox.bytes()).isEqualTo(8L * RECORD_BYTES);
+            // A read spanning every segment
+            assertThat(read(inbox, "a", 0, 100)).isEqualTo(ids);
+        }
+
+        try (NotificationInbox inbox = NotificationInbox.open(dir, SEGMENT_BYTES)) {
+            assertThat(read(inbox, "a", 0, 100)).isEqualTo(ids);
+            assertThat(read(inbox, "a", ids.get(2), 3)).isEqualTo(ids.subList(3, 6));
+            // Ids keep growing across the restart, even with an earlier clock
+            assertThat(append(inbox, "a", 0)).isEqualTo(ids.get(7) + 1);
+            assertThat(segmentFiles()).isEqualTo(5L);
+        }
+    }
+
+    @Test
+    void expiryDeletesOldSegmentsAndTrimsTheIndexes() throws Exception {
+        try (NotificationInbox inbox = NotificationInbox.open(dir, SEGMENT_BYTES)) {
+            long a1 = append(inbox, "a", 1_000);
+            long a2 = append(inbox, "a", 1_001);
+            List<Long> bs = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                bs.add(append(inbox, "b", 2_000 + i));
+            }
+            assertThat(inbox.users()).isEqualTo(2);
+
+            // Nothing while the next segment still starts after the cut
+            assertThat(inbox.expire(a2)).isZero();
+            // The segment of a1 and a2 goes, plus the 5 full segments of b's first 10
+            assertThat(inbox.expire(bs.get(10))).isEqualTo(6);
+
+            assertThat(inbox.users()).isEqualTo(1);
+            assertThat(read(inbox, "a", 0, 10)).isEmpty();
+            assertThat(read(inbox, "b", 0, 100)).isEqualTo(bs.subList(10, 20));
+            assertThat(read(inbox, "b", a1, 3)).isEqualTo(bs.subList(10, 13));
+            assertThat(segmentFiles()).isEqualTo(5L);
+
+            // The trimmed index takes new records past its old capacity
+            for (int i = 0; i < 40; i++) {
+                bs.add(append(inbox, "b", 3_000 + i));
+            }
+            assertThat(read(inbox, "b", 0, 100)).isEqualTo(bs.subList(10, 60));
+            long files = segmentFiles();
+            assertThat(inbox.expire(Long.MAX_VALUE)).isEqualTo((int) files - 1);
+            assertThat(read(inbox, "b", 0, 100)).isEqualTo(bs.subList(58, 60));
+        }
+    }
+
+    @Test
+    void aRecordCutShortByACrashEndsItsSegment() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        try (NotificationInbox inbox = NotificationInbox.open(dir, 1 << 20)) {
+            for (int i = 0; i < 3; i++) {
+                ids.add(append(inbox, "a", 1_000 + i));
+            }
+        }
+        Path segment = onlySegment();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(3 * RECORD_BYTES - 5);
+        }
+
+        try (NotificationInbox inbox = NotificationInbox.open(dir, 1 << 20)) {
+            assertThat(Files.size(segment)).isEqualTo(2L * RECORD_BYTES);
+            assertThat(read(inbox, "a", 0, 10)).isEqualTo(ids.subList(0, 2));
+            // Appends resume right after the last whole record
+            long next = append(inbox, "a", 0);
+            assertThat(next).isEqualTo(ids.get(1) + 1);
+            assertThat(read(inbox, "a", ids.get(1), 10)).isEqualTo(List.of(next));
+        }
+    }
+
+    @Test
+    void aCorruptedRecordEndsItsSegment() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        try (NotificationInbox inbox = NotificationInbox.open(dir, 1 << 20)) {
+            for (int i = 0; i < 3; i++) {
+                ids.add(append(inbox, "a", 1_000 + i));
+            }
+        }
+        Path segment = onlySegment();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            // Last payload byte of the second record
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), 2 * RECORD_BYTES - 1);
+        }
+
+        try (NotificationInbox inbox = NotificationInbox.open(dir, 1 << 20)) {
+            assertThat(Files.size(segment)).isEqualTo((long) RECORD_BYTES);
+            assertThat(read(inbox, "a", 0, 10)).isEqualTo(ids.subList(0, 1));
+        }
+    }
+
+    private static long append(NotificationInbox inbox, String userId, long now) throws Exception {
+        return inbox.append(userId, now, id -> ByteBuffer.allocate(8).putLong(id).array());
+    }
+
+    // The ids the payloads were built from
+    private static List<Long> read(NotificationInbox inbox, String userId, long after, int limit) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (byte[] payload : inbox.read(userId, after, limit)) {
+            ids.add(ByteBuffer.wrap(payload).getLong());
+        }
+        return ids;
+    }
+
+    private long segmentFiles() throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.count();
+        }
+    }
+
+    private Path onlySegment() throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            List<Path> segments = files.toList();
+            assertThat(segments).hasSize(1);
+            return segments.get(0);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.agenda.notification;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SentReminderStoreTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 6, 2);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void aReminderIsSentOnceUntilItExpires() throws Exception {
+        try (SentReminderStore store = SentReminderStore.open(dir.resolve("sent.db"), 0)) {
+            long key = SentReminderStore.key(7, DAY, 1);
+
+            assertThat(store.contains(key, 100)).isFalse();
+            assertThat(store.markSent(key, 1_000, 100)).isTrue();
+            assertThat(store.markSent(key, 1_000, 200)).isFalse();
+            assertThat(store.contains(key, 999)).isTrue();
+            assertThat(store.contains(key, 1_000)).isFalse();
+            assertThat(store.markSent(key, 2_000, 1_000)).isTrue();
+            assertThat(store.size()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void keysDifferPerEventDayAndWindowAndAreNeverZero() {
+        Set<Long> keys = new HashSet<>();
+        for (long eventId : new long[]{0, 1, 2, (1L << 40) - 1}) {
+            for (LocalDate day : new LocalDate[]{DAY, DAY.plusDays(1), LocalDate.of(1970, 1, 1)}) {
+                for (int window = 0; window < 3; window++) {
+                    long key = SentReminderStore.key(eventId, day, window);
+                    assertThat(key).isNotEqualTo(0L);
+                    keys.add(key);
+                }
+            }
+        }
+        assertThat(keys).hasSize(4 * 3 * 3);
+    }
+
+    @Test
+    void liveEntriesSurviveAReopen() throws Exception {
+        Path file = dir.resolve("sent.db");
+        try (SentReminderStore store = SentReminderStore.open(file, 0)) {
+            store.markSent(SentReminderStore.key(1, DAY, 0), 1_000, 0);
+            store.markSent(SentReminderStore.key(2, DAY, 0), 5_000, 0);
+        }
+
+        try (SentReminderStore store = SentReminderStore.open(file, 2_000)) {
+            assertThat(store.size()).isEqualTo(1);
+            assertThat(store.contains(SentReminderStore.key(1, DAY, 0), 2_000)).isFalse();
+            assertThat(store.contains(SentReminderStore.key(2, DAY, 0), 2_000)).isTrue();
+        }
+    }
+
+    @Test
+    void aRecordCutShortByACrashEndsTheLog() throws Exception {
+        Path file = dir.resolve("sent.db");
+        try (SentReminderStore store = SentReminderStore.open(file, 0)) {
+            store.markSent(SentReminderStore.key(1, DAY, 0), 5_000, 0);
+            store.markSent(SentReminderStore.key(2, DAY, 0), 5_000, 0);
+        }
+        // Third record: expiry written, key not; a stray record after it must not be read
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(16).putLong(5_000).putLong(0).flip(), 32);
+            channel.write(ByteBuffer.allocate(16).putLong(5_000).putLong(SentReminderStore.key(3, DAY, 0)).flip(), 48);
+        }
+
+        try (SentReminderStore store = SentReminderStore.open(file, 0)) {
+            assertThat(store.size()).isEqualTo(2);
+            assertThat(store.contains(SentReminderStore.key(3, DAY, 0), 0)).isFalse();
+        }
+    }
+
+    @Test
+    void aFileTruncatedMidRecordKeepsTheWholeRecords() throws Exception {
+        Path file = dir.resolve("sent.db");
+        try (SentReminderStore store = SentReminderStore.open(file, 0)) {
+            store.markSent(SentReminderStore.key(1, DAY, 0), 5_000, 0);
+            store.markSent(SentReminderStore.key(2, DAY, 0), 5_000, 0);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(16 + 5);
+        }
+
+        try (SentReminderStore store = SentReminderStore.open(file, 0)) {
+            assertThat(store.size()).isEqualTo(1);
+            assertThat(store.contains(SentReminderStore.key(1, DAY, 0), 0)).isTrue();
+        }
+    }
+
+    @Test
+    void compactionDropsExpiredEntriesInMemoryAndOnDisk() throws Exception {
+        Path file = dir.resolve("sent.db");
+        try (SentReminderStore store = SentReminderStore.open(file, 0)) {
+            for (int i = 1; i <= 100; i++) {
+                store.markSent(SentReminderStore.key(i, DAY, 0), 1_000, 0);
+                store.markSent(SentReminderStore.key(i, DAY, 1), 5_000, 0);
+            }
+            store.compact(2_000);
+            assertThat(store.size()).isEqualTo(100);
+            assertThat(store.contains(SentReminderStore.key(50, DAY, 1), 2_000)).isTrue();
+        }
+
+        try (SentReminderStore store = SentReminderStore.open(file, 0)) {
+            // Gone from the file too, even when read with an earlier clock
+            assertThat(store.size()).isEqualTo(100);
+            assertThat(store.contains(SentReminderStore.key(50, DAY, 0), 0)).isFalse();
+        }
+    }
+
+    @Test
+    void theLogGrowsPastItsInitialCapacity() throws Exception {
+        Path file = dir.resolve("sent.db");
+        int count = 10_000; // the first log holds 4096 records
+        try (SentReminderStore store = SentReminderStore.open(file, 0)) {
+            for (int i = 1; i <= count; i++) {
+                assertThat(store.markSent(SentReminderStore.key(i, DAY, 2), 5_000, 0)).isTrue();
+            }
+            assertThat(store.size()).isEqualTo(count);
+        }
+
+        try (SentReminderStore store = SentReminderStore.open(file, 0)) {
+            assertThat(store.size()).isEqualTo(count);
+            for (int i = 1; i <= count; i++) {
+                assertThat(store.contains(SentReminderStore.key(i, DAY, 2), 0)).isTrue();
+            }
+        }
+        assertThat(Files.exists(dir.resolve("sent.db.tmp"))).isFalse();
+    }
+}
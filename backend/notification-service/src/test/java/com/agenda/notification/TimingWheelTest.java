@@ -0,0 +1,125 @@
+package com.agenda.notification;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    private static final long TICK = 1000;
+
+    @Test
+    void firesOnTheFirstTickAtOrAfterTheDeadline() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 8, 0);
+        List<String> fired = new ArrayList<>();
+        wheel.schedule(2500, "a");
+        wheel.schedule(3000, "b");
+
+        wheel.advance(2999, fired::add);
+        assertThat(fired).isEmpty();
+        wheel.advance(3000, fired::add);
+        assertThat(fired).containsExactlyInAnyOrder("a", "b");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void unalignedStartIsRoundedDownToATick() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 8, 1234);
+        List<String> fired = new ArrayList<>();
+        wheel.schedule(1500, "a");
+
+        wheel.advance(1999, fired::add);
+        assertThat(fired).isEmpty();
+        wheel.advance(2000, fired::add);
+        assertThat(fired).containsExactly("a");
+    }
+
+    @Test
+    void deadlinesWhoseTickPassedAreNotScheduled() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 8, 0);
+        wheel.advance(5000, task -> { });
+
+        assertThat(wheel.schedule(4000, "past")).isNull();
+        assertThat(wheel.schedule(5000, "now")).isNull();
+        assertThat(wheel.schedule(5001, "next tick")).isNotNull();
+        assertThat(wheel.size()).isEqualTo(1);
+    }
+
+    @Test
+    void farDeadlinesCascadeDownToTheirExactTick() {
+        // 8 slots: level 0 spans 8 s, level 1 64 s, level 2 512 s, level 3 4096 s
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, 8, 0);
+        long[] deadlines = {7_000, 8_000, 63_999, 64_000, 100_500, 511_000, 1_000_000};
+        for (long deadline : deadlines) {
+            wheel.schedule(deadline, deadline);
+        }
+        Map<Long, Long> firedAt = new HashMap<>();
+
+        for (long now = 0; now <= 1_100_000; now += TICK) {
+            long time = now;
+            wheel.advance(now, deadline -> firedAt.put(deadline, time));
+        }
+
+        assertThat(firedAt).hasSize(deadlines.length);
+        firedAt.forEach((deadline, time) -> assertThat(time).isEqualTo(roundUp(deadline)));
+    }
+
+    @Test
+    void cancelledTimersNeverFire() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 8, 0);
+        TimingWheel.Timeout<String> near = wheel.schedule(2000, "near");
+        TimingWheel.Timeout<String> far = wheel.schedule(90_000, "far");
+        TimingWheel.Timeout<String> kept = wheel.schedule(3000, "kept");
+        List<String> fired = new ArrayList<>();
+
+        assertThat(near.cancel()).isTrue();
+        assertThat(near.cancel()).isFalse();
+        assertThat(wheel.size()).isEqualTo(2);
+        // Cancelled after it moved down a level
+        wheel.advance(65_000, fired::add);
+        assertThat(far.cancel()).isTrue();
+        wheel.advance(100_000, fired::add);
+
+        assertThat(fired).containsExactly("kept");
+        assertThat(kept.cancel()).isFalse();
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void randomSchedulesFireOnTheirTick() {
+        Random random = new Random(42);
+        TimingWheel<long[]> wheel = new TimingWheel<>(TICK, 16, 0);
+        long now = 0;
+        int scheduled = 0;
+        int fired = 0;
+        for (int round = 0; round < 2_000; round++) {
+            for (int i = random.nextInt(5); i > 0; i--) {
+                long deadline = now + 1 + (long) (random.nextDouble() * random.nextDouble() * 3_000_000);
+                if (wheel.schedule(deadline, new long[]{deadline}) != null) {
+                    scheduled++;
+                }
+            }
+            long previous = now;
+            now += random.nextInt(20_000);
+            long current = now;
+            List<long[]> due = new ArrayList<>();
+            wheel.advance(current, due::add);
+            for (long[] task : due) {
+                // Not before its tick, and not later than this advance
+                assertThat(roundUp(task[0])).isLessThanOrEqualTo(current).isGreaterThan(previous - previous % TICK);
+            }
+            fired += due.size();
+            assertThat(wheel.size()).isEqualTo(scheduled - fired);
+        }
+    }
+
+    private static long roundUp(long deadline) {
+        return (deadline + TICK - 1) / TICK * TICK;
+    }
+}
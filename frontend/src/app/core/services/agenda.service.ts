@@ -1,7 +1,7 @@
 import { Injectable, signal, computed, inject } from '@angular/core';
 import { HttpClient } from '@angular/common/http';
 import { CalendarEvent, AIParseResponse, CATEGORY_COLORS } from '../models/calendar-event.model';
-import { tap, catchError, finalize, timeout, switchMap } from 'rxjs/operators';
+import { tap, catchError, finalize, timeout, switchMap, map } from 'rxjs/operators';
 import { of, throwError } from 'rxjs';
 
 @Injectable({ providedIn: 'root' })
@@ -71,43 +71,47 @@ export class AgendaService {
                 // Handle DELETE action
                 if (action === 'DELETE') {
                     const searchTitle = aiResponse.searchTitle || aiResponse.title;
-                    const eventToDelete = this.findEventByTitle(searchTitle);
-                    if (eventToDelete) {
-                        return this.http.delete(`${this.CALENDAR_URL}/${eventToDelete.id}`).pipe(
-                            tap(() => {
-                                this._events.update(current => current.filter(e => e.id !== eventToDelete.id));
-                                console.log('[Agenda] Event deleted via AI:', eventToDelete.title);
-                            })
-                        );
-                    } else {
-                        throw new Error(`Événement "${searchTitle}" non trouvé`);
-                    }
+                    return this.searchEvent(searchTitle).pipe(
+                        switchMap(eventToDelete => {
+                            if (!eventToDelete) {
+                                throw new Error(`Événement "${searchTitle}" non trouvé`);
+                            }
+                            return this.http.delete(`${this.CALENDAR_URL}/${eventToDelete.id}`).pipe(
+                                tap(() => {
+                                    this._events.update(current => current.filter(e => e.id !== eventToDelete.id));
+                                    console.log('[Agenda] Event deleted via AI:', eventToDelete.title);
+                                })
+                            );
+                        })
+                    );
                 }
 
                 // Handle UPDATE action
                 if (action === 'UPDATE') {
                     const searchTitle = aiResponse.searchTitle || aiResponse.title;
-                    const eventToUpdate = this.findEventByTitle(searchTitle);
-                    if (eventToUpdate) {
-                        const updateData = {
-                            title: aiResponse.title || eventToUpdate.title,
-                            startDate: aiResponse.startDate || eventToUpdate.start,
-                            startTime: aiResponse.startTime || eventToUpdate.end,
-                            category: aiResponse.category || eventToUpdate.category,
-                            priority: aiResponse.priority || eventToUpdate.priority
-                        };
-                        return this.http.put<any>(`${this.CALENDAR_URL}/${eventToUpdate.id}`, updateData).pipe(
-                            tap(updated => {
-                                const mapped = this.mapBackendEvent(updated);
-                                this._events.update(current =>
-                                    current.map(e => e.id === eventToUpdate.id ? mapped : e)
-                                );
-                                console.log('[Agenda] Event updated via AI:', mapped);
-                            })
-                        );
-                    } else {
-                        throw new Error(`Événement "${searchTitle}" non trouvé`);
-                    }
+                    return this.searchEvent(searchTitle).pipe(
+                        switchMap(eventToUpdate => {
+                            if (!eventToUpdate) {
+                                throw new Error(`Événement "${searchTitle}" non trouvé`);
+                            }
+                            const updateData = {
+                                title: aiResponse.title || eventToUpdate.title,
+                                startDate: aiResponse.startDate || eventToUpdate.start,
+                                startTime: aiResponse.startTime || eventToUpdate.end,
+                                category: aiResponse.category || eventToUpdate.category,
+                                priority: aiResponse.priority || eventToUpdate.priority
+                            };
+                            return this.http.put<any>(`${this.CALENDAR_URL}/${eventToUpdate.id}`, updateData).pipe(
+                                tap(updated => {
+                                    const mapped = this.mapBackendEvent(updated);
+                                    this._events.update(current =>
+                                        current.map(e => e.id === eventToUpdate.id ? mapped : e)
+                                    );
+                                    console.log('[Agenda] Event updated via AI:', mapped);
+                                })
+                            );
+                        })
+                    );
                 }
 
                 // Handle CREATE action (default)
@@ -205,6 +209,17 @@ export class AgendaService {
         });
     }
 
+    // Best fuzzy match on the server's search index, falling back to the loaded list
+    searchEvent(query: string) {
+        return this.http.get<any[]>(`${this.CALENDAR_URL}/search`, { params: { q: query, limit: 1 } }).pipe(
+            map(hits => hits.length > 0 ? this.mapBackendEvent(hits[0].event) : undefined),
+            catchError(err => {
+                console.error('[Agenda] Search error:', err);
+                return of(this.findEventByTitle(query));
+            })
+        );
+    }
+
     findEventByTitle(title: string): CalendarEvent | undefined {
         const lower = title.toLowerCase();
         return this._events().find(e =>
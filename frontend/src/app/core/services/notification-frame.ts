@@ -0,0 +1,60 @@
+// Decoder of the binary notification frames of notification-service (NotificationFrames.java):
+//   magic (0xAD) | version | count (varint) | per notification: field mask (varint), present fields
+// Fields in mask order: id, type (token), title, message, eventId, timestamp (epoch ms).
+const MAGIC = 0xad;
+const TYPES = ['CREATED', 'UPDATED', 'DELETED', 'AI_EXTRACTED', 'IMPORTED', 'REMINDER', 'TEST'];
+const utf8 = new TextDecoder();
+
+export function decodeNotificationFrame(bytes: Uint8Array): any[] {
+    if (bytes.length < 2 || bytes[0] !== MAGIC) {
+        throw new Error('Not a notification frame');
+    }
+    let position = 2;
+
+    // LEB128; multiplications instead of shifts so values above 2^31 (ids, timestamps) stay exact
+    const varint = (): number => {
+        let value = 0;
+        let scale = 1;
+        for (;;) {
+            const byte = bytes[position++];
+            value += (byte & 0x7f) * scale;
+            if (byte < 0x80) {
+                return value;
+            }
+            scale *= 128;
+        }
+    };
+    const text = (length: number): string => {
+        const value = utf8.decode(bytes.subarray(position, position + length));
+        position += length;
+        return value;
+    };
+
+    const count = varint();
+    const notifications: any[] = [];
+    for (let i = 0; i < count; i++) {
+        const mask = varint();
+        const notification: any = {};
+        if (mask & 1) {
+            notification.id = String(varint());
+        }
+        if (mask & 2) {
+            const token = varint();
+            notification.type = token < TYPES.length ? TYPES[token] : text(token - TYPES.length);
+        }
+        if (mask & 4) {
+            notification.title = text(varint());
+        }
+        if (mask & 8) {
+            notification.message = text(varint());
+        }
+        if (mask & 16) {
+            notification.eventId = String(varint());
+        }
+        if (mask & 32) {
+            notification.timestamp = varint();
+        }
+        notifications.push(notification);
+    }
+    return notifications;
+}
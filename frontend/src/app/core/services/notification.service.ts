@@ -1,7 +1,10 @@
 import { Injectable, signal, inject } from '@angular/core';
+import { HttpClient } from '@angular/common/http';
 import { ToastService } from './toast.service';
+import { AuthService } from './auth.service';
 import { Client } from '@stomp/stompjs';
 import SockJS from 'sockjs-client';
+import { decodeNotificationFrame } from './notification-frame';
 
 export interface Notification {
     id: string;
@@ -17,7 +20,14 @@ export interface Notification {
 @Injectable({ providedIn: 'root' })
 export class NotificationService {
     private toast = inject(ToastService);
+    private auth = inject(AuthService);
+    private http = inject(HttpClient);
+    private readonly INBOX_URL = '/api/notifications';
+    private readonly LAST_ID_KEY = 'agenda-notifications-last-id';
+    private readonly CATCH_UP_PAGE = 500; // server maximum
     private stompClient: Client | null = null;
+    // Plain WebSocket first; SockJS once it failed to connect (e.g. a proxy without upgrades)
+    private useNative = typeof WebSocket !== 'undefined';
 
     private readonly _notifications = signal<Notification[]>([]);
     private readonly _unreadCount = signal<number>(0);
@@ -33,16 +43,27 @@ export class NotificationService {
     }
 
     private connectWebSocket(): void {
-        // Use SockJS for WebSocket connection (matches backend config)
+        // Native endpoint (permessage-deflate, binary frames), SockJS endpoint as fallback
         const wsHost = window.location.hostname;
+        const nativeUrl = `ws://${wsHost}:8085/ws/notifications-native`;
         const sockJsUrl = `http://${wsHost}:8085/ws/notifications`;
 
-        console.log('[WebSocket] Connecting via SockJS to:', sockJsUrl);
-
         this.stompClient = new Client({
-            // Use SockJS instead of native WebSocket
-            webSocketFactory: () => new SockJS(sockJsUrl),
+            webSocketFactory: () => {
+                console.log('[WebSocket] Connecting to:', this.useNative ? nativeUrl : sockJsUrl);
+                return this.useNative ? new WebSocket(nativeUrl) : new SockJS(sockJsUrl);
+            },
             reconnectDelay: 5000,
+            // The server identifies the user from the same token as the REST calls (read again
+            // on every reconnect, in case the user logged in again). Native sessions ask for
+            // compact binary frames.
+            beforeConnect: () => {
+                const headers: Record<string, string> = { Authorization: `Bearer ${this.auth.getToken()}` };
+                if (this.useNative) {
+                    headers['notification-encoding'] = 'binary';
+                }
+                this.stompClient!.connectHeaders = headers;
+            },
             heartbeatIncoming: 4000,
             heartbeatOutgoing: 4000,
             debug: (str) => {
@@ -52,16 +73,28 @@ export class NotificationService {
                 console.log('[WebSocket] ✅ Connected successfully');
                 this._connected.set(true);
 
-                // Subscribe to global notifications topic
-                this.stompClient?.subscribe('/topic/notifications', (message) => {
-                    console.log('[WebSocket] Received notification:', message.body);
+                // Only this user's notifications are delivered on this queue
+                this.stompClient?.subscribe('/user/queue/notifications', (message) => {
                     try {
-                        const notification = JSON.parse(message.body);
-                        this.receiveNotification(notification);
+                        const body = message.headers['content-type'] === 'application/octet-stream'
+                            ? decodeNotificationFrame(message.binaryBody)
+                            : JSON.parse(message.body);
+                        console.log('[WebSocket] Received notification:', body);
+                        // During bursts the server sends the notifications of a short window as one
+                        // array; a binary frame is always a list
+                        if (!Array.isArray(body)) {
+                            this.receiveNotification(body);
+                        } else if (body.length === 1) {
+                            this.receiveNotification(body[0]);
+                        } else {
+                            this.receiveDigest(body);
+                        }
                     } catch (e) {
                         console.error('[WebSocket] Error parsing message:', e);
                     }
                 });
+
+                this.catchUp();
             },
             onDisconnect: () => {
                 console.log('[WebSocket] Disconnected');
@@ -73,6 +106,9 @@ export class NotificationService {
             },
             onWebSocketError: (event) => {
                 console.error('[WebSocket] Connection Error:', event);
+                if (this.useNative && !this._connected()) {
+                    this.useNative = false;
+                }
                 this._connected.set(false);
             }
         });
@@ -80,6 +116,29 @@ export class NotificationService {
         this.stompClient.activate();
     }
 
+    // Fetches what was sent while this client was offline (the server keeps every notification
+    // with an increasing id). A first visit starts from now: ids are the send time in ms x 1024.
+    // Pages are requested until one comes back short; each is applied as it arrives, so an
+    // interrupted catch-up resumes from the last id received.
+    private catchUp(after: string | null = localStorage.getItem(this.LAST_ID_KEY)): void {
+        if (!after) {
+            localStorage.setItem(this.LAST_ID_KEY, String(Date.now() * 1024));
+            return;
+        }
+        const params = { after, limit: String(this.CATCH_UP_PAGE) };
+        this.http.get<any[]>(this.INBOX_URL, { params }).subscribe({
+            next: (missed) => {
+                if (missed.length > 0) {
+                    this.receiveDigest(missed);
+                }
+                if (missed.length >= this.CATCH_UP_PAGE) {
+                    this.catchUp(String(missed[missed.length - 1].id));
+                }
+            },
+            error: (e) => console.error('[Notifications] Catch-up failed:', e)
+        });
+    }
+
     disconnect(): void {
         if (this.stompClient) {
             this.stompClient.deactivate();
@@ -118,7 +177,51 @@ export class NotificationService {
 
     // Method to receive notification from WebSocket or external source
     receiveNotification(data: any): void {
-        const notification: Notification = {
+        const notification = this.toNotification(data);
+        this.rememberLastId([data]);
+        if (this._notifications().some(n => n.id === notification.id)) {
+            return;
+        }
+
+        this._notifications.update(current => [notification, ...current].slice(0, 20));
+        this.updateUnreadCount();
+        this.saveToStorage();
+
+        this.toast.show(notification.message, 'success');
+    }
+
+    // A digest frame: one list update and one toast for the whole burst
+    receiveDigest(items: any[]): void {
+        this.rememberLastId(items);
+        const known = new Set(this._notifications().map(n => n.id));
+        const received = items.map(data => this.toNotification(data)).filter(n => !known.has(n.id)).reverse();
+        if (received.length === 0) {
+            return;
+        }
+
+        this._notifications.update(current => [...received, ...current].slice(0, 20));
+        this.updateUnreadCount();
+        this.saveToStorage();
+
+        this.toast.show(`${received.length} nouvelles notifications`, 'success');
+    }
+
+    // Server ids are increasing numbers: the highest one seen is where the next catch-up starts
+    private rememberLastId(items: any[]): void {
+        let last = Number(localStorage.getItem(this.LAST_ID_KEY) || 0);
+        for (const item of items) {
+            const id = Number(item.id);
+            if (Number.isFinite(id) && id > last) {
+                last = id;
+            }
+        }
+        if (last > 0) {
+            localStorage.setItem(this.LAST_ID_KEY, String(last));
+        }
+    }
+
+    private toNotification(data: any): Notification {
+        return {
             id: data.id || Date.now().toString(),
             message: data.message || `${data.type}: ${data.title}`,
             type: data.type || 'info',
@@ -128,12 +231,6 @@ export class NotificationService {
             timestamp: new Date(data.timestamp || Date.now()),
             read: false
         };
-
-        this._notifications.update(current => [notification, ...current].slice(0, 20));
-        this.updateUnreadCount();
-        this.saveToStorage();
-
-        this.toast.show(notification.message, 'success');
     }
 
     markAsRead(id: string): void {